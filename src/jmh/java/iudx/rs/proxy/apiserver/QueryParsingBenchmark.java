@@ -0,0 +1,85 @@
+package iudx.rs.proxy.apiserver;
+
+import io.vertx.core.MultiMap;
+import io.vertx.core.json.JsonObject;
+import iudx.rs.proxy.apiserver.query.NGSILDQueryParams;
+import iudx.rs.proxy.apiserver.query.ParsedQuery;
+import iudx.rs.proxy.apiserver.query.QueryMapper;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Query string decoding, {@link NGSILDQueryParams} construction and {@link QueryMapper} mapping
+ * of the GET search APIs, each stage on its own and the three together as run per request.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class QueryParsingBenchmark {
+
+  private static final String ID = "b58da193-23d9-43eb-b98a-a103d4b6103c";
+
+  @Param({"entities", "temporal", "geo"})
+  public String query;
+
+  private String uri;
+  private boolean temporal;
+  private MultiMap params;
+  private NGSILDQueryParams ngsildQuery;
+
+  @Setup
+  public void setup() {
+    switch (query) {
+      case "temporal":
+        uri = "/ngsi-ld/v1/temporal/entities?id=" + ID
+            + "&timerel=during&time=2020-10-10T14:20:00Z&endtime=2020-10-11T14:20:00Z"
+            + "&attrs=currentLevel,measuredDistance&offset=0&limit=1000";
+        temporal = true;
+        break;
+      case "geo":
+        uri = "/ngsi-ld/v1/entities?id=" + ID
+            + "&georel=within&geometry=Polygon&geoproperty=location"
+            + "&coordinates=[[[72.7815,21.1726],[72.7856,21.1519],[72.807,21.1527],"
+            + "[72.7815,21.1726]]]";
+        break;
+      default:
+        uri = "/ngsi-ld/v1/entities?id=" + ID + "&q=currentLevel>0.5&options=count";
+        break;
+    }
+    params = ParsedQuery.parse(uri).copyParams();
+    ngsildQuery = new NGSILDQueryParams(params);
+  }
+
+  @Benchmark
+  public ParsedQuery parseQuery() {
+    return ParsedQuery.parse(uri);
+  }
+
+  @Benchmark
+  public NGSILDQueryParams ngsildQueryParams() {
+    return new NGSILDQueryParams(params);
+  }
+
+  @Benchmark
+  public JsonObject queryMapper() {
+    return new QueryMapper().toJson(ngsildQuery, temporal);
+  }
+
+  @Benchmark
+  public JsonObject uriToAdapterQuery() {
+    return new QueryMapper().toJson(ParsedQuery.parse(uri).ngsildQueryParams(), temporal);
+  }
+}
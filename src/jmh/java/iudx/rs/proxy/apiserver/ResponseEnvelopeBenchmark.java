@@ -0,0 +1,73 @@
+package iudx.rs.proxy.apiserver;
+
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import iudx.rs.proxy.apiserver.response.RawAdapterResponse;
+import iudx.rs.proxy.apiserver.response.ResponseUtil;
+import iudx.rs.proxy.common.HttpStatusCode;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Client response built from an adapter reply: the decoding path (reply decoded into a
+ * JsonObject, envelope built and encoded), the pass-through path and the failure envelope.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ResponseEnvelopeBenchmark {
+
+  @Param({"10", "1000"})
+  public int results;
+
+  private String reply;
+
+  @Setup
+  public void setup() {
+    JsonArray records = new JsonArray();
+    for (int i = 0; i < results; i++) {
+      records.add(new JsonObject()
+          .put("id", "b58da193-23d9-43eb-b98a-a103d4b6103c")
+          .put("observationDateTime", "2020-10-10T14:20:00+05:30")
+          .put("currentLevel", i * 0.01)
+          .put("measuredDistance", 1.2 + i));
+    }
+    reply = new JsonObject()
+        .put("statusCode", 200)
+        .put("results", records)
+        .put("totalHits", results)
+        .put("limit", results)
+        .put("offset", 0)
+        .encode();
+  }
+
+  @Benchmark
+  public Buffer decodedEnvelope() {
+    return ApiServerVerticle.userResponseOf(new JsonObject(reply));
+  }
+
+  @Benchmark
+  public Buffer passThroughEnvelope() {
+    return RawAdapterResponse.parse(reply).toUserResponse();
+  }
+
+  @Benchmark
+  public String failureEnvelope() {
+    return ResponseUtil.generateResponse(HttpStatusCode.INTERNAL_SERVER_ERROR, "adapter failure")
+        .toString();
+  }
+}
@@ -0,0 +1,111 @@
+package iudx.rs.proxy.apiserver.validation;
+
+import io.vertx.core.MultiMap;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import iudx.rs.proxy.apiserver.util.RequestType;
+import iudx.rs.proxy.apiserver.validation.types.Validator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * {@link ValidatorsHandlersFactory#build} for every request type followed by running all the
+ * validators it returns, as the ValidationHandler does per request.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ValidatorsBenchmark {
+
+  private static final String ID = "b58da193-23d9-43eb-b98a-a103d4b6103c";
+
+  @Param({"ENTITY", "TEMPORAL", "ASYNC_SEARCH", "POST_ENTITIES", "POST_TEMPORAL"})
+  public RequestType requestType;
+
+  private Vertx vertx;
+  private final ValidatorsHandlersFactory factory = new ValidatorsHandlersFactory();
+  private final MultiMap headers = MultiMap.caseInsensitiveMultiMap();
+  private MultiMap params;
+  private JsonObject body;
+
+  @Setup
+  public void setup() {
+    vertx = Vertx.vertx();
+    params = MultiMap.caseInsensitiveMultiMap();
+    body = new JsonObject();
+    switch (requestType) {
+      case ENTITY:
+        params.add("id", ID)
+            .add("q", "currentLevel>0.5")
+            .add("attrs", "currentLevel,measuredDistance")
+            .add("georel", "near;maxDistance=100")
+            .add("geometry", "Point")
+            .add("geoproperty", "location")
+            .add("coordinates", "[73.874537,18.528311]")
+            .add("offset", "0")
+            .add("limit", "100");
+        break;
+      case TEMPORAL:
+      case ASYNC_SEARCH:
+        params.add("id", ID)
+            .add("q", "currentLevel>0.5")
+            .add("attrs", "currentLevel,measuredDistance")
+            .add("timerel", "during")
+            .add("time", "2020-10-10T14:20:00Z")
+            .add("endtime", "2020-10-11T14:20:00Z");
+        break;
+      default:
+        body.put("type", "Query")
+            .put("entities", new JsonArray().add(new JsonObject().put("id", ID)))
+            .put("q", "currentLevel>0.5")
+            .put("geoQ", new JsonObject()
+                .put("geometry", "Point")
+                .put("coordinates", new JsonArray().add(73.874537).add(18.528311))
+                .put("georel", "near;maxDistance=100")
+                .put("geoproperty", "location"));
+        if (requestType == RequestType.POST_TEMPORAL) {
+          body.put("temporalQ", new JsonObject()
+              .put("timerel", "during")
+              .put("time", "2020-10-10T14:20:00Z")
+              .put("endtime", "2020-10-11T14:20:00Z")
+              .put("timeProperty", "observationDateTime"));
+        }
+        break;
+    }
+  }
+
+  @TearDown
+  public void tearDown() {
+    vertx.close();
+  }
+
+  @Benchmark
+  public List<Validator> build() {
+    return factory.build(vertx, requestType, params, headers, body);
+  }
+
+  @Benchmark
+  public boolean buildAndValidate() {
+    boolean valid = true;
+    for (Validator validator : factory.build(vertx, requestType, params, headers, body)) {
+      valid &= validator.isValid();
+    }
+    return valid;
+  }
+}
@@ -0,0 +1,51 @@
+package iudx.rs.proxy.apiserver.validation.types;
+
+import io.vertx.core.json.JsonObject;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** the per request cost of the two validators doing the most string work. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TypeValidatorsBenchmark {
+
+  private static final String Q = "currentLevel>=0.5";
+  private static final String POINT = "[73.874537,18.528311]";
+  private static final String POLYGON =
+      "[[[72.7815,21.1726],[72.7856,21.1519],[72.807,21.1527],[72.8201,21.1613],"
+          + "[72.8125,21.1799],[72.7815,21.1726]]]";
+
+  private final QTypeValidator qValidator = new QTypeValidator(Q, false);
+
+  @Benchmark
+  public JsonObject qQueryTerms() throws Exception {
+    return qValidator.getQueryTerms(Q);
+  }
+
+  @Benchmark
+  public boolean qValidate() {
+    return new QTypeValidator(Q, false).isValid();
+  }
+
+  @Benchmark
+  public boolean pointCoordinates() {
+    return new CoordinatesTypeValidator(POINT, false).isValid();
+  }
+
+  @Benchmark
+  public boolean polygonCoordinates() {
+    return new CoordinatesTypeValidator(POLYGON, false).isValid();
+  }
+}
@@ -0,0 +1,83 @@
+package iudx.rs.proxy.authenticator.codec;
+
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.eventbus.impl.codecs.JsonObjectMessageCodec;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import iudx.rs.proxy.authenticator.model.JwtData;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Event bus serialization of a token introspection message, with the default json codec against
+ * the authentication codec, for local and clustered delivery.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AuthCodecBenchmark {
+
+  private final JsonObjectMessageCodec jsonCodec = new JsonObjectMessageCodec();
+  private final AuthContextCodec authContextCodec = new AuthContextCodec();
+
+  private JsonObject message;
+
+  @Setup
+  public void setup() {
+    JwtData jwtData = new JwtData();
+    jwtData.setAccess_token("eyJ0eXAiOiJKV1QiLCJhbGciOiJFUzI1NiJ9.eyJzdWIiOiI4NDRlMjUxYiJ9.sig");
+    jwtData.setSub("844e251b-574b-46e6-9247-f76f1f70a637");
+    jwtData.setIss("authvertx.iudx.io");
+    jwtData.setAud("rs.iudx.io");
+    jwtData.setExp(1627408865);
+    jwtData.setIat(1627365665);
+    jwtData.setIid("ri:b58da193-23d9-43eb-b98a-a103d4b6103c");
+    jwtData.setRole("consumer");
+    jwtData.setCons(new JsonObject().put("access", new JsonArray().add("api").add("sub")));
+    message = new JsonObject()
+        .put("request", new JsonObject()
+            .put("ids", new JsonArray().add("b58da193-23d9-43eb-b98a-a103d4b6103c")))
+        .put("authenticationInfo", new JsonObject()
+            .put("apiEndpoint", "/ngsi-ld/v1/entities")
+            .put("token", jwtData.getAccess_token())
+            .put("method", "GET")
+            .put("id", "b58da193-23d9-43eb-b98a-a103d4b6103c"))
+        .put("jwtData", jwtData.toJson());
+  }
+
+  @Benchmark
+  public JsonObject localDefault() {
+    return jsonCodec.transform(message);
+  }
+
+  @Benchmark
+  public JsonObject localAuthContext() {
+    return authContextCodec.transform(message);
+  }
+
+  @Benchmark
+  public JsonObject clusteredDefault() {
+    Buffer buffer = Buffer.buffer();
+    jsonCodec.encodeToWire(buffer, message);
+    return jsonCodec.decodeFromWire(0, buffer);
+  }
+
+  @Benchmark
+  public JsonObject clusteredAuthContext() {
+    Buffer buffer = Buffer.buffer();
+    authContextCodec.encodeToWire(buffer, message);
+    return authContextCodec.decodeFromWire(0, buffer);
+  }
+}
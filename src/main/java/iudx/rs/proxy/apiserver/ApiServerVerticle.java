@@ -12,23 +12,21 @@ import static iudx.rs.proxy.common.ResponseUrn.INVALID_TEMPORAL_PARAM_URN;
 
 import io.vertx.core.json.JsonArray;
 import iudx.rs.proxy.apiserver.handlers.TokenDecodeHandler;
+import iudx.rs.proxy.common.LocalServices;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.time.temporal.ChronoUnit;
 import java.util.List;
-import java.util.Map;
-import java.util.Optional;
 import java.util.stream.Stream;
 
 import iudx.rs.proxy.optional.consentlogs.ConsentLoggingService;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
-import io.netty.handler.codec.http.HttpConstants;
-import io.netty.handler.codec.http.QueryStringDecoder;
 import io.vertx.core.AbstractVerticle;
 import io.vertx.core.Future;
 import io.vertx.core.MultiMap;
 import io.vertx.core.Promise;
+import io.vertx.core.buffer.Buffer;
 import io.vertx.core.http.HttpServer;
 import io.vertx.core.http.HttpServerOptions;
 import io.vertx.core.http.HttpServerRequest;
@@ -41,21 +39,30 @@ import io.vertx.ext.web.Router;
 import io.vertx.ext.web.RoutingContext;
 import io.vertx.ext.web.handler.BodyHandler;
 import io.vertx.ext.web.handler.CorsHandler;
+import io.vertx.micrometer.backends.BackendRegistries;
 import iudx.rs.proxy.apiserver.exceptions.DxRuntimeException;
 import iudx.rs.proxy.apiserver.handlers.AuthHandler;
+import iudx.rs.proxy.apiserver.handlers.AuthHandler.IdSource;
 import iudx.rs.proxy.apiserver.handlers.ConsentLogRequestHandler;
 import iudx.rs.proxy.apiserver.handlers.FailureHandler;
+import iudx.rs.proxy.apiserver.handlers.QueryParseHandler;
 import iudx.rs.proxy.apiserver.handlers.ValidationHandler;
 import iudx.rs.proxy.apiserver.query.NGSILDQueryParams;
+import iudx.rs.proxy.apiserver.query.ParsedQuery;
 import iudx.rs.proxy.apiserver.query.QueryMapper;
 import iudx.rs.proxy.apiserver.response.ResponseType;
+import iudx.rs.proxy.apiserver.response.AdapterStreamWriter;
+import iudx.rs.proxy.apiserver.response.RawAdapterResponse;
 import iudx.rs.proxy.apiserver.response.ResponseUtil;
 import iudx.rs.proxy.apiserver.service.CatalogueService;
+import iudx.rs.proxy.apiserver.service.LatestSearchCache;
 import iudx.rs.proxy.apiserver.util.RequestType;
+import iudx.rs.proxy.apiserver.validation.SchemaRegistry;
 import iudx.rs.proxy.common.Api;
 import iudx.rs.proxy.common.HttpStatusCode;
 import iudx.rs.proxy.common.ResponseUrn;
 import iudx.rs.proxy.database.DatabaseService;
+import iudx.rs.proxy.databroker.CoalescingDatabrokerService;
 import iudx.rs.proxy.databroker.DatabrokerService;
 import iudx.rs.proxy.metering.MeteringService;
 
@@ -64,6 +71,7 @@ import iudx.rs.proxy.metering.MeteringService;
 public class ApiServerVerticle extends AbstractVerticle {
 
   private static final Logger LOGGER = LogManager.getLogger(ApiServerVerticle.class);
+  private static final long DEFAULT_MAX_REQUEST_BODY_BYTES = 64 * 1024L;
 
   private int port;
   private HttpServer server;
@@ -80,33 +88,56 @@ public class ApiServerVerticle extends AbstractVerticle {
   private String dxApiBasePath;
   private ConsentLoggingService consentLoggingService;
   private boolean isAdexInstance;
+  private LatestSearchCache latestSearchCache;
+  private boolean adapterResponsePassThrough;
+  private boolean adapterChunkedReplies;
 
   @Override
   public void start() throws Exception {
-    catalogueService = new CatalogueService(vertx, config());
-    databaseService = DatabaseService.createProxy(vertx, DB_SERVICE_ADDRESS);
-    meteringService = MeteringService.createProxy(vertx, METERING_SERVICE_ADDRESS);
-    brokerService = DatabrokerService.createProxy(vertx, DATABROKER_SERVICE_ADDRESS);
+    catalogueService = CatalogueService.getInstance(vertx, config());
+    databaseService = LocalServices.createProxy(vertx, DB_SERVICE_ADDRESS,
+        DatabaseService.class, DatabaseService::createProxy);
+    meteringService = LocalServices.createProxy(vertx, METERING_SERVICE_ADDRESS,
+        MeteringService.class, MeteringService::createProxy);
+    brokerService = LocalServices.createProxy(vertx, DATABROKER_SERVICE_ADDRESS,
+        DatabrokerService.class, DatabrokerService::createProxy);
+    if (config().getBoolean("coalesceAdapterQueries", false)) {
+      brokerService = new CoalescingDatabrokerService(brokerService);
+    }
     validator = new ParamsValidator(catalogueService);
-    consentLoggingService = ConsentLoggingService.createProxy(vertx,CONSEENTLOG_SERVICE_ADDRESS);
+    if (config().containsKey("latestSearchCache")) {
+      latestSearchCache = new LatestSearchCache(config().getJsonObject("latestSearchCache"))
+          .bindMetrics(BackendRegistries.getDefaultNow(),
+              deploymentID() + "-" + Integer.toHexString(hashCode()));
+    }
+    consentLoggingService = LocalServices.createProxy(vertx, CONSEENTLOG_SERVICE_ADDRESS,
+        ConsentLoggingService.class, ConsentLoggingService::createProxy);
 
     /* Get base paths from config */
     dxApiBasePath=config().getString("dxApiBasePath");
     dxCatalogueBasePath = config().getString("dxCatalogueBasePath");
     dxAuthBasePath = config().getString("dxAuthBasePath");
     isAdexInstance = config().getBoolean("isAdexInstance");
+    adapterResponsePassThrough = config().getBoolean("adapterResponsePassThrough", false);
+    adapterChunkedReplies = config().getBoolean("adapterChunkedReplies", false);
     Api apis=Api.getInstance(dxApiBasePath);
 
     router = Router.router(vertx);
     attachCORSHandlers(router);
     attachDefaultResponses(router);
-    router.route().handler(BodyHandler.create());
+    // oversized bodies are rejected with 413 before they are buffered and parsed
+    router.route().handler(BodyHandler.create()
+        .setBodyLimit(config().getLong("maxRequestBodyBytes", DEFAULT_MAX_REQUEST_BODY_BYTES)));
 
     FailureHandler validationsFailureHandler = new FailureHandler();
+    SchemaRegistry schemaRegistry = SchemaRegistry.create(vertx);
 
     ValidationHandler entityValidationHandler = new ValidationHandler(vertx, RequestType.ENTITY);
     router
             .get(apis.getEntitiesEndpoint())
+            .putMetadata(AuthHandler.ROUTE_ENDPOINT, apis.getEntitiesEndpoint())
+            .putMetadata(AuthHandler.ROUTE_ID_SOURCE, IdSource.QUERY)
+            .handler(QueryParseHandler.create())
             .handler(entityValidationHandler)
             .handler(TokenDecodeHandler.create(vertx))
             .handler(new ConsentLogRequestHandler(vertx, isAdexInstance))
@@ -118,6 +149,9 @@ public class ApiServerVerticle extends AbstractVerticle {
         new ValidationHandler(vertx, RequestType.TEMPORAL);
     router
             .get(apis.getTemporalEndpoint())
+            .putMetadata(AuthHandler.ROUTE_ENDPOINT, apis.getTemporalEndpoint())
+            .putMetadata(AuthHandler.ROUTE_ID_SOURCE, IdSource.QUERY)
+            .handler(QueryParseHandler.create())
             .handler(temporalValidationHandler)
             .handler(TokenDecodeHandler.create(vertx))
             .handler(new ConsentLogRequestHandler(vertx, isAdexInstance))
@@ -127,6 +161,8 @@ public class ApiServerVerticle extends AbstractVerticle {
 
     router
             .get(apis.getConsumerAuditEndpoint())
+            .putMetadata(AuthHandler.ROUTE_ENDPOINT, apis.getConsumerAuditEndpoint())
+            .putMetadata(AuthHandler.ROUTE_ID_SOURCE, IdSource.QUERY)
             .handler(TokenDecodeHandler.create(vertx))
             .handler(new ConsentLogRequestHandler(vertx, isAdexInstance))
             .handler(AuthHandler.create(vertx, apis))
@@ -134,6 +170,8 @@ public class ApiServerVerticle extends AbstractVerticle {
 
     router
             .get(apis.getProviderAuditEndpoint())
+            .putMetadata(AuthHandler.ROUTE_ENDPOINT, apis.getProviderAuditEndpoint())
+            .putMetadata(AuthHandler.ROUTE_ID_SOURCE, IdSource.QUERY)
             .handler(TokenDecodeHandler.create(vertx))
             .handler(new ConsentLogRequestHandler(vertx, isAdexInstance))
             .handler(AuthHandler.create(vertx, apis))
@@ -141,9 +179,11 @@ public class ApiServerVerticle extends AbstractVerticle {
 
     // Post Queries
     ValidationHandler postEntitiesValidationHandler =
-            new ValidationHandler(vertx, RequestType.POST_ENTITIES);
+            new ValidationHandler(vertx, RequestType.POST_ENTITIES, schemaRegistry);
     router
             .post(apis.getPostEntitiesEndpoint())
+            .putMetadata(AuthHandler.ROUTE_ENDPOINT, apis.getPostEntitiesEndpoint())
+            .putMetadata(AuthHandler.ROUTE_ID_SOURCE, IdSource.BODY)
             .consumes(APPLICATION_JSON)
             .handler(postEntitiesValidationHandler)
             .handler(TokenDecodeHandler.create(vertx))
@@ -153,14 +193,16 @@ public class ApiServerVerticle extends AbstractVerticle {
             .failureHandler(validationsFailureHandler);
 
     ValidationHandler postTemporalValidationHandler =
-            new ValidationHandler(vertx, RequestType.POST_TEMPORAL);
+            new ValidationHandler(vertx, RequestType.POST_TEMPORAL, schemaRegistry);
     router
             .post(apis.getPostTemporalEndpoint())
+            .putMetadata(AuthHandler.ROUTE_ENDPOINT, apis.getPostTemporalEndpoint())
+            .putMetadata(AuthHandler.ROUTE_ID_SOURCE, IdSource.BODY)
             .consumes(APPLICATION_JSON)
             .handler(postTemporalValidationHandler)
             .handler(TokenDecodeHandler.create(vertx))
             .handler(new ConsentLogRequestHandler(vertx, isAdexInstance))
-            .handler(AuthHandler.create(vertx,apis))
+            .handler(AuthHandler.create(vertx, apis))
             .handler(this::handlePostEntitiesQuery)
             .failureHandler(validationsFailureHandler);
     /** Documentation routes */
@@ -297,12 +339,11 @@ public class ApiServerVerticle extends AbstractVerticle {
     JsonObject authInfo = (JsonObject) routingContext.data().get("authInfo");
     HttpServerRequest request = routingContext.request();
     HttpServerResponse response = routingContext.response();
-    MultiMap params = getQueryParams(routingContext, response).get();
-    MultiMap headerParams = request.headers();
-    Future<Boolean> validationResult = validator.validate(params);
+    ParsedQuery query = QueryParseHandler.get(routingContext);
+    Future<Boolean> validationResult = validator.validate(query);
     validationResult.onComplete(validationHandler -> {
       if (validationHandler.succeeded()) {
-        NGSILDQueryParams ngsildQuery = new NGSILDQueryParams(params);
+        NGSILDQueryParams ngsildQuery = query.ngsildQueryParams();
         if (isTemporalParamsPresent(ngsildQuery)) {
           DxRuntimeException ex =
               new DxRuntimeException(BAD_REQUEST.getValue(), INVALID_TEMPORAL_PARAM_URN,
@@ -351,12 +392,12 @@ public class ApiServerVerticle extends AbstractVerticle {
     HttpServerRequest request = routingContext.request();
     HttpServerResponse response = routingContext.response();
     String instanceID = request.getHeader(HEADER_HOST);
-    MultiMap params = getQueryParams(routingContext, response).get();
-    Future<Boolean> validationResult = validator.validate(params);
+    ParsedQuery query = QueryParseHandler.get(routingContext);
+    Future<Boolean> validationResult = validator.validate(query);
 
     validationResult.onComplete(validationHandler -> {
       if (validationHandler.succeeded()) {
-        NGSILDQueryParams ngsildquery = new NGSILDQueryParams(params);
+        NGSILDQueryParams ngsildquery = query.ngsildQueryParams();
         QueryMapper queryMapper = new QueryMapper();
         JsonObject json = queryMapper.toJson(ngsildquery, true);
         Future<List<String>> filtersFuture =
@@ -399,6 +440,7 @@ public class ApiServerVerticle extends AbstractVerticle {
     json.put(API,authInfo.getValue(API_ENDPOINT));
     String publicKey = context.request().getHeader(HEADER_PUBLIC_KEY);
     json.put(HEADER_PUBLIC_KEY, publicKey);
+    json.put(RESOURCE_GROUP, getResourceGroup(json));
     if(isAdexInstance) {
       json.put("ppbNumber", extractPPBNo(authInfo)); // this is exclusive for ADeX deployment.
     }
@@ -416,7 +458,7 @@ public class ApiServerVerticle extends AbstractVerticle {
       } else {
         LOGGER.error("Fail: Count Fail");
         response.putHeader(CONTENT_TYPE, APPLICATION_JSON)
-                .setStatusCode(400)
+                .setStatusCode(ResponseUtil.failureStatus(handler.cause().getMessage()))
                 .end(handler.cause().getMessage());
       }
     });
@@ -435,9 +477,31 @@ public class ApiServerVerticle extends AbstractVerticle {
       json.put(API,authInfo.getValue(API_ENDPOINT));
     String publicKey = context.request().getHeader(HEADER_PUBLIC_KEY);
     json.put(HEADER_PUBLIC_KEY, publicKey);
+    json.put(RESOURCE_GROUP, getResourceGroup(json));
     if (isAdexInstance) {
       json.put("ppbNumber", extractPPBNo(authInfo)); // this is exclusive for ADeX deployment.
     }
+    String cacheKey = latestSearchCache == null ? null : latestSearchCache.keyFor(json);
+    Buffer cachedResponse = cacheKey == null ? null : latestSearchCache.get(cacheKey);
+    if (cachedResponse != null) {
+      response.putHeader(CONTENT_TYPE, APPLICATION_JSON)
+          .setStatusCode(200)
+          .end(cachedResponse);
+      context.data().put(RESPONSE_SIZE, (long) cachedResponse.length());
+      Future.future(fu -> updateAuditTable(context));
+      context.next();
+      return;
+    }
+    if (adapterChunkedReplies && isTemporalSearch(json)) {
+      adapterStreamForSearchQuery(context, json, response);
+      context.next();
+      return;
+    }
+    if (adapterResponsePassThrough) {
+      adapterPassThroughForSearchQuery(context, json, response, cacheKey);
+      context.next();
+      return;
+    }
     brokerService.executeAdapterQueryRPC(json, handler -> {
       if (handler.succeeded()) {
         JsonObject adapterResponse=handler.result();
@@ -448,56 +512,120 @@ public class ApiServerVerticle extends AbstractVerticle {
           LOGGER.info("Success: adapter call Success with {}",status);
           LOGGER.debug("adapter response"+adapterResponse);
           LOGGER.debug("limit value.."+adapterResponse.getValue("limit"));
-          JsonObject userResponse = new JsonObject();
-          userResponse.put("type", ResponseUrn.SUCCESS_URN.getUrn());
-          userResponse.put("title", ResponseUrn.SUCCESS_URN.getMessage());
-          userResponse.put("results", adapterResponse.getValue("results"));
-          userResponse.put("totalHits", adapterResponse.getValue("totalHits"));
-          if(adapterResponse.containsKey("limit")){
-              userResponse.put("limit", adapterResponse.getValue("limit"));
-          }
-          if(adapterResponse.containsKey("offset")){
-                userResponse.put("offset", adapterResponse.getValue("offset"));
-            }
-          response.end(userResponse.toString());
-          context.data().put(RESPONSE_SIZE, response.bytesWritten());
-          Future.future(fu -> updateAuditTable(context));
+          endSearchResponse(context, response, json, cacheKey, userResponseOf(adapterResponse));
         }else {
-          LOGGER.info("Success: adapter call success with {}",status);
-          HttpStatusCode responseUrn=HttpStatusCode.getByValue(status);
-          String adapterFailureMessage=adapterResponse.getString("details");
-          JsonObject responseJson=ResponseUtil.generateResponse(responseUrn,adapterFailureMessage);
-          response.end(responseJson.toString());
+          endAdapterFailure(response, status, adapterResponse.getString("details"));
         }
                 
       } else {
         LOGGER.error("Failure: Adapter Search Fail");
         response.putHeader(CONTENT_TYPE, APPLICATION_JSON)
-                .setStatusCode(400)
+                .setStatusCode(ResponseUtil.failureStatus(handler.cause().getMessage()))
                 .end(handler.cause().getMessage());
       }
     });
       context.next();
   }
-  private Optional<MultiMap> getQueryParams(RoutingContext routingContext,
-      HttpServerResponse response) {
-    MultiMap queryParams = null;
-    try {
-      queryParams = MultiMap.caseInsensitiveMultiMap();
-      // Internally + sign is dropped and treated as space, replacing + with %2B do the trick
-      String uri = routingContext.request().uri().replaceAll("\\+", "%2B");
-      Map<String, List<String>> decodedParams =
-          new QueryStringDecoder(uri, HttpConstants.DEFAULT_CHARSET, true, 1024, true).parameters();
-      for (Map.Entry<String, List<String>> entry : decodedParams.entrySet()) {
-        LOGGER.debug("Info: param :" + entry.getKey() + " value : " + entry.getValue());
-        queryParams.add(entry.getKey(), entry.getValue());
+
+  /**
+   * pass-through variant of the search call, only the envelope of the adapter reply is read and
+   * the results are copied to the client response without being decoded.
+   */
+  private void adapterPassThroughForSearchQuery(RoutingContext context, JsonObject json,
+      HttpServerResponse response, String cacheKey) {
+    brokerService.executeAdapterQueryRPCRaw(json, handler -> {
+      if (handler.failed()) {
+        LOGGER.error("Failure: Adapter Search Fail");
+        response.putHeader(CONTENT_TYPE, APPLICATION_JSON)
+            .setStatusCode(ResponseUtil.failureStatus(handler.cause().getMessage()))
+            .end(handler.cause().getMessage());
+        return;
       }
-    } catch (IllegalArgumentException ex) {
-      response.putHeader(CONTENT_TYPE, APPLICATION_JSON)
-          .setStatusCode(HttpStatusCode.BAD_REQUEST.getValue())
-          .end(generateResponse(HttpStatusCode.BAD_REQUEST, INVALID_PARAM_URN).toString());
+      RawAdapterResponse adapterResponse;
+      try {
+        adapterResponse = RawAdapterResponse.parse(handler.result());
+      } catch (DecodeException e) {
+        LOGGER.error("Failure: adapter reply not a valid json : {}", e.getMessage());
+        response.putHeader(CONTENT_TYPE, APPLICATION_JSON)
+            .setStatusCode(400)
+            .end("Failed to get the response");
+        return;
+      }
+      int status = adapterResponse.getStatusCode();
+      response.putHeader(CONTENT_TYPE, APPLICATION_JSON);
+      response.setStatusCode(status);
+      if (status == 200) {
+        LOGGER.info("Success: adapter call Success with {}", status);
+        endSearchResponse(context, response, json, cacheKey, adapterResponse.toUserResponse());
+      } else {
+        endAdapterFailure(response, status, adapterResponse.getDetails());
+      }
+    });
+  }
+
+  /**
+   * streamed variant of the search call, adapter reply chunks are written to the client as they
+   * arrive instead of waiting for the complete result set.
+   */
+  private void adapterStreamForSearchQuery(RoutingContext context, JsonObject json,
+      HttpServerResponse response) {
+    AdapterStreamWriter writer = new AdapterStreamWriter(vertx, response);
+    writer.ready()
+        .onSuccess(ready -> brokerService.executeAdapterQueryStream(json, writer.address(),
+            handler -> {
+              if (handler.failed()) {
+                LOGGER.error("Failure: Adapter stream Fail, {}", handler.cause().getMessage());
+                writer.fail(handler.cause().getMessage());
+              }
+            }))
+        .onFailure(failure -> writer.fail(failure.getMessage()));
+    writer.completion().onSuccess(written -> {
+      LOGGER.info("Success: adapter stream completed");
+      context.data().put(RESPONSE_SIZE, response.bytesWritten());
+      Future.future(fu -> updateAuditTable(context));
+    });
+  }
+
+  private boolean isTemporalSearch(JsonObject json) {
+    String searchType = json.getString(JSON_SEARCH_TYPE);
+    return searchType != null && searchType.startsWith(JSON_TEMPORAL_SEARCH.replace("_", ""));
+  }
+
+  private void endSearchResponse(RoutingContext context, HttpServerResponse response,
+      JsonObject json, String cacheKey, Buffer responseBody) {
+    if (cacheKey != null) {
+      latestSearchCache.put(cacheKey, getResourceGroup(json), responseBody);
+    }
+    response.end(responseBody);
+    context.data().put(RESPONSE_SIZE, response.bytesWritten());
+    Future.future(fu -> updateAuditTable(context));
+  }
+
+  /* success envelope of a decoded adapter search reply. */
+  static Buffer userResponseOf(JsonObject adapterResponse) {
+    JsonObject userResponse = new JsonObject();
+    userResponse.put("type", ResponseUrn.SUCCESS_URN.getUrn());
+    userResponse.put("title", ResponseUrn.SUCCESS_URN.getMessage());
+    userResponse.put("results", adapterResponse.getValue("results"));
+    userResponse.put("totalHits", adapterResponse.getValue("totalHits"));
+    if (adapterResponse.containsKey("limit")) {
+      userResponse.put("limit", adapterResponse.getValue("limit"));
     }
-    return Optional.of(queryParams);
+    if (adapterResponse.containsKey("offset")) {
+      userResponse.put("offset", adapterResponse.getValue("offset"));
+    }
+    return userResponse.toBuffer();
+  }
+
+  private void endAdapterFailure(HttpServerResponse response, int status, String details) {
+    LOGGER.info("Success: adapter call success with {}", status);
+    HttpStatusCode responseUrn = HttpStatusCode.getByValue(status);
+    JsonObject responseJson = ResponseUtil.generateResponse(responseUrn, details);
+    response.end(responseJson.toString());
+  }
+
+  private String getResourceGroup(JsonObject json) {
+    return CatalogueService.getResourceGroup(json.getJsonArray("id").getString(0));
   }
 
   private void handleSuccessResponse(HttpServerResponse response, int statusCode, String result) {
@@ -637,7 +765,6 @@ public class ApiServerVerticle extends AbstractVerticle {
     requestJson.remove("logType");
     HttpServerResponse response = routingContext.response();
     MultiMap headerParams = request.headers();
-    MultiMap params = getQueryParams(routingContext, response).get();
     Future<Boolean> validationResult = validator.validate(requestJson);
     validationResult.onComplete(validationHandler -> {
       if (validationHandler.succeeded()) {
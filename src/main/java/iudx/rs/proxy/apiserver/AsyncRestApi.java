@@ -1,9 +1,6 @@
 package iudx.rs.proxy.apiserver;
 
-import io.netty.handler.codec.http.HttpConstants;
-import io.netty.handler.codec.http.QueryStringDecoder;
 import io.vertx.core.Future;
-import io.vertx.core.MultiMap;
 import io.vertx.core.Promise;
 import io.vertx.core.Vertx;
 import io.vertx.core.http.HttpServerRequest;
@@ -15,13 +12,16 @@ import io.vertx.ext.web.Router;
 import io.vertx.ext.web.RoutingContext;
 import iudx.rs.proxy.apiserver.exceptions.DxRuntimeException;
 import iudx.rs.proxy.apiserver.handlers.*;
+import iudx.rs.proxy.apiserver.handlers.AuthHandler.IdSource;
 import iudx.rs.proxy.apiserver.query.NGSILDQueryParams;
+import iudx.rs.proxy.apiserver.query.ParsedQuery;
 import iudx.rs.proxy.apiserver.query.QueryMapper;
 import iudx.rs.proxy.apiserver.response.ResponseType;
 import iudx.rs.proxy.apiserver.response.ResponseUtil;
 import iudx.rs.proxy.apiserver.service.CatalogueService;
 import iudx.rs.proxy.common.Api;
 import iudx.rs.proxy.common.HttpStatusCode;
+import iudx.rs.proxy.common.LocalServices;
 import iudx.rs.proxy.common.ResponseUrn;
 import iudx.rs.proxy.database.DatabaseService;
 import iudx.rs.proxy.databroker.DatabrokerService;
@@ -35,8 +35,6 @@ import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.time.temporal.ChronoUnit;
 import java.util.List;
-import java.util.Map;
-import java.util.Optional;
 
 import static iudx.rs.proxy.apiserver.response.ResponseUtil.generateResponse;
 import static iudx.rs.proxy.apiserver.util.ApiServerConstants.*;
@@ -68,12 +66,16 @@ public class AsyncRestApi {
     AsyncRestApi(Vertx vertx, Router router, Api api, JsonObject config) {
         this.vertx = vertx;
         this.router = router;
-        this.databrokerService = DatabrokerService.createProxy(vertx, DATABROKER_SERVICE_ADDRESS);
-        this.catalogueService = new CatalogueService(vertx, config);
+        this.databrokerService = LocalServices.createProxy(vertx, DATABROKER_SERVICE_ADDRESS,
+            DatabrokerService.class, DatabrokerService::createProxy);
+        this.catalogueService = CatalogueService.getInstance(vertx, config);
         this.validator = new ParamsValidator(catalogueService);
-        this.databaseService = DatabaseService.createProxy(vertx, DB_SERVICE_ADDRESS);
-        this.meteringService = MeteringService.createProxy(vertx, METERING_SERVICE_ADDRESS);
-        this.consentLoggingService = ConsentLoggingService.createProxy(vertx, CONSEENTLOG_SERVICE_ADDRESS);
+        this.databaseService = LocalServices.createProxy(vertx, DB_SERVICE_ADDRESS,
+            DatabaseService.class, DatabaseService::createProxy);
+        this.meteringService = LocalServices.createProxy(vertx, METERING_SERVICE_ADDRESS,
+            MeteringService.class, MeteringService::createProxy);
+        this.consentLoggingService = LocalServices.createProxy(vertx, CONSEENTLOG_SERVICE_ADDRESS,
+            ConsentLoggingService.class, ConsentLoggingService::createProxy);
         this.api = api;
         isAdexInstance = config.getBoolean("isAdexInstance");
     }
@@ -84,6 +86,9 @@ public class AsyncRestApi {
         ValidationHandler asyncSearchValidation = new ValidationHandler(vertx, ASYNC_SEARCH);
         router
                 .get(SEARCH)
+                .putMetadata(AuthHandler.ROUTE_ENDPOINT, api.getAsyncSearchEndPoint())
+                .putMetadata(AuthHandler.ROUTE_ID_SOURCE, IdSource.QUERY)
+                .handler(QueryParseHandler.create())
                 .handler(asyncSearchValidation)
                 .handler(TokenDecodeHandler.create(vertx))
                 .handler(new ConsentLogRequestHandler(vertx, isAdexInstance))
@@ -94,6 +99,8 @@ public class AsyncRestApi {
         ValidationHandler asyncStatusValidation = new ValidationHandler(vertx, ASYNC_STATUS);
         router
                 .get(STATUS)
+                .putMetadata(AuthHandler.ROUTE_ENDPOINT, api.getAsyncStatusEndpoint())
+                .putMetadata(AuthHandler.ROUTE_ID_SOURCE, IdSource.NONE)
                 .handler(asyncStatusValidation)
                 .handler(TokenDecodeHandler.create(vertx))
                 .handler(new ConsentLogRequestHandler(vertx, isAdexInstance))
@@ -156,7 +163,7 @@ public class AsyncRestApi {
         HttpServerRequest request = routingContext.request();
         HttpServerResponse response = routingContext.response();
         String instanceId = request.getHeader(HEADER_HOST);
-        MultiMap params = getQueryParams(routingContext, response).get();
+        ParsedQuery params = QueryParseHandler.get(routingContext);
 
         if (containsTemporalParams(params) && !isValidTemporalQuery(params)) {
             routingContext.fail(
@@ -174,7 +181,7 @@ public class AsyncRestApi {
         validationResult.onComplete(
                 validationHandler -> {
                     if (validationHandler.succeeded()) {
-                        NGSILDQueryParams ngsildquery = new NGSILDQueryParams(params);
+                        NGSILDQueryParams ngsildquery = params.ngsildQueryParams();
                         QueryMapper queryMapper = new QueryMapper();
                         JsonObject json = queryMapper.toJson(ngsildquery, true, true);
                         json.put(JSON_INSTANCEID, instanceId);
@@ -260,49 +267,26 @@ public class AsyncRestApi {
 
     }
 
-    private Optional<MultiMap> getQueryParams(
-            RoutingContext routingContext, HttpServerResponse response) {
-        MultiMap queryParams = null;
-        try {
-            queryParams = MultiMap.caseInsensitiveMultiMap();
-            // Internally + sign is dropped and treated as space, replacing + with %2B do the trick
-            String uri = routingContext.request().uri().replaceAll("\\+", "%2B");
-            Map<String, List<String>> decodedParams =
-                    new QueryStringDecoder(uri, HttpConstants.DEFAULT_CHARSET, true, 1024, true).parameters();
-            for (Map.Entry<String, List<String>> entry : decodedParams.entrySet()) {
-                LOGGER.debug("Info: param :" + entry.getKey() + " value : " + entry.getValue());
-                queryParams.add(entry.getKey(), entry.getValue());
-            }
-        } catch (IllegalArgumentException ex) {
-            response
-                    .putHeader(CONTENT_TYPE, APPLICATION_JSON)
-                    .setStatusCode(BAD_REQUEST.getValue())
-                    .end(generateResponse(BAD_REQUEST, INVALID_PARAM_URN).toString());
-        }
-        return Optional.of(queryParams);
-    }
-
-
-    private boolean isValidTemporalQuery(MultiMap params) {
+    private boolean isValidTemporalQuery(ParsedQuery params) {
         return params.contains(JSON_TIMEREL)
                 && params.contains(JSON_TIME)
                 && params.contains(JSON_ENDTIME);
     }
 
-    private boolean containsTemporalParams(MultiMap params) {
+    private boolean containsTemporalParams(ParsedQuery params) {
         return params.contains(JSON_TIMEREL)
                 || params.contains(JSON_TIME)
                 || params.contains(JSON_ENDTIME);
     }
 
-    private boolean isValidGeoQuery(MultiMap params) {
+    private boolean isValidGeoQuery(ParsedQuery params) {
         return params.contains(JSON_GEOPROPERTY)
                 && params.contains(JSON_GEOREL)
                 && params.contains(JSON_GEOMETRY)
                 && params.contains(JSON_COORDINATES);
     }
 
-    private boolean containsGeoParams(MultiMap params) {
+    private boolean containsGeoParams(ParsedQuery params) {
         return params.contains(JSON_GEOPROPERTY)
                 || params.contains(JSON_GEOREL)
                 || params.contains(JSON_GEOMETRY)
@@ -315,6 +299,9 @@ public class AsyncRestApi {
         json.put(API, authInfo.getValue(API_ENDPOINT));
         String publicKey = context.request().getHeader(HEADER_PUBLIC_KEY);
         json.put(HEADER_PUBLIC_KEY, publicKey);
+        String id = json.containsKey("routingKey") ? json.getString("routingKey")
+                : json.getJsonArray("id").getString(0);
+        json.put(RESOURCE_GROUP, CatalogueService.getResourceGroup(id));
         if (isAdexInstance) {
             json.put("ppbNumber", extractPPBNo(authInfo)); // this is exclusive for ADeX deployment.
         }
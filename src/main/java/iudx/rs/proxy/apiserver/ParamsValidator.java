@@ -6,11 +6,13 @@ import io.vertx.core.Promise;
 import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
 import iudx.rs.proxy.apiserver.exceptions.DxRuntimeException;
+import iudx.rs.proxy.apiserver.query.ParsedQuery;
 import iudx.rs.proxy.apiserver.service.CatalogueService;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.function.Predicate;
 
 import iudx.rs.proxy.apiserver.validation.types.*;
 import iudx.rs.proxy.common.HttpStatusCode;
@@ -67,6 +69,14 @@ public class ParamsValidator {
 
   private final CatalogueService catalogueService;
 
+  /**
+   * @param name query parameter name
+   * @return true if the parameter is accepted in a query
+   */
+  public static boolean isValidParam(String name) {
+    return validParams.contains(name);
+  }
+
   public ParamsValidator(CatalogueService catalogueService) {
     this.catalogueService = catalogueService;
   }
@@ -97,7 +107,7 @@ public class ParamsValidator {
 
     Promise<Boolean> promise = Promise.promise();
     if (validateParams(paramsMap)) {
-      isValidQueryWithFilters(paramsMap).onComplete(handler -> {
+      isValidQueryWithFilters(paramsMap.get("id"), paramsMap::contains).onComplete(handler -> {
         if (handler.succeeded()) {
           {
             promise.complete(true);
@@ -113,6 +123,20 @@ public class ParamsValidator {
   }
 
 
+  /**
+   * validate request parameters parsed by the query parse stage, the parameter names were
+   * checked while parsing.
+   *
+   * @param query parsed query of the request
+   * @return Future future JsonObject
+   */
+  public Future<Boolean> validate(ParsedQuery query) {
+    if (!query.hasOnlyKnownParams()) {
+      return Future.failedFuture(MSG_BAD_QUERY);
+    }
+    return isValidQueryWithFilters(query.get("id"), query::contains);
+  }
+
   public Future<Boolean> validate(JsonObject requestJson) {
     Promise<Boolean> promise = Promise.promise();
     MultiMap paramsMap = MultiMap.caseInsensitiveMultiMap();
@@ -164,21 +188,21 @@ public class ParamsValidator {
   }
 
 
-  private Future<Boolean> isValidQueryWithFilters(MultiMap paramsMap) {
+  private Future<Boolean> isValidQueryWithFilters(String id, Predicate<String> hasParam) {
     Promise<Boolean> promise = Promise.promise();
-    Future<List<String>> filtersFuture = catalogueService.getApplicableFilters(paramsMap.get("id"));
+    Future<List<String>> filtersFuture = catalogueService.getApplicableFilters(id);
     filtersFuture.onComplete(handler -> {
       if (handler.succeeded()) {
         List<String> filters = filtersFuture.result();
-        if (isTemporalQuery(paramsMap) && !filters.contains("TEMPORAL")) {
+        if (isTemporalQuery(hasParam) && !filters.contains("TEMPORAL")) {
           promise.fail("Temporal parameters are not supported by RS group/Item.");
           return;
         }
-        if (isAttributeQuery(paramsMap) && !filters.contains("ATTR")) {
+        if (isAttributeQuery(hasParam) && !filters.contains("ATTR")) {
           promise.fail("Attribute parameters are not supported by RS group/Item.");
           return;
         }
-          if (isSpatialQuery(paramsMap) && !filters.contains("SPATIAL")) {
+          if (isSpatialQuery(hasParam) && !filters.contains("SPATIAL")) {
               promise.fail("Spatial parameters are not supported by RS group/Item.");
               return;
           }
@@ -191,19 +215,19 @@ public class ParamsValidator {
     return promise.future();
   }
 
-  private Boolean isTemporalQuery(MultiMap params) {
-    return params.contains(NGSILDQUERY_TIMEREL)
-        || params.contains(NGSILDQUERY_TIME)
-        || params.contains(NGSILDQUERY_ENDTIME)
-        || params.contains(NGSILDQUERY_TIME_PROPERTY);
+  private Boolean isTemporalQuery(Predicate<String> params) {
+    return params.test(NGSILDQUERY_TIMEREL)
+        || params.test(NGSILDQUERY_TIME)
+        || params.test(NGSILDQUERY_ENDTIME)
+        || params.test(NGSILDQUERY_TIME_PROPERTY);
   }
 
-  private Boolean isAttributeQuery(MultiMap params) {
-    return params.contains(NGSILDQUERY_ATTRIBUTE);
+  private Boolean isAttributeQuery(Predicate<String> params) {
+    return params.test(NGSILDQUERY_ATTRIBUTE);
   }
-    private Boolean isSpatialQuery(MultiMap params) {
-        return params.contains(NGSILDQUERY_GEOREL) || params.contains(NGSILDQUERY_GEOMETRY)
-                || params.contains(NGSILDQUERY_GEOPROPERTY) || params.contains(NGSILDQUERY_COORDINATES);
+    private Boolean isSpatialQuery(Predicate<String> params) {
+        return params.test(NGSILDQUERY_GEOREL) || params.test(NGSILDQUERY_GEOMETRY)
+                || params.test(NGSILDQUERY_GEOPROPERTY) || params.test(NGSILDQUERY_COORDINATES);
 
     }
   private boolean isValidDistance(String value) {
@@ -24,29 +24,48 @@ import io.vertx.core.http.HttpServerRequest;
 import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
 import io.vertx.ext.web.RequestBody;
+import io.vertx.ext.web.Route;
 import io.vertx.ext.web.RoutingContext;
+import iudx.rs.proxy.apiserver.query.ParsedQuery;
 import iudx.rs.proxy.authenticator.AuthenticationService;
 import iudx.rs.proxy.authenticator.model.JwtData;
 import iudx.rs.proxy.common.Api;
 import iudx.rs.proxy.common.HttpStatusCode;
+import iudx.rs.proxy.common.LocalServices;
 import iudx.rs.proxy.common.ResponseUrn;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 /**
- * IUDX Authentication handler to authenticate token passed in HEADER
+ * IUDX Authentication handler to authenticate token passed in HEADER.
+ *
+ * <p>The endpoint checked against the token and the place the resource id is read from are taken
+ * from the metadata of the matched route, {@link #ROUTE_ENDPOINT} and {@link #ROUTE_ID_SOURCE}.
  */
 public class AuthHandler implements Handler<RoutingContext> {
 
   private static final Logger LOGGER = LogManager.getLogger(AuthHandler.class);
 
+  /** route metadata, endpoint of the route as listed in the access rules of a token. */
+  public static final String ROUTE_ENDPOINT = "authEndpoint";
+  /** route metadata, {@link IdSource} of the route. */
+  public static final String ROUTE_ID_SOURCE = "authIdSource";
+
+  /** where the resource id of a request on a route is read from. */
+  public enum IdSource {
+    QUERY,
+    BODY,
+    NONE
+  }
+
   static AuthenticationService authenticator;
   static Api api;
   private final String AUTH_INFO = "authInfo";
   private HttpServerRequest request;
 
   public static AuthHandler create(Vertx vertx, Api apiEndpoints) {
-    authenticator = AuthenticationService.createProxy(vertx, AUTH_SERVICE_ADDRESS);
+    authenticator = LocalServices.createProxy(vertx, AUTH_SERVICE_ADDRESS,
+        AuthenticationService.class, AuthenticationService::createProxy);
     api = apiEndpoints;
     return new AuthHandler();
   }
@@ -67,8 +86,9 @@ public class AuthHandler implements Handler<RoutingContext> {
     }
 
     String token = request.headers().get(HEADER_TOKEN);
-    final String path = getNormalizedPath(request.path());
-    final String method = context.request().method().toString();
+    Route route = context.currentRoute();
+    final String path = route.getMetadata(ROUTE_ENDPOINT);
+    final String method = request.method().name();
 
     if (token == null) {
       token = "public";
@@ -81,7 +101,7 @@ public class AuthHandler implements Handler<RoutingContext> {
 
     LOGGER.debug("Info :" + context.request().path());
 
-    String id = getId(context);
+    String id = getId(context, route.getMetadata(ROUTE_ID_SOURCE));
     authInfo.put(ID, id);
     JsonArray ids = new JsonArray();
     String[] idArray = (id == null ? new String[0] : id.split(","));
@@ -137,26 +157,30 @@ public class AuthHandler implements Handler<RoutingContext> {
   }
 
   /**
-   * extract id from request (path/query or body )
+   * extract id from the request part the route takes it from, query ids fall back to the body.
    *
    * @param context current routing context
-   * @return id extraced fro path if present
+   * @param idSource id source of the route, the query when not set
+   * @return id of the requested resource, null if the route has none
    */
-  private String getId(RoutingContext context) {
-    String paramId = getId4rmRequest();
-    String bodyId = getId4rmBody(context);
-    String id;
-    if (paramId != null && !paramId.isBlank()) {
-      id = paramId;
-    } else {
-      id = bodyId;
+  private String getId(RoutingContext context, IdSource idSource) {
+    switch (idSource == null ? IdSource.QUERY : idSource) {
+      case QUERY: {
+        String paramId = getId4rmRequest(context);
+        return paramId != null && !paramId.isBlank() ? paramId : getId4rmBody(context);
+      }
+      case BODY:
+        return getId4rmBody(context);
+      default:
+        return null;
     }
-    return id;
   }
 
-  private String getId4rmRequest() {
-    LOGGER.info("ID from request " + request.getParam(ID));
-    return request.getParam(ID);
+  private String getId4rmRequest(RoutingContext context) {
+    ParsedQuery query = QueryParseHandler.get(context);
+    String id = query != null ? query.get(ID) : request.getParam(ID);
+    LOGGER.info("ID from request " + id);
+    return id;
   }
 
   private String getId4rmBody(RoutingContext context) {
@@ -173,37 +197,4 @@ public class AuthHandler implements Handler<RoutingContext> {
     }
     return id;
   }
-
-  /**
-   * get normalized path without id as path param.
-   *
-   * @param url complete path from request
-   * @return path without id.
-   */
-  private String getNormalizedPath(String url) {
-    LOGGER.debug("URL : " + url);
-    String path = null;
-    if (url.matches(getpathRegex(api.getTemporalEndpoint()))) {
-      path = api.getTemporalEndpoint();
-    } else if (url.matches(getpathRegex(api.getEntitiesEndpoint()))) {
-      path = api.getEntitiesEndpoint();
-    } else if (url.matches(api.getConsumerAuditEndpoint())) {
-      path = api.getConsumerAuditEndpoint();
-    } else if (url.matches(api.getProviderAuditEndpoint())) {
-      path = api.getProviderAuditEndpoint();
-    } else if (url.matches(api.getPostEntitiesEndpoint())) {
-      path = api.getPostEntitiesEndpoint();
-    } else if (url.matches(api.getPostTemporalEndpoint())) {
-      path = api.getPostTemporalEndpoint();
-    } else if (url.matches(api.getAsyncSearchEndPoint())) {
-      path = api.getAsyncSearchEndPoint();
-    } else if (url.matches(api.getAsyncStatusEndpoint())) {
-      path = api.getAsyncStatusEndpoint();
-    }
-    return path;
-  }
-
-  private String getpathRegex(String path) {
-    return path + "(.*)";
-  }
 }
@@ -7,6 +7,7 @@ import io.vertx.core.Vertx;
 import io.vertx.core.json.JsonObject;
 import io.vertx.ext.web.RoutingContext;
 import iudx.rs.proxy.authenticator.model.JwtData;
+import iudx.rs.proxy.common.LocalServices;
 import iudx.rs.proxy.optional.consentlogs.ConsentLoggingService;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -22,7 +23,8 @@ public class ConsentLogRequestHandler implements Handler<RoutingContext> {
 
     public ConsentLogRequestHandler(Vertx vertx, boolean isAdexDeployment) {
         this.isAdexDeployment = isAdexDeployment;
-        consentLoggingService = ConsentLoggingService.createProxy(vertx, CONSEENTLOG_SERVICE_ADDRESS);
+        consentLoggingService = LocalServices.createProxy(vertx, CONSEENTLOG_SERVICE_ADDRESS,
+            ConsentLoggingService.class, ConsentLoggingService::createProxy);
     }
 
     @Override
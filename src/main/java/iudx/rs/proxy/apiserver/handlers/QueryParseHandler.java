@@ -0,0 +1,48 @@
+package iudx.rs.proxy.apiserver.handlers;
+
+import static iudx.rs.proxy.common.ResponseUrn.INVALID_PARAM_URN;
+
+import io.vertx.core.Handler;
+import io.vertx.ext.web.RoutingContext;
+import iudx.rs.proxy.apiserver.exceptions.DxRuntimeException;
+import iudx.rs.proxy.apiserver.query.ParsedQuery;
+import iudx.rs.proxy.common.HttpStatusCode;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * First handler of the GET query routes, decodes the query string once and stores the result in
+ * the routing context for the handlers that follow.
+ */
+public class QueryParseHandler implements Handler<RoutingContext> {
+
+  private static final Logger LOGGER = LogManager.getLogger(QueryParseHandler.class);
+  private static final String PARSED_QUERY = "parsedQuery";
+
+  public static QueryParseHandler create() {
+    return new QueryParseHandler();
+  }
+
+  /**
+   * @param context current routing context
+   * @return query parsed for this request, null if the route has no parse stage
+   */
+  public static ParsedQuery get(RoutingContext context) {
+    return context.get(PARSED_QUERY);
+  }
+
+  @Override
+  public void handle(RoutingContext context) {
+    ParsedQuery query;
+    try {
+      query = ParsedQuery.parse(context.request().uri());
+    } catch (IllegalArgumentException ex) {
+      LOGGER.error("Fail: unable to decode query : {}", ex.getMessage());
+      context.fail(new DxRuntimeException(HttpStatusCode.BAD_REQUEST.getValue(),
+          INVALID_PARAM_URN));
+      return;
+    }
+    context.put(PARSED_QUERY, query);
+    context.next();
+  }
+}
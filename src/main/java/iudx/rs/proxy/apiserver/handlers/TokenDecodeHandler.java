@@ -8,6 +8,7 @@ import io.vertx.ext.web.RoutingContext;
 import iudx.rs.proxy.authenticator.AuthenticationService;
 import iudx.rs.proxy.authenticator.model.JwtData;
 import iudx.rs.proxy.common.HttpStatusCode;
+import iudx.rs.proxy.common.LocalServices;
 import iudx.rs.proxy.common.ResponseUrn;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -24,7 +25,8 @@ public class TokenDecodeHandler implements Handler<RoutingContext> {
     private HttpServerRequest request;
 
     public static TokenDecodeHandler create(Vertx vertx) {
-      authenticationServiceDecoder = AuthenticationService.createProxy(vertx, AUTH_SERVICE_ADDRESS);
+      authenticationServiceDecoder = LocalServices.createProxy(vertx, AUTH_SERVICE_ADDRESS,
+          AuthenticationService.class, AuthenticationService::createProxy);
         return new TokenDecodeHandler();
     }
 
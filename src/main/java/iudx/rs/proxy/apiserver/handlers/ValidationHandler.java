@@ -6,7 +6,9 @@ import io.vertx.core.Vertx;
 import io.vertx.core.json.JsonObject;
 import io.vertx.ext.web.RequestBody;
 import io.vertx.ext.web.RoutingContext;
+import iudx.rs.proxy.apiserver.query.ParsedQuery;
 import iudx.rs.proxy.apiserver.util.RequestType;
+import iudx.rs.proxy.apiserver.validation.SchemaRegistry;
 import iudx.rs.proxy.apiserver.validation.ValidatorsHandlersFactory;
 import iudx.rs.proxy.apiserver.validation.types.Validator;
 import java.util.Collections;
@@ -26,24 +28,34 @@ public class ValidationHandler implements Handler<RoutingContext> {
 
   private RequestType requestType;
   private Vertx vertx;
+  private final ValidatorsHandlersFactory validationFactory;
 
 
   public ValidationHandler(Vertx vertx, RequestType apiRequestType) {
+    this(vertx, apiRequestType, null);
+  }
+
+  /**
+   * @param schemaRegistry compiled request body schemas, null to compile them on the first
+   *     request that needs one
+   */
+  public ValidationHandler(Vertx vertx, RequestType apiRequestType,
+      SchemaRegistry schemaRegistry) {
     this.vertx = vertx;
     this.requestType = apiRequestType;
+    this.validationFactory = new ValidatorsHandlersFactory(schemaRegistry);
   }
 
   @Override
   public void handle(RoutingContext context) {
-    ValidatorsHandlersFactory validationFactory = new ValidatorsHandlersFactory();
-    MultiMap parameters = context.request().params();
+    ParsedQuery query = QueryParseHandler.get(context);
+    MultiMap parameters = query != null ? query.copyParams() : context.request().params();
     MultiMap headers = context.request().headers();
-    RequestBody requestBody=context.body();
-    JsonObject body=null;
-    if(requestBody!=null) {
-      if(requestBody.asJsonObject()!=null) {
-        body=requestBody.asJsonObject().copy();
-      }
+    RequestBody requestBody = context.body();
+    JsonObject body = null;
+    if (requestBody != null && requestBody.asJsonObject() != null) {
+      // the body is read again by the route handlers, validators get their own copy.
+      body = requestBody.asJsonObject().copy();
     }
     Map<String, String> pathParams = context.pathParams();
     parameters.set(HEADER_PUBLIC_KEY,context.request().getHeader(HEADER_PUBLIC_KEY));
@@ -0,0 +1,81 @@
+package iudx.rs.proxy.apiserver.query;
+
+import io.netty.handler.codec.http.HttpConstants;
+import io.netty.handler.codec.http.QueryStringDecoder;
+import io.vertx.core.MultiMap;
+import iudx.rs.proxy.apiserver.ParamsValidator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Query parameters of a GET request, decoded once at the start of the route and read by every
+ * later handler. The decoded parameters are never modified after parsing; handlers that need to
+ * add to them work on {@link #copyParams()}.
+ */
+public final class ParsedQuery {
+
+  private final MultiMap params;
+  private final boolean onlyKnownParams;
+  private NGSILDQueryParams ngsildQuery;
+
+  private ParsedQuery(MultiMap params, boolean onlyKnownParams) {
+    this.params = params;
+    this.onlyKnownParams = onlyKnownParams;
+  }
+
+  /**
+   * decode the query string of a request uri, keeping '+' as a literal plus sign.
+   *
+   * @param requestUri uri of the request including the query string
+   * @return parsed query
+   * @throws IllegalArgumentException if the query string is not correctly encoded
+   */
+  public static ParsedQuery parse(String requestUri) {
+    MultiMap params = MultiMap.caseInsensitiveMultiMap();
+    // Internally + sign is dropped and treated as space, replacing + with %2B do the trick
+    String uri = requestUri.indexOf('+') < 0 ? requestUri : requestUri.replace("+", "%2B");
+    Map<String, List<String>> decodedParams =
+        new QueryStringDecoder(uri, HttpConstants.DEFAULT_CHARSET, true, 1024, true).parameters();
+    boolean onlyKnownParams = true;
+    for (Map.Entry<String, List<String>> entry : decodedParams.entrySet()) {
+      onlyKnownParams &= ParamsValidator.isValidParam(entry.getKey());
+      params.add(entry.getKey(), entry.getValue());
+    }
+    return new ParsedQuery(params, onlyKnownParams);
+  }
+
+  /**
+   * @param name parameter name, case insensitive
+   * @return first value of the parameter, null if absent
+   */
+  public String get(String name) {
+    return params.get(name);
+  }
+
+  public boolean contains(String name) {
+    return params.contains(name);
+  }
+
+  /** @return true if every parameter of the query is one the server accepts */
+  public boolean hasOnlyKnownParams() {
+    return onlyKnownParams;
+  }
+
+  /** @return a modifiable copy of the decoded parameters */
+  public MultiMap copyParams() {
+    return MultiMap.caseInsensitiveMultiMap().addAll(params);
+  }
+
+  /**
+   * typed view of the query, built on first use so that malformed values are reported by the
+   * validation handlers rather than while parsing. Callers must not modify it.
+   *
+   * @return NGSI-LD query parameters
+   */
+  public NGSILDQueryParams ngsildQueryParams() {
+    if (ngsildQuery == null) {
+      ngsildQuery = new NGSILDQueryParams(params);
+    }
+    return ngsildQuery;
+  }
+}
@@ -0,0 +1,153 @@
+package iudx.rs.proxy.apiserver.response;
+
+import static iudx.rs.proxy.apiserver.util.ApiServerConstants.APPLICATION_JSON;
+import static iudx.rs.proxy.apiserver.util.ApiServerConstants.CONTENT_TYPE;
+
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.eventbus.Message;
+import io.vertx.core.eventbus.MessageConsumer;
+import io.vertx.core.http.HttpServerResponse;
+import io.vertx.core.json.DecodeException;
+import iudx.rs.proxy.common.HttpStatusCode;
+import iudx.rs.proxy.common.ResponseUrn;
+import java.util.UUID;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Writes the chunks of a streamed adapter reply to a chunked HTTP response as they arrive. The
+ * client gets the same json document as for a single reply, the <code>results</code> of all chunks
+ * joined into one array and the envelope fields taken from the last chunk.
+ *
+ * <p>A chunk is replied to on the event bus only once the HTTP write queue has room again, which is
+ * what keeps the databroker from taking the next chunk off the broker. A message with the
+ * <code>error</code> header is the databroker giving up on the stream.
+ */
+public class AdapterStreamWriter {
+
+  private static final Logger LOGGER = LogManager.getLogger(AdapterStreamWriter.class);
+  private static final String STREAM_ADDRESS_PREFIX = "iudx.rs.proxy.adapter.stream.";
+  private static final String SUCCESS_PREFIX =
+      "{\"type\":\"" + ResponseUrn.SUCCESS_URN.getUrn() + "\",\"title\":\""
+          + ResponseUrn.SUCCESS_URN.getMessage() + "\",\"results\":[";
+
+  private final HttpServerResponse response;
+  private final String address;
+  private final MessageConsumer<String> consumer;
+  private final Promise<Void> completion = Promise.promise();
+  private boolean started = false;
+  private boolean firstResult = true;
+
+  public AdapterStreamWriter(Vertx vertx, HttpServerResponse response) {
+    this.response = response;
+    this.address = STREAM_ADDRESS_PREFIX + UUID.randomUUID();
+    this.consumer = vertx.eventBus().consumer(address, this::handleChunk);
+    response.closeHandler(closed -> finish(new IllegalStateException("client closed connection")));
+  }
+
+  /** completes once chunks sent to {@link #address()} reach this writer across the cluster. */
+  public Future<Void> ready() {
+    Promise<Void> promise = Promise.promise();
+    consumer.completionHandler(promise);
+    return promise.future();
+  }
+
+  /** event bus address the databroker has to send the chunks to. */
+  public String address() {
+    return address;
+  }
+
+  /** completes once the last chunk was written, fails if the stream was not written entirely. */
+  public Future<Void> completion() {
+    return completion.future();
+  }
+
+  /**
+   * stop the stream because the databroker gave up, an error response is sent if nothing has been
+   * written yet, otherwise the connection is reset so the client sees an incomplete document.
+   */
+  public void fail(String message) {
+    if (completion.future().isComplete()) {
+      return;
+    }
+    if (!started) {
+      response.putHeader(CONTENT_TYPE, APPLICATION_JSON)
+          .setStatusCode(ResponseUtil.failureStatus(message))
+          .end(message);
+    } else {
+      response.reset();
+    }
+    finish(new IllegalStateException(message));
+  }
+
+  private void handleChunk(Message<String> message) {
+    if (completion.future().isComplete()) {
+      message.fail(410, "stream closed");
+      return;
+    }
+    if (Boolean.parseBoolean(message.headers().get("error"))) {
+      fail(message.body());
+      return;
+    }
+    boolean last = Boolean.parseBoolean(message.headers().get("last"));
+    RawAdapterResponse chunk;
+    try {
+      chunk = RawAdapterResponse.parse(message.body());
+    } catch (DecodeException e) {
+      message.fail(400, e.getMessage());
+      fail("Failed to get the response");
+      return;
+    }
+
+    if (!started) {
+      if (chunk.getStatusCode() != 200) {
+        HttpStatusCode status = HttpStatusCode.getByValue(chunk.getStatusCode());
+        response.putHeader(CONTENT_TYPE, APPLICATION_JSON)
+            .setStatusCode(chunk.getStatusCode())
+            .end(ResponseUtil.generateResponse(status, chunk.getDetails()).toString());
+        message.reply(null);
+        finish(new IllegalStateException("adapter replied with " + chunk.getStatusCode()));
+        return;
+      }
+      started = true;
+      response.setChunked(true).putHeader(CONTENT_TYPE, APPLICATION_JSON).setStatusCode(200);
+      response.write(SUCCESS_PREFIX);
+    }
+
+    Buffer buffer = Buffer.buffer();
+    String items = chunk.getResultItems();
+    if (!items.isEmpty()) {
+      if (!firstResult) {
+        buffer.appendString(",");
+      }
+      buffer.appendString(items);
+      firstResult = false;
+    }
+    if (last) {
+      buffer.appendString("]").appendString(chunk.getEnvelopeFields()).appendString("}");
+      response.end(buffer);
+      message.reply(null);
+      finish(null);
+      return;
+    }
+    response.write(buffer);
+    if (response.writeQueueFull()) {
+      response.drainHandler(drained -> message.reply(null));
+    } else {
+      message.reply(null);
+    }
+  }
+
+  private void finish(Throwable failure) {
+    consumer.unregister();
+    if (failure == null) {
+      completion.tryComplete();
+    } else {
+      LOGGER.debug("adapter stream {} ended : {}", address, failure.getMessage());
+      completion.tryFail(failure);
+    }
+  }
+}
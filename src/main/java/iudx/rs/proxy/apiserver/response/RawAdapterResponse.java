@@ -0,0 +1,133 @@
+package iudx.rs.proxy.apiserver.response;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.DecodeException;
+import iudx.rs.proxy.common.ResponseUrn;
+import java.io.IOException;
+
+/**
+ * Adapter reply read in pass-through mode. Only the envelope fields are parsed, the
+ * <code>results</code> value is located in the raw reply and copied to the client response as is,
+ * so large result sets are never decoded into a JsonObject and encoded again.
+ */
+public final class RawAdapterResponse {
+
+  private static final JsonFactory JSON_FACTORY = new JsonFactory();
+  private static final String SUCCESS_PREFIX =
+      "{\"type\":\"" + ResponseUrn.SUCCESS_URN.getUrn() + "\",\"title\":\""
+          + ResponseUrn.SUCCESS_URN.getMessage() + "\"";
+
+  private final String raw;
+  private int statusCode = 400;
+  private String details;
+  private String results;
+  private String totalHits;
+  private String limit;
+  private String offset;
+
+  private RawAdapterResponse(String raw) {
+    this.raw = raw;
+  }
+
+  /**
+   * read the envelope of an adapter reply.
+   *
+   * @param raw adapter reply as received from the broker
+   * @return parsed envelope
+   * @throws DecodeException if the reply is not a json object
+   */
+  public static RawAdapterResponse parse(String raw) {
+    RawAdapterResponse response = new RawAdapterResponse(raw);
+    try (JsonParser parser = JSON_FACTORY.createParser(raw)) {
+      if (parser.nextToken() != JsonToken.START_OBJECT) {
+        throw new DecodeException("adapter reply is not a json object");
+      }
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        String field = parser.getCurrentName();
+        parser.nextToken();
+        switch (field) {
+          case "statusCode":
+            response.statusCode = parser.getValueAsInt(400);
+            break;
+          case "details":
+            response.details = parser.getValueAsString();
+            break;
+          case "results":
+            response.results = response.valueSpan(parser);
+            break;
+          case "totalHits":
+            response.totalHits = response.valueSpan(parser);
+            break;
+          case "limit":
+            response.limit = response.valueSpan(parser);
+            break;
+          case "offset":
+            response.offset = response.valueSpan(parser);
+            break;
+          default:
+            parser.skipChildren();
+        }
+      }
+    } catch (IOException e) {
+      throw new DecodeException("failed to read adapter reply : " + e.getMessage());
+    }
+    return response;
+  }
+
+  /* raw json text of the value the parser is positioned on, nested values are skipped. */
+  private String valueSpan(JsonParser parser) throws IOException {
+    int start = (int) parser.getTokenLocation().getCharOffset();
+    parser.skipChildren();
+    // string values are read lazily, the token must be complete before its end is known.
+    parser.finishToken();
+    int end = (int) parser.getCurrentLocation().getCharOffset();
+    return raw.substring(start, end);
+  }
+
+  public int getStatusCode() {
+    return statusCode;
+  }
+
+  public String getDetails() {
+    return details;
+  }
+
+  /**
+   * success response for the client, same fields as built from the decoded reply with the
+   * adapter's <code>results</code> copied in verbatim.
+   */
+  public Buffer toUserResponse() {
+    return Buffer.buffer(raw.length() + SUCCESS_PREFIX.length() + 64)
+        .appendString(SUCCESS_PREFIX)
+        .appendString(",\"results\":")
+        .appendString(results == null ? "null" : results)
+        .appendString(getEnvelopeFields())
+        .appendString("}");
+  }
+
+  /** elements of the <code>results</code> array without the enclosing brackets, may be empty. */
+  public String getResultItems() {
+    if (results == null || !results.startsWith("[")) {
+      return "";
+    }
+    return results.substring(1, results.length() - 1).trim();
+  }
+
+  /** <code>totalHits</code>, <code>limit</code> and <code>offset</code>, each led by a comma. */
+  public String getEnvelopeFields() {
+    Buffer buffer = Buffer.buffer();
+    appendField(buffer, "totalHits", totalHits == null ? "null" : totalHits);
+    appendField(buffer, "limit", limit);
+    appendField(buffer, "offset", offset);
+    return buffer.toString();
+  }
+
+  private void appendField(Buffer buffer, String name, String value) {
+    if (value != null) {
+      buffer.appendString(",\"").appendString(name).appendString("\":").appendString(value);
+    }
+  }
+}
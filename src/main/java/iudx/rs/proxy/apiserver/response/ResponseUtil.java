@@ -1,5 +1,6 @@
 package iudx.rs.proxy.apiserver.response;
 
+import io.vertx.core.json.DecodeException;
 import io.vertx.core.json.JsonObject;
 import iudx.rs.proxy.common.HttpStatusCode;
 import iudx.rs.proxy.common.ResponseUrn;
@@ -38,4 +39,16 @@ public class ResponseUtil {
   }
 
 
+
+  /**
+   * http status for a failure message of a backing service, taken from its
+   * <code>statusCode</code> when the message carries one, 400 otherwise.
+   */
+  public static int failureStatus(String failureMessage) {
+    try {
+      return new JsonObject(failureMessage).getInteger("statusCode", 400);
+    } catch (DecodeException | ClassCastException | NullPointerException e) {
+      return 400;
+    }
+  }
 }
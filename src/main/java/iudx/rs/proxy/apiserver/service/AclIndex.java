@@ -0,0 +1,73 @@
+package iudx.rs.proxy.apiserver.service;
+
+import static iudx.rs.proxy.apiserver.util.ApiServerConstants.ITEM_TYPE_RESOURCE_GROUP;
+
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Access policy of every active item, built from one catalogue snapshot and never changed after.
+ * A resource without an access policy of its own takes the policy of its resource group.
+ */
+public final class AclIndex {
+
+  static final AclIndex EMPTY = new AclIndex(Map.of(), Map.of());
+
+  private final Map<String, String> policies;
+  private final Map<String, String> groupPolicies;
+
+  private AclIndex(Map<String, String> policies, Map<String, String> groupPolicies) {
+    this.policies = policies;
+    this.groupPolicies = groupPolicies;
+  }
+
+  /**
+   * @param items catalogue items with {@code id}, {@code type} (already reduced to the item type),
+   *     {@code resourceGroup} and {@code accessPolicy}
+   */
+  static AclIndex of(JsonArray items) {
+    Map<String, String> groupPolicies = new HashMap<>();
+    for (Object item : items) {
+      JsonObject json = (JsonObject) item;
+      String policy = json.getString("accessPolicy");
+      if (ITEM_TYPE_RESOURCE_GROUP.equals(json.getString("type")) && policy != null
+          && json.getString("id") != null) {
+        groupPolicies.put(json.getString("id"), policy);
+      }
+    }
+    Map<String, String> policies = new HashMap<>(groupPolicies);
+    for (Object item : items) {
+      JsonObject json = (JsonObject) item;
+      String policy = json.getString("accessPolicy");
+      if (policy == null && json.containsKey("resourceGroup")) {
+        policy = groupPolicies.get(json.getString("resourceGroup"));
+      }
+      if (policy != null && json.getString("id") != null) {
+        policies.put(json.getString("id"), policy);
+      }
+    }
+    return new AclIndex(Map.copyOf(policies), Map.copyOf(groupPolicies));
+  }
+
+  /**
+   * @param id resource or resource group id
+   * @return access policy of the item, null if the item is not in the snapshot
+   */
+  public String policyOf(String id) {
+    return id == null ? null : policies.get(id);
+  }
+
+  /**
+   * @param groupId resource group id
+   * @return access policy of the group, null if the group is not in the snapshot
+   */
+  public String groupPolicyOf(String groupId) {
+    return groupId == null ? null : groupPolicies.get(groupId);
+  }
+
+  public int size() {
+    return policies.size();
+  }
+}
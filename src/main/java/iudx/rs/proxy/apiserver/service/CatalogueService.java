@@ -21,11 +21,15 @@ import io.vertx.ext.web.client.WebClient;
 import io.vertx.ext.web.client.WebClientOptions;
 import io.vertx.ext.web.client.predicate.ResponsePredicate;
 import iudx.rs.proxy.authenticator.Constants;
+import iudx.rs.proxy.common.SingleFlight;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -35,40 +39,42 @@ public class CatalogueService {
 
   private static final Logger LOGGER = LogManager.getLogger(CatalogueService.class);
 
-  public static WebClient catWebClient;
-  private static String catHost;
-  private static int catPort;
-  private static Cache<String, JsonObject> catalogueItemCache =
-      CacheBuilder.newBuilder()
-          .maximumSize(10000)
-          .expireAfterAccess(Constants.CACHE_TIMEOUT_AMOUNT, TimeUnit.MINUTES)
-          .build();
-  ;
+  private static volatile CatalogueService instance;
+  private final WebClient catWebClient;
+  // catalogueItems is replaced as a whole on every snapshot, reads take no lock.
+  private volatile Map<String, JsonObject> catalogueItems = Map.of();
   private final Cache<String, List<String>> applicableFilterCache =
       CacheBuilder.newBuilder()
           .maximumSize(1000)
           .expireAfterAccess(Constants.CACHE_TIMEOUT_AMOUNT, TimeUnit.MINUTES)
           .build();
-  private long cacheTimerid;
-  private String catBasePath;
-  private String catItemPath;
-  private String catSearchPath;
-  private Vertx vertx;
+  // concurrent filter lookups for one id share one catalogue call.
+  private final SingleFlight<List<String>> filterLookups = new SingleFlight<>();
+  // ids the catalogue doesn't have, answered without calling it.
+  private final UnknownIds unknownIds = new UnknownIds(10000, TimeUnit.MINUTES.toMillis(1));
+  // aclIndex is replaced as a whole on every snapshot, readers never see a partial one.
+  private volatile AclIndex aclIndex = AclIndex.EMPTY;
+  private final long cacheTimerid;
+  private final String catHost;
+  private final int catPort;
+  private final String catItemPath;
+  private final String catSearchPath;
+  private final Vertx vertx;
 
-  public CatalogueService(Vertx vertx, JsonObject config) {
+  CatalogueService(Vertx vertx, JsonObject config) {
+    this(vertx, config, createWebClient(vertx));
+  }
+
+  CatalogueService(Vertx vertx, JsonObject config, WebClient catWebClient) {
     this.vertx = vertx;
+    this.catWebClient = catWebClient;
     catHost = config.getString("catServerHost");
     catPort = config.getInteger("catServerPort");
-    catBasePath = config.getString("dxCatalogueBasePath");
+    String catBasePath = config.getString("dxCatalogueBasePath");
     catItemPath = catBasePath + CAT_ITEM_PATH;
     catSearchPath = catBasePath + CAT_SEARCH_PATH;
 
-    WebClientOptions options =
-        new WebClientOptions().setTrustAll(true).setVerifyHost(false).setSsl(true);
-    // catWebClient = WebClient.create(vertx, options); // original code
-    if (catWebClient == null) {
-      catWebClient = WebClient.create(vertx, options);
-    }
+    unknownIds.setBloomEnabled(config.getBoolean("catalogueIdBloomFilter", false));
     populateCache();
     cacheTimerid =
         vertx.setPeriodic(
@@ -78,8 +84,78 @@ public class CatalogueService {
             });
   }
 
+  private static WebClient createWebClient(Vertx vertx) {
+    WebClientOptions options =
+        new WebClientOptions().setTrustAll(true).setVerifyHost(false).setSsl(true);
+    return WebClient.create(vertx, options);
+  }
+
+  /**
+   * The catalogue service shared by all verticle instances of the given vertx, so the catalogue is
+   * downloaded and refreshed once however many api server instances are deployed. Created on the
+   * first call, later calls ignore the config.
+   *
+   * @param vertx vertx instance
+   * @param config api server config with the catalogue host, port and base path
+   * @return shared catalogue service
+   */
+  public static CatalogueService getInstance(Vertx vertx, JsonObject config) {
+    return getInstance(vertx, config, () -> createWebClient(vertx));
+  }
+
+  static CatalogueService getInstance(
+      Vertx vertx, JsonObject config, Supplier<WebClient> webClient) {
+    CatalogueService shared = instance;
+    if (shared == null || shared.vertx != vertx) {
+      synchronized (CatalogueService.class) {
+        shared = instance;
+        // the service of an earlier, closed vertx (tests) is dropped with its timer and client,
+        // the snapshot and caches belong to it so nothing of the old vertx is carried over.
+        if (shared == null || shared.vertx != vertx) {
+          if (shared != null) {
+            shared.vertx.cancelTimer(shared.cacheTimerid);
+            shared.catWebClient.close();
+          }
+          shared = new CatalogueService(vertx, config, webClient.get());
+          instance = shared;
+        }
+      }
+    }
+    return shared;
+  }
+
   public static JsonObject getCatalogueItemJson(String id) {
-    return catalogueItemCache.getIfPresent(id);
+    CatalogueService shared = instance;
+    return id == null || shared == null ? null : shared.catalogueItems.get(id);
+  }
+
+  /** resource group of a cached item, the id itself for groups and items not in the cache. */
+  public static String getResourceGroup(String id) {
+    JsonObject item = getCatalogueItemJson(id);
+    return item != null && item.containsKey("resourceGroup") ? item.getString("resourceGroup") : id;
+  }
+
+  /**
+   * @param id resource or resource group id
+   * @return true if the catalogue is known not to have the id, no catalogue call is needed then
+   */
+  public static boolean isUnknownId(String id) {
+    CatalogueService shared = instance;
+    return id == null || (shared != null && shared.unknownIds.isUnknown(id));
+  }
+
+  /** record an id the catalogue reported absent, later lookups fail fast for a short while. */
+  public static void markAbsent(String id) {
+    CatalogueService shared = instance;
+    if (shared != null) {
+      shared.unknownIds.markAbsent(id);
+    }
+  }
+
+  /** access policies of the last catalogue snapshot, empty until the first one is loaded. */
+  public static AclIndex getAclIndex() {
+    CatalogueService shared = instance;
+    return shared == null ? AclIndex.EMPTY : shared.aclIndex;
   }
 
   /**
@@ -102,6 +178,7 @@ public class CatalogueService {
             handler -> {
               if (handler.succeeded()) {
                 JsonArray response = handler.result().bodyAsJsonObject().getJsonArray("results");
+                Map<String, JsonObject> items = new HashMap<>();
                 response.forEach(
                     json -> {
                       JsonObject res = (JsonObject) json;
@@ -114,7 +191,9 @@ public class CatalogueService {
 
                       res.put("type", itemTypeSet.iterator().next());
 
-                      catalogueItemCache.put(id, res);
+                      if (id != null) {
+                        items.put(id, res);
+                      }
 
                       if (itemTypeSet.contains("resourceGroup")
                           && res.containsKey("iudxResourceAPIs")) {
@@ -125,6 +204,10 @@ public class CatalogueService {
                         applicableFilterCache.put(id, toList(res.getJsonArray("iudxResourceAPIs")));
                       }
                     });
+                catalogueItems = Map.copyOf(items);
+                aclIndex = AclIndex.of(response);
+                unknownIds.snapshot(items.keySet());
+                LOGGER.debug("acl index built for {} items", aclIndex.size());
                 promise.complete(true);
               } else if (handler.failed()) {
                 promise.fail(handler.cause());
@@ -136,7 +219,11 @@ public class CatalogueService {
   public Future<List<String>> getApplicableFilters(String id) {
     Promise<List<String>> promise = Promise.promise();
     // Note: id should be a complete id not a group id (ex : domain/SHA/rs/rs-group/itemId)
-    JsonObject jsonObject = getCatalogueItemJson(id);
+    if (id == null || unknownIds.isUnknown(id)) {
+      LOGGER.debug("failed : id not in catalogue");
+      return Future.failedFuture("Not Found");
+    }
+    JsonObject jsonObject = catalogueItems.get(id);
     String groupId = null;
 
     if (jsonObject != null) {
@@ -172,14 +259,13 @@ public class CatalogueService {
   private Future<List<String>> fetchFilters4Item(String id, String groupId) {
     Promise<List<String>> promise = Promise.promise();
     Future<List<String>> getItemFilters = getFilterFromItemId(id);
-    Future<List<String>> getGroupFilters = getFilterFromGroupId(groupId);
     getItemFilters.onComplete(
         itemHandler -> {
           if (itemHandler.succeeded()) {
             List<String> filters4Item = itemHandler.result();
             if (filters4Item.isEmpty()) {
-              // Future<List<String>> getGroupFilters = getFilterFromGroupId(groupId);
-              getGroupFilters.onComplete(
+              // group filters are looked up only when the item has none of its own
+              getFilterFromGroupId(groupId).onComplete(
                   groupHandler -> {
                     if (groupHandler.succeeded()) {
                       List<String> filters4Group = groupHandler.result();
@@ -191,6 +277,7 @@ public class CatalogueService {
                               + id
                               + "or group id : "
                               + groupId);
+                      promise.fail(groupHandler.cause());
                     }
                   });
             } else {
@@ -198,38 +285,42 @@ public class CatalogueService {
               promise.complete(filters4Item);
             }
           } else {
-
+            promise.fail(itemHandler.cause());
           }
         });
     return promise.future();
   }
 
   private Future<List<String>> getFilterFromGroupId(String groupId) {
-    Promise<List<String>> promise = Promise.promise();
-    callCatalogueAPI(
-        groupId,
-        handler -> {
-          if (handler.succeeded()) {
-            promise.complete(handler.result());
-          } else {
-            promise.fail("failed to fetch filters for group");
-          }
-        });
-    return promise.future();
+    return filterLookups.run(groupId, () -> {
+      Promise<List<String>> promise = Promise.promise();
+      callCatalogueAPI(
+          groupId,
+          handler -> {
+            if (handler.succeeded()) {
+              promise.complete(handler.result());
+            } else {
+              promise.fail("failed to fetch filters for group");
+            }
+          });
+      return promise.future();
+    });
   }
 
   private Future<List<String>> getFilterFromItemId(String itemId) {
-    Promise<List<String>> promise = Promise.promise();
-    callCatalogueAPI(
-        itemId,
-        handler -> {
-          if (handler.succeeded()) {
-            promise.complete(handler.result());
-          } else {
-            promise.fail("failed to fetch filters for group");
-          }
-        });
-    return promise.future();
+    return filterLookups.run(itemId, () -> {
+      Promise<List<String>> promise = Promise.promise();
+      callCatalogueAPI(
+          itemId,
+          handler -> {
+            if (handler.succeeded()) {
+              promise.complete(handler.result());
+            } else {
+              promise.fail("failed to fetch filters for group");
+            }
+          });
+      return promise.future();
+    });
   }
 
   private void callCatalogueAPI(String id, Handler<AsyncResult<List<String>>> handler) {
@@ -241,6 +332,11 @@ public class CatalogueService {
             catHandler -> {
               if (catHandler.succeeded()) {
                 JsonArray response = catHandler.result().bodyAsJsonObject().getJsonArray("results");
+                if (response == null || response.isEmpty()) {
+                  unknownIds.markAbsent(id);
+                  handler.handle(Future.failedFuture("Not Found"));
+                  return;
+                }
                 response.forEach(
                     json -> {
                       JsonObject res = (JsonObject) json;
@@ -259,6 +355,9 @@ public class CatalogueService {
 
   public Future<Boolean> isItemExist(String id) {
     LOGGER.trace("isItemExist() started");
+    if (id == null || unknownIds.isUnknown(id)) {
+      return Future.failedFuture("Not Found");
+    }
     Promise<Boolean> promise = Promise.promise();
     LOGGER.info("id : " + id);
     catWebClient
@@ -274,6 +373,9 @@ public class CatalogueService {
                     && responseBody.getInteger("totalHits") > 0) {
                   promise.complete(true);
                 } else {
+                  if (responseBody.getString("type").equalsIgnoreCase("urn:dx:cat:Success")) {
+                    unknownIds.markAbsent(id);
+                  }
                   promise.fail(responseHandler.cause());
                 }
               } else {
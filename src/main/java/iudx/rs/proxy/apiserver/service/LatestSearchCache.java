@@ -0,0 +1,140 @@
+package iudx.rs.proxy.apiserver.service;
+
+import static iudx.rs.proxy.apiserver.util.ApiServerConstants.HEADER_PUBLIC_KEY;
+import static iudx.rs.proxy.apiserver.util.ApiServerConstants.JSON_LATEST_SEARCH;
+import static iudx.rs.proxy.apiserver.util.ApiServerConstants.JSON_SEARCH_TYPE;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.JsonObject;
+import iudx.rs.proxy.databroker.CoalescingDatabrokerService;
+import java.util.concurrent.TimeUnit;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Short lived cache of serialized <code>latestSearch</code> responses. Latest data of a resource
+ * only changes with the sampling interval of the sensor, so repeated <code>/entities</code> calls
+ * within the TTL are answered from memory without an adapter round trip.
+ *
+ * <p>Entries are the response bodies as written to the client, a hit is written to the
+ * <code>HttpServerResponse</code> as is. The TTL is taken per resource group from the config
+ * (<code>groupTtlSeconds</code>), falling back to <code>defaultTtlSeconds</code>, and the cache is
+ * bounded by the total size of the cached bodies.
+ */
+public class LatestSearchCache {
+
+  private static final Logger LOGGER = LogManager.getLogger(LatestSearchCache.class);
+
+  private final Cache<String, CachedResponse> cache;
+  private final long defaultTtlMillis;
+  private final JsonObject groupTtlSeconds;
+
+  private Counter hits;
+  private Counter misses;
+
+  /**
+   * @param config cache config, e.g.
+   *     <code>{"defaultTtlSeconds": 5, "maxSizeBytes": 67108864, "groupTtlSeconds": {}}</code>
+   */
+  public LatestSearchCache(JsonObject config) {
+    this.defaultTtlMillis = TimeUnit.SECONDS.toMillis(config.getLong("defaultTtlSeconds", 5L));
+    this.groupTtlSeconds = config.getJsonObject("groupTtlSeconds", new JsonObject());
+    long maxTtlMillis = defaultTtlMillis;
+    for (String group : groupTtlSeconds.fieldNames()) {
+      maxTtlMillis =
+          Math.max(maxTtlMillis, TimeUnit.SECONDS.toMillis(groupTtlSeconds.getLong(group)));
+    }
+    // entries expire by their own group TTL on read, the builder TTL only bounds the longest one.
+    this.cache =
+        CacheBuilder.newBuilder()
+            .maximumWeight(config.getLong("maxSizeBytes", 64L * 1024 * 1024))
+            .weigher((String key, CachedResponse value) -> key.length() + value.body.length())
+            .expireAfterWrite(maxTtlMillis, TimeUnit.MILLISECONDS)
+            .build();
+  }
+
+  /**
+   * export hit, miss and size metrics, nothing is registered when the registry is null.
+   *
+   * @param registry meter registry
+   * @param instanceId id of the owning verticle instance, every instance has its own cache
+   */
+  public LatestSearchCache bindMetrics(MeterRegistry registry, String instanceId) {
+    if (registry == null) {
+      return this;
+    }
+    hits = Counter.builder("rs_proxy_latest_cache_hits").tag("instance", instanceId)
+        .register(registry);
+    misses = Counter.builder("rs_proxy_latest_cache_misses").tag("instance", instanceId)
+        .register(registry);
+    Gauge.builder("rs_proxy_latest_cache_entries", cache, Cache::size).tag("instance", instanceId)
+        .register(registry);
+    return this;
+  }
+
+  /**
+   * cache key for an adapter query, null when the query is not cacheable, i.e. not a plain latest
+   * search or encrypted for the public key of a single user.
+   */
+  public String keyFor(JsonObject query) {
+    String publicKey = query.getString(HEADER_PUBLIC_KEY);
+    String searchType = query.getString(JSON_SEARCH_TYPE);
+    // QueryMapper joins the search types with "_" and drops the trailing one of the last type.
+    if (searchType == null || !(searchType + "_").startsWith(JSON_LATEST_SEARCH)
+        || (publicKey != null && !publicKey.isBlank())) {
+      return null;
+    }
+    return CoalescingDatabrokerService.coalescingKey(query);
+  }
+
+  public Buffer get(String key) {
+    CachedResponse cached = cache.getIfPresent(key);
+    if (cached != null && cached.expiresAt < System.currentTimeMillis()) {
+      cache.invalidate(key);
+      cached = null;
+    }
+    if (cached == null) {
+      increment(misses);
+      return null;
+    }
+    increment(hits);
+    LOGGER.debug("latest search served from cache : {}", key);
+    return cached.body;
+  }
+
+  /**
+   * @param key key returned by {@link #keyFor(JsonObject)}
+   * @param groupId resource group of the queried resource, selects the TTL
+   * @param body response body exactly as sent to the client
+   */
+  public void put(String key, String groupId, Buffer body) {
+    long ttlMillis = groupId != null && groupTtlSeconds.containsKey(groupId)
+        ? TimeUnit.SECONDS.toMillis(groupTtlSeconds.getLong(groupId))
+        : defaultTtlMillis;
+    if (ttlMillis <= 0) {
+      return;
+    }
+    cache.put(key, new CachedResponse(body, System.currentTimeMillis() + ttlMillis));
+  }
+
+  private void increment(Counter counter) {
+    if (counter != null) {
+      counter.increment();
+    }
+  }
+
+  private static final class CachedResponse {
+    final Buffer body;
+    final long expiresAt;
+
+    CachedResponse(Buffer body, long expiresAt) {
+      this.body = body;
+      this.expiresAt = expiresAt;
+    }
+  }
+}
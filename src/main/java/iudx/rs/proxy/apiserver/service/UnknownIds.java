@@ -0,0 +1,70 @@
+package iudx.rs.proxy.apiserver.service;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.Funnels;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ids that need no catalogue call because they are not in the catalogue: ids the catalogue
+ * reported absent within the last {@code ttlMillis}, and, when enabled, ids outside a Bloom filter
+ * of the ids in the last catalogue snapshot. The Bloom filter never rejects an id of the snapshot;
+ * an id it lets through by chance takes the normal path. It is rebuilt on every snapshot, so like
+ * the query path, which only serves ids of the snapshot, an item added to the catalogue is accepted
+ * from the next daily refresh on.
+ */
+final class UnknownIds {
+
+  private static final double BLOOM_FALSE_POSITIVE_RATE = 0.01;
+
+  private final Cache<String, Boolean> absent;
+  private volatile boolean bloomEnabled;
+  private volatile BloomFilter<CharSequence> known;
+
+  UnknownIds(long maxSize, long ttlMillis) {
+    this.absent = CacheBuilder.newBuilder()
+        .maximumSize(maxSize)
+        .expireAfterWrite(ttlMillis, TimeUnit.MILLISECONDS)
+        .build();
+  }
+
+  void setBloomEnabled(boolean bloomEnabled) {
+    this.bloomEnabled = bloomEnabled;
+    if (!bloomEnabled) {
+      known = null;
+    }
+  }
+
+  /**
+   * @param id resource or resource group id
+   * @return true if the id is known not to be in the catalogue
+   */
+  boolean isUnknown(String id) {
+    BloomFilter<CharSequence> filter = known;
+    return (filter != null && !filter.mightContain(id)) || absent.getIfPresent(id) != null;
+  }
+
+  /** record an id the catalogue reported absent. */
+  void markAbsent(String id) {
+    absent.put(id, Boolean.TRUE);
+  }
+
+  /**
+   * replace the known ids with those of a new catalogue snapshot, ids of the snapshot are no longer
+   * treated as absent.
+   */
+  void snapshot(Collection<String> ids) {
+    absent.invalidateAll(ids);
+    if (!bloomEnabled) {
+      return;
+    }
+    BloomFilter<CharSequence> filter = BloomFilter.create(
+        Funnels.stringFunnel(StandardCharsets.UTF_8), Math.max(ids.size(), 1),
+        BLOOM_FALSE_POSITIVE_RATE);
+    ids.forEach(filter::put);
+    known = filter;
+  }
+}
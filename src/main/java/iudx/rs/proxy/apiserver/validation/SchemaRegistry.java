@@ -0,0 +1,88 @@
+package iudx.rs.proxy.apiserver.validation;
+
+import static iudx.rs.proxy.common.ResponseUrn.SCHEMA_READ_ERROR_URN;
+
+import com.google.common.base.Charsets;
+import com.google.common.io.CharStreams;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonObject;
+import io.vertx.json.schema.Schema;
+import io.vertx.json.schema.SchemaParser;
+import io.vertx.json.schema.SchemaRouter;
+import io.vertx.json.schema.SchemaRouterOptions;
+import iudx.rs.proxy.apiserver.exceptions.DxRuntimeException;
+import iudx.rs.proxy.apiserver.util.RequestType;
+import iudx.rs.proxy.common.HttpStatusCode;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * JSON schemas of the POST request bodies, each read and compiled once when the registry is
+ * created instead of once per request. Create one per verticle at startup and share it between
+ * the validation handlers of that verticle.
+ */
+public final class SchemaRegistry {
+
+  private static final Logger LOGGER = LogManager.getLogger(SchemaRegistry.class);
+  private static final String SCHEMA_FILE_SUFFIX = ".json";
+
+  private final Map<RequestType, Schema> schemas;
+
+  private SchemaRegistry(Map<RequestType, Schema> schemas) {
+    this.schemas = Collections.unmodifiableMap(schemas);
+  }
+
+  /**
+   * compile the schema of every request type that has one.
+   *
+   * @param vertx vertx instance
+   * @return registry holding the compiled schemas
+   * @throws DxRuntimeException if a schema can not be read or parsed
+   */
+  public static SchemaRegistry create(Vertx vertx) {
+    SchemaRouter schemaRouter = SchemaRouter.create(vertx, new SchemaRouterOptions());
+    SchemaParser schemaParser = SchemaParser.createOpenAPI3SchemaParser(schemaRouter);
+    Map<RequestType, Schema> schemas = new EnumMap<>(RequestType.class);
+    for (RequestType requestType : RequestType.values()) {
+      String filename = requestType.getFilename();
+      if (filename.endsWith(SCHEMA_FILE_SUFFIX)) {
+        try {
+          schemas.put(requestType, schemaParser.parse(new JsonObject(loadJson(filename))));
+        } catch (RuntimeException ex) {
+          LOGGER.error("failed to compile schema {}", filename, ex);
+          throw new DxRuntimeException(HttpStatusCode.BAD_REQUEST.getValue(),
+              SCHEMA_READ_ERROR_URN);
+        }
+      }
+    }
+    LOGGER.debug("compiled request schemas : {}", schemas.keySet());
+    return new SchemaRegistry(schemas);
+  }
+
+  /**
+   * @param requestType request type
+   * @return compiled schema of the request body, null for request types without a body schema
+   */
+  public Schema get(RequestType requestType) {
+    return schemas.get(requestType);
+  }
+
+  private static String loadJson(String filename) {
+    try (InputStream inputStream =
+        SchemaRegistry.class.getClassLoader().getResourceAsStream(filename)) {
+      if (inputStream == null) {
+        throw new DxRuntimeException(HttpStatusCode.BAD_REQUEST.getValue(), SCHEMA_READ_ERROR_URN);
+      }
+      return CharStreams.toString(new InputStreamReader(inputStream, Charsets.UTF_8));
+    } catch (IOException e) {
+      LOGGER.error(e);
+      throw new DxRuntimeException(HttpStatusCode.BAD_REQUEST.getValue(), SCHEMA_READ_ERROR_URN);
+    }
+  }
+}
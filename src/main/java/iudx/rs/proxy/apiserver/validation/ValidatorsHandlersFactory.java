@@ -1,25 +1,15 @@
 package iudx.rs.proxy.apiserver.validation;
 
-import com.google.common.base.Charsets;
-import com.google.common.io.CharStreams;
 import io.vertx.core.MultiMap;
 import io.vertx.core.Vertx;
 import io.vertx.core.json.JsonObject;
 import io.vertx.json.schema.Schema;
-import io.vertx.json.schema.SchemaParser;
-import io.vertx.json.schema.SchemaRouter;
-import io.vertx.json.schema.SchemaRouterOptions;
 import iudx.rs.proxy.apiserver.exceptions.DxRuntimeException;
 import iudx.rs.proxy.apiserver.util.RequestType;
 import iudx.rs.proxy.apiserver.validation.types.*;
 
-import java.io.IOException;
-import java.io.InputStream;
-import java.io.InputStreamReader;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 import iudx.rs.proxy.common.HttpStatusCode;
 import org.apache.logging.log4j.LogManager;
@@ -33,6 +23,20 @@ public class ValidatorsHandlersFactory {
 
   private static final Logger LOGGER = LogManager.getLogger(ValidatorsHandlersFactory.class);
 
+  private SchemaRegistry schemaRegistry;
+
+  /** schemas are compiled on the first POST request validated by this factory. */
+  public ValidatorsHandlersFactory() {
+    this(null);
+  }
+
+  /**
+   * @param schemaRegistry compiled request body schemas, shared by the factories of a verticle
+   */
+  public ValidatorsHandlersFactory(SchemaRegistry schemaRegistry) {
+    this.schemaRegistry = schemaRegistry;
+  }
+
   public List<Validator> build(
           final Vertx vertx,
           final RequestType requestType,
@@ -120,41 +124,20 @@ public class ValidatorsHandlersFactory {
     return validators;
   }
 
-  private static Map<String, String> jsonSchemaMap = new HashMap<>();
   private List<Validator> getRequestSchemaValidator(Vertx vertx, JsonObject body,
                                                     RequestType requestType) {
     List<Validator> validators = new ArrayList<>();
-    SchemaRouter schemaRouter = SchemaRouter.create(vertx, new SchemaRouterOptions());
-    SchemaParser schemaParser = SchemaParser.createOpenAPI3SchemaParser(schemaRouter);
-    String jsonSchema = null;
-
-    try {
-      jsonSchema = loadJson(requestType.getFilename());
-      Schema schema = schemaParser.parse(new JsonObject(jsonSchema));
-      validators.add(new JsonSchemaTypeValidator(body, schema));
-    } catch (Exception ex) {
-      LOGGER.error(ex);
+    if (schemaRegistry == null) {
+      schemaRegistry = SchemaRegistry.create(vertx);
+    }
+    Schema schema = schemaRegistry.get(requestType);
+    if (schema == null) {
+      LOGGER.error("no schema registered for : " + requestType);
       throw new DxRuntimeException(HttpStatusCode.BAD_REQUEST.getValue(), SCHEMA_READ_ERROR_URN);
     }
-
+    validators.add(new JsonSchemaTypeValidator(body, schema));
     return validators;
   }
-  private String loadJson(String filename) {
-    String jsonStr = null;
-    if (jsonSchemaMap.containsKey(filename)) {
-      jsonStr = jsonSchemaMap.get(filename);
-    } else {
-      try (InputStream inputStream =
-                   getClass().getClassLoader().getResourceAsStream(filename)) {
-        jsonStr = CharStreams.toString(new InputStreamReader(inputStream, Charsets.UTF_8));
-        jsonSchemaMap.put(filename, jsonStr);
-      } catch (IOException e) {
-        LOGGER.error(e);
-        throw new DxRuntimeException(HttpStatusCode.BAD_REQUEST.getValue(), SCHEMA_READ_ERROR_URN);
-      }
-    }
-    return jsonStr;
-  }
 
   private List<Validator> getPostTemporalValidations(Vertx vertx, final MultiMap parameters,
                                                      final MultiMap headers, final JsonObject body, final RequestType requestType) {
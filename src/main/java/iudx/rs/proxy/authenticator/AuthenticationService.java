@@ -8,6 +8,7 @@ import io.vertx.core.AsyncResult;
 import io.vertx.core.Handler;
 import io.vertx.core.Vertx;
 import io.vertx.core.json.JsonObject;
+import iudx.rs.proxy.authenticator.codec.AuthCodecs;
 import iudx.rs.proxy.authenticator.model.JwtData;
 
 @VertxGen
@@ -24,7 +25,8 @@ public interface AuthenticationService {
 
   @GenIgnore
   static AuthenticationService createProxy(Vertx vertx, String address) {
-    return new AuthenticationServiceVertxEBProxy(vertx, address);
+    return new AuthenticationServiceVertxEBProxy(vertx, address,
+        AuthCodecs.deliveryOptions(vertx));
   }
 
   /**
@@ -14,9 +14,13 @@ import io.vertx.ext.auth.jwt.JWTAuth;
 import io.vertx.ext.auth.jwt.JWTAuthOptions;
 import io.vertx.ext.web.client.WebClient;
 import io.vertx.ext.web.client.WebClientOptions;
+import io.vertx.micrometer.backends.BackendRegistries;
 import io.vertx.serviceproxy.ServiceBinder;
+import iudx.rs.proxy.authenticator.codec.AuthCodecs;
 import iudx.rs.proxy.cache.CacheService;
 import iudx.rs.proxy.common.Api;
+import iudx.rs.proxy.common.LocalServices;
+import iudx.rs.proxy.database.DatabaseService;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
@@ -40,6 +44,7 @@ public class AuthenticationVerticle extends AbstractVerticle {
   private MessageConsumer<JsonObject> consumer;
   private WebClient webClient;
   private CacheService cacheService;
+  private RevokedClientNearCache revokedClients;
 
   private String dxApiBasePath;
 
@@ -88,19 +93,30 @@ public class AuthenticationVerticle extends AbstractVerticle {
                     "JWT ignore expiration set to true, do not set IgnoreExpiration in production!!");
               }
               JWTAuth jwtAuth = JWTAuth.create(vertx, jwtAuthOptions);
-              cacheService = CacheService.createProxy(vertx, CACHE_SERVICE_ADDRESS);
+              cacheService = LocalServices.createProxy(vertx, CACHE_SERVICE_ADDRESS,
+                  CacheService.class, CacheService::createProxy);
               
               dxApiBasePath=config().getString("dxApiBasePath");
               Api apis=Api.getInstance(dxApiBasePath);
               
+              DatabaseService pgService = LocalServices.createProxy(vertx, DB_SERVICE_ADDRESS,
+                  DatabaseService.class, DatabaseService::createProxy);
+              revokedClients = new RevokedClientNearCache(vertx, pgService,
+                  config().getJsonObject("revokedClientSync", new JsonObject())).start();
+
               jwtAuthenticationService =
-                  new JwtAuthenticationServiceImpl(vertx, jwtAuth, config(), cacheService,apis);
+                  new JwtAuthenticationServiceImpl(vertx, jwtAuth, config(), cacheService,apis)
+                      .withRevokedClients(revokedClients)
+                      .bindMetrics(BackendRegistries.getDefaultNow(),
+                          deploymentID() + "-" + Integer.toHexString(hashCode()));
 
               /* Publish the Authentication service with the Event Bus against an address. */
+              AuthCodecs.register(vertx);
               consumer =
                   binder
                       .setAddress(AUTH_SERVICE_ADDRESS)
                       .register(AuthenticationService.class, jwtAuthenticationService);
+              LocalServices.register(vertx, AUTH_SERVICE_ADDRESS, jwtAuthenticationService);
 
               LOGGER.info("Authentication verticle deployed");
             })
@@ -113,7 +129,11 @@ public class AuthenticationVerticle extends AbstractVerticle {
 
   @Override
   public void stop() {
+    LocalServices.unregister(AUTH_SERVICE_ADDRESS, jwtAuthenticationService);
     binder.unregister(consumer);
+    if (revokedClients != null) {
+      revokedClients.stop();
+    }
   }
 
   private Future<String> getJwtPublicKey(Vertx vertx, JsonObject config) {
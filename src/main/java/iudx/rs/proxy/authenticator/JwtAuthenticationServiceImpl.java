@@ -4,7 +4,10 @@ import static iudx.rs.proxy.authenticator.Constants.*;
 
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import io.vertx.core.AsyncResult;
+import io.vertx.core.CompositeFuture;
 import io.vertx.core.Future;
 import io.vertx.core.Handler;
 import io.vertx.core.Promise;
@@ -28,11 +31,13 @@ import iudx.rs.proxy.authenticator.model.JwtData;
 import iudx.rs.proxy.cache.CacheService;
 import iudx.rs.proxy.cache.cacheImpl.CacheType;
 import iudx.rs.proxy.common.Api;
+import iudx.rs.proxy.common.SingleFlight;
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
 import org.apache.http.HttpStatus;
 import org.apache.logging.log4j.LogManager;
@@ -54,6 +59,22 @@ public class JwtAuthenticationServiceImpl implements AuthenticationService {
   Cache<String, String> resourceGroupCache = CacheBuilder.newBuilder().maximumSize(1000)
       .expireAfterAccess(Constants.CACHE_TIMEOUT_AMOUNT, TimeUnit.MINUTES).build();
 
+  // concurrent catalogue misses for one id share a single call.
+  private final SingleFlight<Boolean> resourceLookups = new SingleFlight<>();
+  private final SingleFlight<String> policyLookups = new SingleFlight<>();
+
+  // verifiedTokens skips signature verification for tokens already verified on this node.
+  final VerifiedTokenCache verifiedTokens;
+
+  // revokedClients answers revocation checks locally once loaded, null to always ask the cache.
+  private RevokedClientNearCache revokedClients;
+
+  // latency of each introspection stage, null until metrics are bound.
+  private Timer verifyTimer;
+  private Timer revocationTimer;
+  private Timer resourceAclTimer;
+  private Timer accessTimer;
+  private Timer introspectTimer;
   // resourceIdCache will contain info about resources available(& their ACL) in resource server.
   Cache<String, String> resourceIdCache = CacheBuilder.newBuilder().maximumSize(1000)
       .expireAfterAccess(Constants.CACHE_TIMEOUT_AMOUNT, TimeUnit.MINUTES).build();
@@ -72,6 +93,54 @@ public class JwtAuthenticationServiceImpl implements AuthenticationService {
     options.setTrustAll(true).setVerifyHost(false).setSsl(true);
     catWebClient = WebClient.create(vertx, options);
     this.cache = cacheService;
+    this.verifiedTokens = new VerifiedTokenCache(
+        config.getInteger("jwtCacheMaxSize", VerifiedTokenCache.DEFAULT_MAX_SIZE));
+  }
+
+  /**
+   * @param revokedClients local copy of the revoked clients, null to ask the cache service
+   */
+  JwtAuthenticationServiceImpl withRevokedClients(RevokedClientNearCache revokedClients) {
+    this.revokedClients = revokedClients;
+    return this;
+  }
+
+  /**
+   * export the latency of token verification, of each introspection stage and of the whole
+   * introspection, nothing is registered when the registry is null.
+   *
+   * @param registry meter registry
+   * @param instanceId id of the owning verticle instance
+   */
+  JwtAuthenticationServiceImpl bindMetrics(MeterRegistry registry, String instanceId) {
+    if (registry == null) {
+      return this;
+    }
+    verifyTimer = stageTimer(registry, instanceId, "verify");
+    revocationTimer = stageTimer(registry, instanceId, "revocation");
+    resourceAclTimer = stageTimer(registry, instanceId, "resource_acl");
+    accessTimer = stageTimer(registry, instanceId, "access");
+    introspectTimer = stageTimer(registry, instanceId, "introspect");
+    return this;
+  }
+
+  private static Timer stageTimer(MeterRegistry registry, String instanceId, String stage) {
+    return Timer.builder("rs_proxy_auth_stage_seconds").tag("stage", stage)
+        .tag("instance", instanceId).register(registry);
+  }
+
+  private static <T> Future<T> timed(Timer timer, Supplier<Future<T>> stage) {
+    if (timer == null) {
+      return stage.get();
+    }
+    long started = System.nanoTime();
+    return stage.get().onComplete(completed -> record(timer, started));
+  }
+
+  private static void record(Timer timer, long started) {
+    if (timer != null) {
+      timer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+    }
   }
 
   @Override
@@ -87,19 +156,22 @@ public class JwtAuthenticationServiceImpl implements AuthenticationService {
             endPoint.equalsIgnoreCase(apis.getAsyncStatusEndpoint());
 
 
+    long started = System.nanoTime();
     Future<Boolean> audienceFuture = isValidAudienceValue(jwtData);
     audienceFuture.compose(audienceHandler -> {
-              if (!result.jwtData.getIss().equals(result.jwtData.getSub())) {
-                return isRevokedClientToken(result.jwtData);
-              } else {
-                return Future.succeededFuture(true);
-              }
-            }).compose(revokeTokenHandler -> {
-              if (!skipResourceIdCheck && !result.jwtData.getIss().equals(result.jwtData.getSub())) {
-                return isOpenResource(id);
-              } else {
-                return Future.succeededFuture("OPEN");
-              }
+              boolean selfIssued = result.jwtData.getIss().equals(result.jwtData.getSub());
+              // revocation and resource ACL lookups don't depend on each other, run them together
+              Future<Boolean> revokedFuture = selfIssued
+                  ? Future.succeededFuture(true)
+                  : timed(revocationTimer, () -> isRevokedClientToken(result.jwtData));
+              Future<String> aclFuture = skipResourceIdCheck || selfIssued
+                  ? Future.succeededFuture("OPEN")
+                  : timed(resourceAclTimer, () -> isOpenResource(id));
+              // join waits for both, so a revoked token is reported as such whichever fails first
+              return CompositeFuture.join(revokedFuture, aclFuture)
+                  .recover(joinFailure -> Future.failedFuture(
+                      revokedFuture.failed() ? revokedFuture.cause() : aclFuture.cause()))
+                  .map(joined -> aclFuture.result());
             }).compose(openResourceHandler -> {
               LOGGER.debug("isOpenResource messahe {}", openResourceHandler);
               result.isOpen = openResourceHandler.equalsIgnoreCase("OPEN");
@@ -133,9 +205,11 @@ public class JwtAuthenticationServiceImpl implements AuthenticationService {
                         jsonResponse.put(JSON_CONS, result.jwtData.getCons());
                         return Future.succeededFuture(jsonResponse);
                       } else {
-                        return validateAccess(result.jwtData, result.isOpen, authenticationInfo);
+                        return timed(accessTimer,
+                            () -> validateAccess(result.jwtData, result.isOpen, authenticationInfo));
                       }
-                    }).onSuccess(successHandler -> {
+                    }).onComplete(completed -> record(introspectTimer, started))
+            .onSuccess(successHandler -> {
               handler.handle(Future.succeededFuture(successHandler));
             }).onFailure(failureHandler -> {
               LOGGER.error("error : " + failureHandler.getMessage());
@@ -146,6 +220,14 @@ public class JwtAuthenticationServiceImpl implements AuthenticationService {
 
   Future<String> isOpenResource(String id) {
     LOGGER.trace("isOpenResource() started");
+    String indexed = CatalogueService.getAclIndex().policyOf(id);
+    if (indexed != null) {
+      return Future.succeededFuture(indexed);
+    }
+    if (CatalogueService.isUnknownId(id)) {
+      LOGGER.debug("failed : id not in catalogue");
+      return Future.failedFuture("Not Found");
+    }
     Promise<String> promise = Promise.promise();
     String ACL = resourceIdCache.getIfPresent(id);
     if (ACL != null) {
@@ -181,6 +263,12 @@ public class JwtAuthenticationServiceImpl implements AuthenticationService {
 
   Future<Boolean> isRevokedClientToken(JwtData jwtData) {
     LOGGER.trace("isRevokedClientToken started param : " + jwtData);
+    if (revokedClients != null && revokedClients.isReady()) {
+      LocalDateTime revokedAt = revokedClients.revokedAt(jwtData.getSub());
+      return revokedAt == null
+          ? Future.succeededFuture(true)
+          : checkRevokedAt(jwtData, revokedAt);
+    }
     Promise<Boolean> promise = Promise.promise();
     CacheType cacheType = CacheType.REVOKED_CLIENT;
     String subId = jwtData.getSub();
@@ -193,17 +281,7 @@ public class JwtAuthenticationServiceImpl implements AuthenticationService {
         String timestamp = responseJson.getString("value");
 
         LocalDateTime revokedAt = ZonedDateTime.parse(timestamp).toLocalDateTime();
-        LocalDateTime jwtIssuedAt =
-            (LocalDateTime.ofInstant(Instant.ofEpochSecond(jwtData.getIat()),
-                ZoneId.systemDefault()));
-
-        if (jwtIssuedAt.isBefore(revokedAt)) {
-          LOGGER.error("Privileges for client are revoked.");
-          JsonObject result = new JsonObject().put("401", "revoked token passes");
-          promise.fail(result.toString());
-        } else {
-          promise.complete(true);
-        }
+        checkRevokedAt(jwtData, revokedAt).onComplete(promise);
       } else {
         // since no value in cache, this means client_id is valid and not revoked
         LOGGER.info("cache call result : [MISS] " + handler.cause());
@@ -213,6 +291,19 @@ public class JwtAuthenticationServiceImpl implements AuthenticationService {
     return promise.future();
   }
 
+  private Future<Boolean> checkRevokedAt(JwtData jwtData, LocalDateTime revokedAt) {
+    LocalDateTime jwtIssuedAt =
+        (LocalDateTime.ofInstant(Instant.ofEpochSecond(jwtData.getIat()),
+            ZoneId.systemDefault()));
+
+    if (jwtIssuedAt.isBefore(revokedAt)) {
+      LOGGER.error("Privileges for client are revoked.");
+      JsonObject result = new JsonObject().put("401", "revoked token passes");
+      return Future.failedFuture(result.toString());
+    }
+    return Future.succeededFuture(true);
+  }
+
   Future<Boolean> isValidId(JwtData jwtData, String id) {
     Promise<Boolean> promise = Promise.promise();
     String jwtId = jwtData.getIid().split(":")[1];
@@ -304,33 +395,45 @@ public class JwtAuthenticationServiceImpl implements AuthenticationService {
       promise.complete(true);
     } else {
       LOGGER.info("Info : Cache miss : call cat server");
-      catWebClient.get(port, host, path).addQueryParam("property", "[id]")
-          .addQueryParam("value", "[[" + id + "]]").addQueryParam("filter", "[id,accessPolicy]")
-          .expect(ResponsePredicate.JSON).send(responseHandler -> {
-            if (responseHandler.failed()) {
-              promise.fail("false");
-            }
-            HttpResponse<Buffer> response = responseHandler.result();
-            JsonObject responseBody = response.bodyAsJsonObject();
-            if (response.statusCode() != HttpStatus.SC_OK) {
-              promise.fail("false");
-            } else if (!responseBody.getString("type").equals("urn:dx:cat:Success")) {
-              promise.fail("Not Found");
-            } else if (responseBody.getInteger("totalHits") == 0) {
-              LOGGER.error("Info: Resource ID invalid : Catalogue item Not Found");
-              promise.fail("Not Found");
-            } else {
-              LOGGER.debug("is Exist response : " + responseBody);
-              resourceIdCache.put(id, responseBody.getJsonArray("results").getJsonObject(0).getString("accessPolicy"));
-              promise.complete(true);
-            }
-          });
+      return resourceLookups.run(id, () -> fetchResourceExist(id));
     }
     return promise.future();
   }
 
+  private Future<Boolean> fetchResourceExist(String id) {
+    Promise<Boolean> promise = Promise.promise();
+    catWebClient.get(port, host, path).addQueryParam("property", "[id]")
+        .addQueryParam("value", "[[" + id + "]]").addQueryParam("filter", "[id,accessPolicy]")
+        .expect(ResponsePredicate.JSON).send(responseHandler -> {
+          if (responseHandler.failed()) {
+            promise.fail("false");
+            return;
+          }
+          HttpResponse<Buffer> response = responseHandler.result();
+          JsonObject responseBody = response.bodyAsJsonObject();
+          if (response.statusCode() != HttpStatus.SC_OK) {
+            promise.fail("false");
+          } else if (!responseBody.getString("type").equals("urn:dx:cat:Success")) {
+            promise.fail("Not Found");
+          } else if (responseBody.getInteger("totalHits") == 0) {
+            LOGGER.error("Info: Resource ID invalid : Catalogue item Not Found");
+            CatalogueService.markAbsent(id);
+            promise.fail("Not Found");
+          } else {
+            LOGGER.debug("is Exist response : " + responseBody);
+            resourceIdCache.put(id, responseBody.getJsonArray("results").getJsonObject(0).getString("accessPolicy"));
+            promise.complete(true);
+          }
+        });
+    return promise.future();
+  }
+
   Future<String> getResourceAccessPolicy(String groupId) {
     LOGGER.trace("getGroupAccessPolicy() started");
+    String indexed = CatalogueService.getAclIndex().groupPolicyOf(groupId);
+    if (indexed != null) {
+      return Future.succeededFuture(indexed);
+    }
     Promise<String> promise = Promise.promise();
     String groupACL = resourceGroupCache.getIfPresent(groupId);
     if (groupACL != null) {
@@ -338,50 +441,62 @@ public class JwtAuthenticationServiceImpl implements AuthenticationService {
       promise.complete(groupACL);
     } else {
       LOGGER.info("Info : cache miss");
-      catWebClient.get(port, host, path).addQueryParam("property", "[id]")
-          .addQueryParam("value", "[[" + groupId + "]]").addQueryParam("filter", "[accessPolicy]")
-          .expect(ResponsePredicate.JSON).send(httpResponseAsyncResult -> {
-            if (httpResponseAsyncResult.failed()) {
-              LOGGER.error(httpResponseAsyncResult.cause());
-              promise.fail("Resource not found");
-              return;
-            }
-            HttpResponse<Buffer> response = httpResponseAsyncResult.result();
-            if (response.statusCode() != HttpStatus.SC_OK) {
-              promise.fail("Resource not found");
-              return;
-            }
-            LOGGER.debug(response.body());
-            JsonObject responseBody = response.bodyAsJsonObject();
-            if (!responseBody.getString("type").equals("urn:dx:cat:Success")) {
-              promise.fail("Resource not found");
-              return;
-            }
-            String resourceACL = "SECURE";
-            try {
-              LOGGER.debug("resp from cat : " + responseBody);
-              resourceACL =
-                  responseBody.getJsonArray("results").getJsonObject(0).getString("accessPolicy");
-              resourceGroupCache.put(groupId, resourceACL);
-              LOGGER.debug("Info: Group ID valid : Catalogue item Found");
-              promise.complete(resourceACL);
-            } catch (Exception ignored) {
-              LOGGER.error("Info: Group ID invalid : Empty response in results from Catalogue",
-                  ignored);
-              promise.fail("Resource not found");
-            }
-          });
+      return policyLookups.run(groupId, () -> fetchAccessPolicy(groupId));
     }
     return promise.future();
   }
 
+  private Future<String> fetchAccessPolicy(String groupId) {
+    Promise<String> promise = Promise.promise();
+    catWebClient.get(port, host, path).addQueryParam("property", "[id]")
+        .addQueryParam("value", "[[" + groupId + "]]").addQueryParam("filter", "[accessPolicy]")
+        .expect(ResponsePredicate.JSON).send(httpResponseAsyncResult -> {
+          if (httpResponseAsyncResult.failed()) {
+            LOGGER.error(httpResponseAsyncResult.cause());
+            promise.fail("Resource not found");
+            return;
+          }
+          HttpResponse<Buffer> response = httpResponseAsyncResult.result();
+          if (response.statusCode() != HttpStatus.SC_OK) {
+            promise.fail("Resource not found");
+            return;
+          }
+          LOGGER.debug(response.body());
+          JsonObject responseBody = response.bodyAsJsonObject();
+          if (!responseBody.getString("type").equals("urn:dx:cat:Success")) {
+            promise.fail("Resource not found");
+            return;
+          }
+          String resourceACL = "SECURE";
+          try {
+            LOGGER.debug("resp from cat : " + responseBody);
+            resourceACL =
+                responseBody.getJsonArray("results").getJsonObject(0).getString("accessPolicy");
+            resourceGroupCache.put(groupId, resourceACL);
+            LOGGER.debug("Info: Group ID valid : Catalogue item Found");
+            promise.complete(resourceACL);
+          } catch (Exception ignored) {
+            LOGGER.error("Info: Group ID invalid : Empty response in results from Catalogue",
+                ignored);
+            promise.fail("Resource not found");
+          }
+        });
+    return promise.future();
+  }
+
   @Override
   public AuthenticationService decodeJwt(String jwtToken, Handler<AsyncResult<JwtData>> handler) {
+    JwtData verified = jwtToken == null ? null : verifiedTokens.get(jwtToken);
+    if (verified != null) {
+      handler.handle(Future.succeededFuture(verified));
+      return this;
+    }
     TokenCredentials creds = new TokenCredentials(jwtToken);
-    jwtAuth.authenticate(creds).onSuccess(user -> {
+    timed(verifyTimer, () -> jwtAuth.authenticate(creds)).onSuccess(user -> {
               JwtData jwtData = new JwtData(user.principal());
               jwtData.setExp(user.get("exp"));
               jwtData.setIat(user.get("iat"));
+              verifiedTokens.put(jwtToken, jwtData);
               handler.handle(Future.succeededFuture(jwtData));
             })
             .onFailure(err -> {
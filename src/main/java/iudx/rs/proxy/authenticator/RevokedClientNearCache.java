@@ -0,0 +1,137 @@
+package iudx.rs.proxy.authenticator;
+
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import iudx.rs.proxy.database.DatabaseService;
+import java.time.LocalDateTime;
+import java.time.ZonedDateTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Read-only copy of the {@code revoked_tokens} table held by the authentication verticle, so the
+ * revocation check of a token needs no event bus call.
+ *
+ * <p>The table is loaded in full at start and then on a long period, to drop deleted rows. In
+ * between, rows modified since the last seen {@code modified_at} are merged in. A full load is
+ * built aside and swapped in, so there is never a moment with revocations missing. The copy has
+ * no entry cap, it holds one entry per revoked client.
+ */
+public class RevokedClientNearCache {
+
+  private static final Logger LOGGER = LogManager.getLogger(RevokedClientNearCache.class);
+
+  static final String FULL_QUERY = "SELECT _id, expiry, modified_at FROM revoked_tokens";
+  static final String DELTA_QUERY =
+      "SELECT _id, expiry, modified_at FROM revoked_tokens WHERE modified_at >= '%s'";
+
+  private final Vertx vertx;
+  private final DatabaseService pgService;
+  private final long deltaIntervalMillis;
+  private final long fullReloadMillis;
+  private final long overlapMillis;
+
+  private volatile Map<String, LocalDateTime> revokedAt;
+  private LocalDateTime watermark;
+  private long deltaTimerId = -1;
+  private long fullTimerId = -1;
+
+  /**
+   * @param config e.g. <code>{"deltaIntervalMillis": 30000, "fullReloadMillis": 3600000,
+   *     "overlapMillis": 60000}</code>, overlap re-reads rows whose transaction committed after a
+   *     newer row was already seen
+   */
+  public RevokedClientNearCache(Vertx vertx, DatabaseService pgService, JsonObject config) {
+    this.vertx = vertx;
+    this.pgService = pgService;
+    this.deltaIntervalMillis = config.getLong("deltaIntervalMillis", 30000L);
+    this.fullReloadMillis = config.getLong("fullReloadMillis", 3600000L);
+    this.overlapMillis = config.getLong("overlapMillis", 60000L);
+  }
+
+  /** load the table and keep it current until {@link #stop()}. */
+  public RevokedClientNearCache start() {
+    reload();
+    deltaTimerId = vertx.setPeriodic(deltaIntervalMillis, id -> sync());
+    fullTimerId = vertx.setPeriodic(fullReloadMillis, id -> reload());
+    return this;
+  }
+
+  public void stop() {
+    vertx.cancelTimer(deltaTimerId);
+    vertx.cancelTimer(fullTimerId);
+  }
+
+  /** false until the first full load has completed, callers then ask the cache service. */
+  public boolean isReady() {
+    return revokedAt != null;
+  }
+
+  /**
+   * @param clientId subject of the token
+   * @return time the client's tokens were revoked at, null if not revoked
+   */
+  public LocalDateTime revokedAt(String clientId) {
+    Map<String, LocalDateTime> snapshot = revokedAt;
+    return snapshot == null ? null : snapshot.get(clientId);
+  }
+
+  Future<Void> reload() {
+    return query(FULL_QUERY).map(rows -> {
+      Map<String, LocalDateTime> fresh = new ConcurrentHashMap<>();
+      LocalDateTime latest = merge(fresh, rows, null);
+      revokedAt = fresh;
+      watermark = latest;
+      LOGGER.debug("revoked clients loaded : {}", fresh.size());
+      return null;
+    });
+  }
+
+  Future<Void> sync() {
+    Map<String, LocalDateTime> current = revokedAt;
+    if (current == null) {
+      return reload();
+    }
+    if (watermark == null) {
+      return Future.succeededFuture();
+    }
+    String from = watermark.minusNanos(overlapMillis * 1_000_000L).toString();
+    return query(String.format(DELTA_QUERY, from)).map(rows -> {
+      // a full load swapped in meanwhile is newer than these rows
+      if (current == revokedAt) {
+        watermark = merge(current, rows, watermark);
+      }
+      return null;
+    });
+  }
+
+  private Future<JsonArray> query(String sql) {
+    Promise<JsonObject> promise = Promise.promise();
+    pgService.executeQuery(new JsonObject().put("query", sql), promise);
+    return promise.future()
+        .map(result -> result.getJsonArray("result", new JsonArray()))
+        .onFailure(ex -> LOGGER.error("revoked clients query failed : {}", ex.getMessage()));
+  }
+
+  private static LocalDateTime merge(Map<String, LocalDateTime> target, JsonArray rows,
+      LocalDateTime latest) {
+    for (Object row : rows) {
+      JsonObject clientInfo = (JsonObject) row;
+      target.put(clientInfo.getString("_id"),
+          ZonedDateTime.parse(clientInfo.getString("expiry")).toLocalDateTime());
+      String modifiedAt = clientInfo.getString("modified_at");
+      if (modifiedAt != null) {
+        LocalDateTime modified = LocalDateTime.parse(modifiedAt);
+        if (latest == null || modified.isAfter(latest)) {
+          latest = modified;
+        }
+      }
+    }
+    return latest;
+  }
+}
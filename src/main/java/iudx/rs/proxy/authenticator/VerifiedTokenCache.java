@@ -0,0 +1,76 @@
+package iudx.rs.proxy.authenticator;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hashing;
+import iudx.rs.proxy.authenticator.model.JwtData;
+import java.nio.charset.StandardCharsets;
+import java.util.function.LongSupplier;
+
+/**
+ * Tokens whose signature has already been verified, keyed by the SHA-256 digest of the token so
+ * the raw token is not held in memory. An entry is served only until the token's {@code exp};
+ * checks that depend on the current state of a client, such as revocation, are not cached here.
+ */
+final class VerifiedTokenCache {
+
+  static final int DEFAULT_MAX_SIZE = 10000;
+
+  private final Cache<HashCode, JwtData> cache;
+  private final LongSupplier epochSeconds;
+
+  VerifiedTokenCache(long maxSize) {
+    this(maxSize, () -> System.currentTimeMillis() / 1000);
+  }
+
+  VerifiedTokenCache(long maxSize, LongSupplier epochSeconds) {
+    this.cache = CacheBuilder.newBuilder().maximumSize(maxSize).build();
+    this.epochSeconds = epochSeconds;
+  }
+
+  /**
+   * @param token raw token as received
+   * @return decoded token, null if not verified before or expired
+   */
+  JwtData get(String token) {
+    HashCode digest = digest(token);
+    JwtData jwtData = cache.getIfPresent(digest);
+    if (jwtData == null) {
+      return null;
+    }
+    if (isExpired(jwtData)) {
+      cache.invalidate(digest);
+      return null;
+    }
+    return copy(jwtData);
+  }
+
+  /**
+   * @param token raw token as received
+   * @param jwtData token decoded after a successful signature verification
+   */
+  void put(String token, JwtData jwtData) {
+    if (jwtData.getExp() == null || isExpired(jwtData)) {
+      return;
+    }
+    cache.put(digest(token), copy(jwtData));
+  }
+
+  long size() {
+    return cache.size();
+  }
+
+  private boolean isExpired(JwtData jwtData) {
+    return jwtData.getExp() <= epochSeconds.getAsLong();
+  }
+
+  private static HashCode digest(String token) {
+    return Hashing.sha256().hashString(token, StandardCharsets.UTF_8);
+  }
+
+  /* callers may change the token data they get, entries are never handed out. */
+  private static JwtData copy(JwtData jwtData) {
+    return new JwtData(jwtData.toJson().copy());
+  }
+}
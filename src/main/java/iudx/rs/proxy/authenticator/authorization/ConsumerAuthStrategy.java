@@ -2,10 +2,10 @@ package iudx.rs.proxy.authenticator.authorization;
 
 import static iudx.rs.proxy.authenticator.authorization.Method.GET;
 import static iudx.rs.proxy.authenticator.authorization.Method.POST;
-import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.List;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import io.vertx.core.json.JsonArray;
@@ -16,7 +16,7 @@ public class ConsumerAuthStrategy implements AuthorizationStrategy {
 
   private static final Logger LOGGER = LogManager.getLogger(ConsumerAuthStrategy.class);
 
-  static Map<String, List<AuthorizationRequest>> consumerAuthorizationRules = new HashMap<>();
+  static Map<String, Set<AuthorizationRequest>> consumerAuthorizationRules = new HashMap<>();
   
   private final Api apis;
   private static volatile ConsumerAuthStrategy instance;
@@ -40,22 +40,21 @@ public class ConsumerAuthStrategy implements AuthorizationStrategy {
   }
   
   private void buildPermissions(Api api) {
-    List<AuthorizationRequest> apiAccessList = new ArrayList<>();
-    apiAccessList.add(new AuthorizationRequest(GET, apis.getTemporalEndpoint()));
-    apiAccessList.add(new AuthorizationRequest(GET, apis.getConsumerAuditEndpoint()));
-    apiAccessList.add(new AuthorizationRequest(GET, apis.getEntitiesEndpoint()));
-    apiAccessList.add(new AuthorizationRequest(POST, apis.getPostEntitiesEndpoint()));
-    apiAccessList.add(new AuthorizationRequest(POST, apis.getPostTemporalEndpoint()));
+    Set<AuthorizationRequest> apiAccessSet = new HashSet<>();
+    apiAccessSet.add(new AuthorizationRequest(GET, api.getTemporalEndpoint()));
+    apiAccessSet.add(new AuthorizationRequest(GET, api.getConsumerAuditEndpoint()));
+    apiAccessSet.add(new AuthorizationRequest(GET, api.getEntitiesEndpoint()));
+    apiAccessSet.add(new AuthorizationRequest(POST, api.getPostEntitiesEndpoint()));
+    apiAccessSet.add(new AuthorizationRequest(POST, api.getPostTemporalEndpoint()));
 
-    consumerAuthorizationRules.put(IudxAccess.API.getAccess(), apiAccessList);
+    consumerAuthorizationRules.put(IudxAccess.API.getAccess(), apiAccessSet);
 
     // async access list
-    List<AuthorizationRequest> asyncAccessList = new ArrayList<>();
-    asyncAccessList.add(new AuthorizationRequest(GET, api.getAsyncSearchEndPoint()));
-    asyncAccessList.add(new AuthorizationRequest(GET, api.getAsyncStatusEndpoint()));
-    consumerAuthorizationRules.put(IudxAccess.ASYNC.getAccess(), asyncAccessList);
+    Set<AuthorizationRequest> asyncAccessSet = new HashSet<>();
+    asyncAccessSet.add(new AuthorizationRequest(GET, api.getAsyncSearchEndPoint()));
+    asyncAccessSet.add(new AuthorizationRequest(GET, api.getAsyncStatusEndpoint()));
+    consumerAuthorizationRules.put(IudxAccess.ASYNC.getAccess(), asyncAccessSet);
   }
-  
 
   @Override
   public boolean isAuthorized(AuthorizationRequest authRequest, JwtData jwtData) {
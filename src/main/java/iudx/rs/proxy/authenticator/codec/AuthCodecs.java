@@ -0,0 +1,35 @@
+package iudx.rs.proxy.authenticator.codec;
+
+import io.vertx.core.Vertx;
+import io.vertx.core.eventbus.DeliveryOptions;
+
+/**
+ * Registers the authentication codec. Both the node calling the authentication service and the
+ * node serving it register it, the clustered event bus looks codecs up by name on receipt.
+ */
+public final class AuthCodecs {
+
+  private AuthCodecs() {}
+
+  /**
+   * register the codec on the event bus of vertx, safe to call more than once.
+   *
+   * @param vertx vertx instance
+   */
+  public static void register(Vertx vertx) {
+    try {
+      vertx.eventBus().registerCodec(new AuthContextCodec());
+    } catch (IllegalStateException ex) {
+      // already registered
+    }
+  }
+
+  /**
+   * @param vertx vertx instance
+   * @return delivery options for authentication service messages, with the codec registered
+   */
+  public static DeliveryOptions deliveryOptions(Vertx vertx) {
+    register(vertx);
+    return new DeliveryOptions().setCodecName(AuthContextCodec.NAME);
+  }
+}
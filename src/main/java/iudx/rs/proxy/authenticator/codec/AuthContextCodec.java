@@ -0,0 +1,42 @@
+package iudx.rs.proxy.authenticator.codec;
+
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.eventbus.MessageCodec;
+import io.vertx.core.json.JsonObject;
+
+/**
+ * Event bus codec for the authentication service messages, which carry the request, the
+ * {@code authInfo} built by the auth handler and the decoded token. Local delivery passes the
+ * message itself instead of a deep copy; the service only reads it (checked by
+ * TokenIntrospectStagesTest) and the caller changes {@code authInfo} only once the reply has
+ * arrived. Clustered delivery uses {@link BinaryJson}.
+ */
+public class AuthContextCodec implements MessageCodec<JsonObject, JsonObject> {
+
+  public static final String NAME = "iudx.rs.proxy.authContext";
+
+  @Override
+  public void encodeToWire(Buffer buffer, JsonObject json) {
+    BinaryJson.writeObject(buffer, json);
+  }
+
+  @Override
+  public JsonObject decodeFromWire(int pos, Buffer buffer) {
+    return new BinaryJson.Reader(buffer, pos).readObject();
+  }
+
+  @Override
+  public JsonObject transform(JsonObject json) {
+    return json;
+  }
+
+  @Override
+  public String name() {
+    return NAME;
+  }
+
+  @Override
+  public byte systemCodecID() {
+    return -1;
+  }
+}
@@ -0,0 +1,166 @@
+package iudx.rs.proxy.authenticator.codec;
+
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.Json;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * Tagged binary form of json values used on the clustered event bus: strings are length prefixed
+ * and numbers are written as they are, so decoding needs neither a tokenizer nor escaping.
+ */
+final class BinaryJson {
+
+  private static final byte NULL = 0;
+  private static final byte STRING = 1;
+  private static final byte INT = 2;
+  private static final byte LONG = 3;
+  private static final byte DOUBLE = 4;
+  private static final byte TRUE = 5;
+  private static final byte FALSE = 6;
+  private static final byte OBJECT = 7;
+  private static final byte ARRAY = 8;
+  /* any other value json can hold, written as json text. */
+  private static final byte TEXT = 9;
+
+  private BinaryJson() {}
+
+  static void writeString(Buffer buffer, String value) {
+    if (value == null) {
+      buffer.appendInt(-1);
+      return;
+    }
+    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    buffer.appendInt(bytes.length).appendBytes(bytes);
+  }
+
+  static void writeObject(Buffer buffer, JsonObject json) {
+    if (json == null) {
+      buffer.appendInt(-1);
+      return;
+    }
+    buffer.appendInt(json.size());
+    for (Map.Entry<String, Object> entry : json) {
+      writeString(buffer, entry.getKey());
+      writeValue(buffer, entry.getValue());
+    }
+  }
+
+  private static void writeArray(Buffer buffer, JsonArray json) {
+    buffer.appendInt(json.size());
+    for (Object value : json) {
+      writeValue(buffer, value);
+    }
+  }
+
+  private static void writeValue(Buffer buffer, Object value) {
+    if (value == null) {
+      buffer.appendByte(NULL);
+    } else if (value instanceof String) {
+      writeString(buffer.appendByte(STRING), (String) value);
+    } else if (value instanceof Integer || value instanceof Short || value instanceof Byte) {
+      buffer.appendByte(INT).appendInt(((Number) value).intValue());
+    } else if (value instanceof Long) {
+      buffer.appendByte(LONG).appendLong((Long) value);
+    } else if (value instanceof Double || value instanceof Float) {
+      buffer.appendByte(DOUBLE).appendDouble(((Number) value).doubleValue());
+    } else if (value instanceof Boolean) {
+      buffer.appendByte((Boolean) value ? TRUE : FALSE);
+    } else if (value instanceof JsonObject) {
+      writeObject(buffer.appendByte(OBJECT), (JsonObject) value);
+    } else if (value instanceof JsonArray) {
+      writeArray(buffer.appendByte(ARRAY), (JsonArray) value);
+    } else {
+      writeString(buffer.appendByte(TEXT), Json.encode(value));
+    }
+  }
+
+  /** reads values written by {@link BinaryJson} from a position that moves past each read. */
+  static final class Reader {
+    private final Buffer buffer;
+    private int pos;
+
+    Reader(Buffer buffer, int pos) {
+      this.buffer = buffer;
+      this.pos = pos;
+    }
+
+    byte readByte() {
+      return buffer.getByte(pos++);
+    }
+
+    int readInt() {
+      int value = buffer.getInt(pos);
+      pos += Integer.BYTES;
+      return value;
+    }
+
+    String readString() {
+      int length = readInt();
+      if (length < 0) {
+        return null;
+      }
+      String value = buffer.getString(pos, pos + length, StandardCharsets.UTF_8.name());
+      pos += length;
+      return value;
+    }
+
+    JsonObject readObject() {
+      int size = readInt();
+      if (size < 0) {
+        return null;
+      }
+      JsonObject json = new JsonObject();
+      for (int i = 0; i < size; i++) {
+        String key = readString();
+        json.put(key, readValue());
+      }
+      return json;
+    }
+
+    private JsonArray readArray() {
+      int size = readInt();
+      JsonArray json = new JsonArray();
+      for (int i = 0; i < size; i++) {
+        json.add(readValue());
+      }
+      return json;
+    }
+
+    private Object readValue() {
+      byte tag = readByte();
+      switch (tag) {
+        case NULL:
+          return null;
+        case STRING:
+          return readString();
+        case INT:
+          return readInt();
+        case LONG: {
+          long value = buffer.getLong(pos);
+          pos += Long.BYTES;
+          return value;
+        }
+        case DOUBLE: {
+          double value = buffer.getDouble(pos);
+          pos += Double.BYTES;
+          return value;
+        }
+        case TRUE:
+          return Boolean.TRUE;
+        case FALSE:
+          return Boolean.FALSE;
+        case OBJECT:
+          return readObject();
+        case ARRAY:
+          return readArray();
+        case TEXT:
+          return Json.decodeValue(readString());
+        default:
+          throw new IllegalStateException("unknown value tag " + tag + " at " + (pos - 1));
+      }
+    }
+  }
+}
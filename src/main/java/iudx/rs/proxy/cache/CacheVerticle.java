@@ -1,13 +1,14 @@
 package iudx.rs.proxy.cache;
 
 import static iudx.rs.proxy.common.Constants.CACHE_SERVICE_ADDRESS;
-import static iudx.rs.proxy.common.Constants.DATABASE_SERVICE_ADDRESS;
+import static iudx.rs.proxy.common.Constants.DB_SERVICE_ADDRESS;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import io.vertx.core.AbstractVerticle;
 import io.vertx.core.eventbus.MessageConsumer;
 import io.vertx.core.json.JsonObject;
 import io.vertx.serviceproxy.ServiceBinder;
+import iudx.rs.proxy.common.LocalServices;
 import iudx.rs.proxy.database.DatabaseService;
 
 public class CacheVerticle extends AbstractVerticle {
@@ -23,14 +24,22 @@ public class CacheVerticle extends AbstractVerticle {
   @Override
   public void start() throws Exception {
 
-    pgService = DatabaseService.createProxy(vertx, DATABASE_SERVICE_ADDRESS);
+    pgService = LocalServices.createProxy(vertx, DB_SERVICE_ADDRESS, DatabaseService.class,
+        DatabaseService::createProxy);
 
     cacheService = new CacheServiceImpl(vertx, pgService);
 
     binder = new ServiceBinder(vertx);
     consumer = binder.setAddress(CACHE_SERVICE_ADDRESS).register(CacheService.class, cacheService);
+    LocalServices.register(vertx, CACHE_SERVICE_ADDRESS, cacheService);
 
     LOGGER.info("Cache Verticle deployed.");
   }
 
+  @Override
+  public void stop() {
+    LocalServices.unregister(CACHE_SERVICE_ADDRESS, cacheService);
+    binder.unregister(consumer);
+  }
+
 }
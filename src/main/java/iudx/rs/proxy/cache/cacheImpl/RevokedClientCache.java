@@ -7,6 +7,8 @@ import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
 import iudx.rs.proxy.common.Constants;
 import iudx.rs.proxy.database.DatabaseService;
+import java.util.HashSet;
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -53,14 +55,17 @@ public class RevokedClientCache implements IudxCache {
         handler -> {
           if (handler.succeeded()) {
             JsonArray clientIdArray = handler.result().getJsonArray("result");
-            cache.invalidateAll();
+            Set<String> clientIds = new HashSet<>();
             clientIdArray.forEach(
                 e -> {
                   JsonObject clientInfo = (JsonObject) e;
                   String key = clientInfo.getString("_id");
                   String value = clientInfo.getString("expiry");
+                  clientIds.add(key);
                   this.cache.put(key, value);
                 });
+            // drop rows deleted since the last refresh only after the new rows are in
+            cache.asMap().keySet().retainAll(clientIds);
           }
         });
   }
@@ -0,0 +1,243 @@
+package iudx.rs.proxy.common;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Direct in-process calls to service implementations deployed in the same JVM.
+ *
+ * <p>When enabled by the deployer, service verticles register their implementation here next to
+ * the event bus registration. Clients created through {@link #createProxy} call a registered
+ * implementation directly on the context of the verticle that registered it, and use the event
+ * bus proxy only while no implementation for the address is registered in this JVM. JSON
+ * arguments and results are copied, as the local event bus would, so neither side sees the
+ * other's changes.
+ */
+public final class LocalServices {
+
+  private static final Logger LOGGER = LogManager.getLogger(LocalServices.class);
+
+  private static final Map<String, Registrations> SERVICES = new ConcurrentHashMap<>();
+  private static volatile boolean enabled;
+
+  private LocalServices() {}
+
+  /**
+   * enable direct calls for services registered from now on, set by the deployer before any
+   * verticle is deployed.
+   *
+   * @param enable true to call co-located services directly
+   */
+  public static void setEnabled(boolean enable) {
+    enabled = enable;
+  }
+
+  public static boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * register a service implementation for direct calls, must be called from the context of the
+   * verticle owning the implementation. No-op when direct calls are disabled.
+   *
+   * @param vertx vertx instance
+   * @param address event bus address the service is bound to
+   * @param service service implementation
+   */
+  public static void register(Vertx vertx, String address, Object service) {
+    if (!enabled) {
+      return;
+    }
+    SERVICES.computeIfAbsent(address, key -> new Registrations())
+        .add(new Registration(vertx.getOrCreateContext(), service));
+    LOGGER.info("registered local service at {}", address);
+  }
+
+  /**
+   * @param address event bus address the service is bound to
+   * @param service service implementation passed to {@link #register}
+   */
+  public static void unregister(String address, Object service) {
+    Registrations registrations = SERVICES.get(address);
+    if (registrations != null) {
+      registrations.removeIf(registration -> registration.service == service);
+    }
+  }
+
+  /**
+   * client for a service, calling an implementation in this JVM when one is registered for the
+   * address and the event bus proxy otherwise.
+   *
+   * @param vertx vertx instance
+   * @param address event bus address of the service
+   * @param type service interface
+   * @param remote creates the event bus proxy, usually {@code XService::createProxy}
+   * @return service client
+   */
+  public static <T> T createProxy(Vertx vertx, String address, Class<T> type,
+      BiFunction<Vertx, String, T> remote) {
+    T remoteProxy = remote.apply(vertx, address);
+    if (!enabled) {
+      return remoteProxy;
+    }
+    Object proxy = Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type},
+        new LocalInvocationHandler(address, remoteProxy));
+    return type.cast(proxy);
+  }
+
+  private static final class Registration {
+    private final Context context;
+    private final Object service;
+
+    private Registration(Context context, Object service) {
+      this.context = context;
+      this.service = service;
+    }
+  }
+
+  /* instances of a verticle each register their implementation, calls are spread round robin. */
+  private static final class Registrations extends CopyOnWriteArrayList<Registration> {
+    private final AtomicInteger next = new AtomicInteger();
+
+    private Registration pick() {
+      int size = size();
+      if (size == 0) {
+        return null;
+      }
+      try {
+        return get(Math.floorMod(next.getAndIncrement(), size));
+      } catch (IndexOutOfBoundsException ex) {
+        return null;
+      }
+    }
+  }
+
+  private static final class LocalInvocationHandler implements InvocationHandler {
+    private final String address;
+    private final Object remoteProxy;
+
+    private LocalInvocationHandler(String address, Object remoteProxy) {
+      this.address = address;
+      this.remoteProxy = remoteProxy;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+      if (method.getDeclaringClass() == Object.class) {
+        return method.invoke(this, args);
+      }
+      Registrations registrations = SERVICES.get(address);
+      Registration target = registrations == null ? null : registrations.pick();
+      if (target == null) {
+        return invokeDirect(remoteProxy, method, args);
+      }
+      Context caller = Vertx.currentContext();
+      Object[] localArgs = copyArgs(args, caller);
+      if (Future.class.isAssignableFrom(method.getReturnType())) {
+        Promise<Object> promise = Promise.promise();
+        onContext(target.context, () -> {
+          Future<?> result;
+          try {
+            result = (Future<?>) invokeDirect(target.service, method, localArgs);
+          } catch (Throwable ex) {
+            result = Future.failedFuture(ex);
+          }
+          result.onComplete(ar -> deliver(caller, promise, ar));
+        });
+        return promise.future();
+      }
+      onContext(target.context, () -> {
+        try {
+          invokeDirect(target.service, method, localArgs);
+        } catch (Throwable ex) {
+          failHandler(localArgs, ex);
+        }
+      });
+      return method.getReturnType().isInstance(proxy) ? proxy : null;
+    }
+
+    private static Object invokeDirect(Object target, Method method, Object[] args)
+        throws Throwable {
+      try {
+        return method.invoke(target, args);
+      } catch (InvocationTargetException ex) {
+        throw ex.getCause();
+      }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Object[] copyArgs(Object[] args, Context caller) {
+      if (args == null) {
+        return null;
+      }
+      Object[] copy = new Object[args.length];
+      for (int i = 0; i < args.length; i++) {
+        Object arg = args[i];
+        if (arg instanceof Handler) {
+          Handler<AsyncResult<Object>> handler = (Handler<AsyncResult<Object>>) arg;
+          copy[i] = (Handler<AsyncResult<Object>>) ar -> deliver(caller, handler, ar);
+        } else {
+          copy[i] = copyValue(arg);
+        }
+      }
+      return copy;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void failHandler(Object[] args, Throwable cause) {
+      LOGGER.error("local service call failed", cause);
+      if (args != null && args.length > 0 && args[args.length - 1] instanceof Handler) {
+        ((Handler<AsyncResult<Object>>) args[args.length - 1])
+            .handle(Future.failedFuture(cause));
+      }
+    }
+  }
+
+  private static Object copyValue(Object value) {
+    if (value instanceof JsonObject) {
+      return ((JsonObject) value).copy();
+    }
+    if (value instanceof JsonArray) {
+      return ((JsonArray) value).copy();
+    }
+    return value;
+  }
+
+  private static void onContext(Context context, Runnable task) {
+    if (Vertx.currentContext() == context) {
+      task.run();
+    } else {
+      context.runOnContext(v -> task.run());
+    }
+  }
+
+  /* results reach the caller on its own context, like an event bus reply would. */
+  private static void deliver(Context caller, Handler<AsyncResult<Object>> handler,
+      AsyncResult<?> result) {
+    AsyncResult<Object> copy = result.succeeded()
+        ? Future.succeededFuture(copyValue(result.result()))
+        : Future.failedFuture(result.cause());
+    if (caller == null) {
+      handler.handle(copy);
+    } else {
+      onContext(caller, () -> handler.handle(copy));
+    }
+  }
+}
@@ -36,6 +36,8 @@ public enum ResponseUrn {
   INVALID_HEADER_VALUE_URN("urn:dx:rs:invalidHeaderValue","Invalid header value"),
   DB_ERROR_URN("urn:dx:rs:DatabaseError","Database error"),
   QUEUE_ERROR_URN("urn:dx:rs:QueueError","Queue error"),
+  ADAPTER_UNAVAILABLE_URN("urn:dx:rs:adapterUnavailable", "Adapter for the resource is unavailable"),
+  ADAPTER_OVERLOADED_URN("urn:dx:rs:adapterOverloaded", "Adapter for the resource is overloaded"),
 
   BACKING_SERVICE_FORMAT_URN("urn:dx:rs:backend", "format error from backing service [cat,auth etc.]"),
   SCHEMA_READ_ERROR_URN("urn:dx:rs:readError","Fail to read file"),
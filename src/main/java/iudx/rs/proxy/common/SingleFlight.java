@@ -0,0 +1,70 @@
+package iudx.rs.proxy.common;
+
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Lookups keyed by id where concurrent misses for one key share a single call. A caller arriving
+ * while the call for its key is in flight gets that call's result on its own context, the key is
+ * released as soon as the call completes so a later miss starts a fresh call.
+ *
+ * @param <T> result of the lookup
+ */
+public final class SingleFlight<T> {
+
+  private final Map<String, Future<T>> inFlight = new ConcurrentHashMap<>();
+  private final AtomicLong joined = new AtomicLong();
+
+  /**
+   * @param key lookup key
+   * @param call starts the lookup, only invoked when no lookup for the key is in flight
+   * @return result of the in-flight or newly started lookup
+   */
+  public Future<T> run(String key, Supplier<Future<T>> call) {
+    Promise<T> promise = Promise.promise();
+    Future<T> shared = inFlight.putIfAbsent(key, promise.future());
+    if (shared != null) {
+      joined.incrementAndGet();
+      return onCallerContext(shared);
+    }
+    promise.future().onComplete(result -> inFlight.remove(key, promise.future()));
+    try {
+      call.get().onComplete(promise);
+    } catch (RuntimeException ex) {
+      promise.tryFail(ex);
+    }
+    return promise.future();
+  }
+
+  /** number of lookups answered by joining an in-flight call. */
+  public long joinedCount() {
+    return joined.get();
+  }
+
+  int inFlightCount() {
+    return inFlight.size();
+  }
+
+  /* the call may complete on another verticle's event loop. */
+  private static <T> Future<T> onCallerContext(Future<T> shared) {
+    Context caller = Vertx.currentContext();
+    if (caller == null) {
+      return shared;
+    }
+    Promise<T> promise = Promise.promise();
+    shared.onComplete(result -> {
+      if (Vertx.currentContext() == caller) {
+        promise.handle(result);
+      } else {
+        caller.runOnContext(v -> promise.handle(result));
+      }
+    });
+    return promise.future();
+  }
+}
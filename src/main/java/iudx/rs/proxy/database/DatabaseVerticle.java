@@ -5,6 +5,7 @@ import io.vertx.core.AbstractVerticle;
 import io.vertx.core.eventbus.MessageConsumer;
 import io.vertx.core.json.JsonObject;
 import io.vertx.serviceproxy.ServiceBinder;
+import iudx.rs.proxy.common.LocalServices;
 import iudx.rs.proxy.database.example.postgres.PostgresServiceImpl;
 
 
@@ -29,11 +30,13 @@ public class DatabaseVerticle extends AbstractVerticle {
     consumer = binder
         .setAddress(DB_SERVICE_ADDRESS)
         .register(DatabaseService.class, dbServiceImpl);
+    LocalServices.register(vertx, DB_SERVICE_ADDRESS, dbServiceImpl);
   }
 
 
   @Override
   public void stop() {
+    LocalServices.unregister(DB_SERVICE_ADDRESS, dbServiceImpl);
     binder.unregister(consumer);
   }
 
@@ -0,0 +1,224 @@
+package iudx.rs.proxy.databroker;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.vertx.core.json.JsonObject;
+import iudx.rs.proxy.common.HttpStatusCode;
+import iudx.rs.proxy.common.ResponseUrn;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Circuit breaker and adaptive concurrency limit per routing key, i.e. per adapter queue.
+ *
+ * <p>The breaker opens after <code>failureThreshold</code> consecutive failed calls (timeout, no
+ * reply, publish error) and rejects calls for <code>openStateMillis</code>. After that a single
+ * trial call is let through, its outcome closes or re-opens the breaker.
+ *
+ * <p>The concurrency limit follows AIMD: every successful call raises it by
+ * <code>1/limit</code>, so roughly by one per round of calls, every failed call halves it. Calls
+ * beyond the limit are rejected right away instead of waiting on an adapter that is already
+ * falling behind.
+ *
+ * <p>Used from the event loop of the databroker verticle only, state is not synchronized.
+ */
+public class AdapterGuard {
+
+  private static final Logger LOGGER = LogManager.getLogger(AdapterGuard.class);
+
+  enum State {
+    CLOSED, OPEN, HALF_OPEN
+  }
+
+  private final int failureThreshold;
+  private final long openStateMillis;
+  private final double initialLimit;
+  private final double minLimit;
+  private final double maxLimit;
+  private final Map<String, AdapterState> adapters = new ConcurrentHashMap<>();
+
+  private MeterRegistry registry;
+  private String instanceId;
+
+  /**
+   * @param config e.g. <code>{"failureThreshold": 5, "openStateMillis": 30000,
+   *     "initialLimit": 20, "minLimit": 1, "maxLimit": 200}</code>
+   */
+  public AdapterGuard(JsonObject config) {
+    this.failureThreshold = config.getInteger("failureThreshold", 5);
+    this.openStateMillis = config.getLong("openStateMillis", 30000L);
+    this.minLimit = config.getDouble("minLimit", 1d);
+    this.maxLimit = config.getDouble("maxLimit", 200d);
+    this.initialLimit =
+        Math.min(maxLimit, Math.max(minLimit, config.getDouble("initialLimit", 20d)));
+  }
+
+  /**
+   * export breaker state, limit, in-flight calls and rejections per routing key.
+   *
+   * @param registry meter registry, nothing is exported when null
+   * @param instanceId id of the owning verticle instance
+   */
+  public AdapterGuard bindMetrics(MeterRegistry registry, String instanceId) {
+    this.registry = registry;
+    this.instanceId = instanceId;
+    return this;
+  }
+
+  /**
+   * try to start a call to the adapter behind a routing key.
+   *
+   * @param routingKey routing key of the request
+   * @return permit to be released with the outcome of the call, null if the call is rejected
+   */
+  public Permit tryAcquire(String routingKey) {
+    AdapterState adapter = adapters.computeIfAbsent(routingKey, this::newState);
+    long now = System.currentTimeMillis();
+    if (adapter.state == State.OPEN) {
+      if (now - adapter.openedAt < openStateMillis) {
+        adapter.reject("open");
+        return null;
+      }
+      LOGGER.info("circuit half-open for routing key : {}", routingKey);
+      adapter.state = State.HALF_OPEN;
+      adapter.trialInFlight = false;
+    }
+    if (adapter.state == State.HALF_OPEN) {
+      if (adapter.trialInFlight) {
+        adapter.reject("open");
+        return null;
+      }
+      adapter.trialInFlight = true;
+    } else if (adapter.inFlight >= (int) adapter.limit) {
+      adapter.reject("limit");
+      return null;
+    }
+    adapter.inFlight++;
+    return new Permit(adapter);
+  }
+
+  /** failure sent back for a rejected call, same shape as the other databroker failures. */
+  public String rejection(String routingKey) {
+    AdapterState adapter = adapters.get(routingKey);
+    boolean open = adapter != null && adapter.state != State.CLOSED;
+    HttpStatusCode status =
+        open ? HttpStatusCode.SERVICE_UNAVAILABLE : HttpStatusCode.TOO_MANY_REQUESTS;
+    ResponseUrn urn =
+        open ? ResponseUrn.ADAPTER_UNAVAILABLE_URN : ResponseUrn.ADAPTER_OVERLOADED_URN;
+    return new JsonObject()
+        .put("type", urn.getUrn())
+        .put("title", urn.getMessage())
+        .put("statusCode", status.getValue())
+        .put("details", open
+            ? "adapter is not responding, request not sent"
+            : "too many requests in progress for the adapter, retry later")
+        .toString();
+  }
+
+  State state(String routingKey) {
+    AdapterState adapter = adapters.get(routingKey);
+    return adapter == null ? State.CLOSED : adapter.state;
+  }
+
+  double limit(String routingKey) {
+    AdapterState adapter = adapters.get(routingKey);
+    return adapter == null ? initialLimit : adapter.limit;
+  }
+
+  private AdapterState newState(String routingKey) {
+    AdapterState adapter = new AdapterState(routingKey, initialLimit);
+    if (registry != null) {
+      Gauge.builder("rs_proxy_adapter_breaker_state", adapter, a -> a.state.ordinal())
+          .description("0 closed, 1 open, 2 half-open")
+          .tag("routingKey", routingKey).tag("instance", instanceId)
+          .register(registry);
+      Gauge.builder("rs_proxy_adapter_concurrency_limit", adapter, a -> a.limit)
+          .tag("routingKey", routingKey).tag("instance", instanceId)
+          .register(registry);
+      Gauge.builder("rs_proxy_adapter_inflight", adapter, a -> a.inFlight)
+          .tag("routingKey", routingKey).tag("instance", instanceId)
+          .register(registry);
+      adapter.rejectedOpen = Counter.builder("rs_proxy_adapter_rejected")
+          .tag("routingKey", routingKey).tag("instance", instanceId).tag("reason", "open")
+          .register(registry);
+      adapter.rejectedLimit = Counter.builder("rs_proxy_adapter_rejected")
+          .tag("routingKey", routingKey).tag("instance", instanceId).tag("reason", "limit")
+          .register(registry);
+    }
+    return adapter;
+  }
+
+  /** an admitted call, must be released exactly once. */
+  public final class Permit {
+    private final AdapterState adapter;
+    private boolean released = false;
+
+    private Permit(AdapterState adapter) {
+      this.adapter = adapter;
+    }
+
+    /**
+     * @param success true if the adapter replied, whatever the status code of the reply
+     */
+    public void release(boolean success) {
+      if (released) {
+        return;
+      }
+      released = true;
+      adapter.inFlight--;
+      if (success) {
+        adapter.onSuccess();
+      } else {
+        adapter.onFailure();
+      }
+    }
+  }
+
+  private final class AdapterState {
+    final String routingKey;
+    volatile State state = State.CLOSED;
+    volatile double limit;
+    volatile int inFlight = 0;
+    int consecutiveFailures = 0;
+    long openedAt;
+    boolean trialInFlight;
+    Counter rejectedOpen;
+    Counter rejectedLimit;
+
+    AdapterState(String routingKey, double limit) {
+      this.routingKey = routingKey;
+      this.limit = limit;
+    }
+
+    void onSuccess() {
+      consecutiveFailures = 0;
+      if (state == State.HALF_OPEN) {
+        LOGGER.info("circuit closed for routing key : {}", routingKey);
+        state = State.CLOSED;
+      }
+      limit = Math.min(maxLimit, limit + 1 / limit);
+    }
+
+    void onFailure() {
+      consecutiveFailures++;
+      limit = Math.max(minLimit, limit / 2);
+      if (state == State.HALF_OPEN
+          || (state == State.CLOSED && consecutiveFailures >= failureThreshold)) {
+        LOGGER.warn("circuit opened for routing key : {} after {} failures", routingKey,
+            consecutiveFailures);
+        state = State.OPEN;
+        openedAt = System.currentTimeMillis();
+      }
+    }
+
+    void reject(String reason) {
+      Counter counter = "open".equals(reason) ? rejectedOpen : rejectedLimit;
+      if (counter != null) {
+        counter.increment();
+      }
+    }
+  }
+}
@@ -0,0 +1,39 @@
+package iudx.rs.proxy.databroker;
+
+import java.util.Map;
+
+/**
+ * Chunked adapter reply protocol on top of the correlation id RPC.
+ *
+ * <p>The proxy announces support with the <code>x-accept-chunked</code> request header. An adapter
+ * may then publish several replies with the same correlation id, each carrying
+ * <code>x-chunk-seq</code> (0, 1, 2, ...) and <code>x-chunk-last</code> (true on the final chunk).
+ * Every chunk body has the shape of a normal reply, its <code>results</code> being the next part of
+ * the result set. A reply without these headers is a single, final chunk.
+ *
+ * <p>Chunks are forwarded on the event bus with the same sequence number and last marker as
+ * delivery headers.
+ */
+public final class ChunkedReply {
+
+  public static final String ACCEPT_CHUNKED_HEADER = "x-accept-chunked";
+  public static final String SEQ_HEADER = "x-chunk-seq";
+  public static final String LAST_HEADER = "x-chunk-last";
+
+  private ChunkedReply() {}
+
+  /** sequence number of an AMQP reply, 0 for replies sent without chunk headers. */
+  public static int sequence(Map<String, Object> headers) {
+    Object seq = headers == null ? null : headers.get(SEQ_HEADER);
+    return seq == null ? 0 : Integer.parseInt(seq.toString());
+  }
+
+  /** whether an AMQP reply is the final chunk, replies without chunk headers always are. */
+  public static boolean isLast(Map<String, Object> headers) {
+    if (headers == null || !headers.containsKey(SEQ_HEADER)) {
+      return true;
+    }
+    Object last = headers.get(LAST_HEADER);
+    return last != null && Boolean.parseBoolean(last.toString());
+  }
+}
@@ -0,0 +1,143 @@
+package iudx.rs.proxy.databroker;
+
+import static iudx.rs.proxy.apiserver.util.ApiServerConstants.HEADER_PUBLIC_KEY;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Promise;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.function.UnaryOperator;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Single-flight wrapper around a {@link DatabrokerService}. Identical adapter queries arriving
+ * while one of them is still waiting for the adapter share that one RPC round trip, each caller
+ * gets its own copy of the reply, so a caller changing it does not affect the others.
+ * Authorization and metering stay with the caller since only the broker call is shared.
+ *
+ * <p>Queries are keyed on the query json with per-user fields removed and keys sorted. Queries
+ * carrying a public key are never shared, the adapter encrypts the results for that key.
+ */
+public class CoalescingDatabrokerService implements DatabrokerService {
+
+  private static final Logger LOGGER = LogManager.getLogger(CoalescingDatabrokerService.class);
+  static final String PPB_NUMBER = "ppbNumber";
+
+  private final DatabrokerService delegate;
+  private final Map<String, Future<JsonObject>> inFlight = new ConcurrentHashMap<>();
+  private final Map<String, Future<String>> inFlightRaw = new ConcurrentHashMap<>();
+  private final AtomicLong coalesced = new AtomicLong();
+
+  public CoalescingDatabrokerService(DatabrokerService delegate) {
+    this.delegate = delegate;
+  }
+
+  @Override
+  public DatabrokerService executeAdapterQuery(JsonObject request,
+      Handler<AsyncResult<JsonObject>> handler) {
+    delegate.executeAdapterQuery(request, handler);
+    return this;
+  }
+
+  @Override
+  public DatabrokerService executeAdapterQueryRPC(JsonObject request,
+      Handler<AsyncResult<JsonObject>> handler) {
+    singleFlight(inFlight, request, delegate::executeAdapterQueryRPC, JsonObject::copy, handler);
+    return this;
+  }
+
+  @Override
+  public DatabrokerService executeAdapterQueryRPCRaw(JsonObject request,
+      Handler<AsyncResult<String>> handler) {
+    singleFlight(inFlightRaw, request, delegate::executeAdapterQueryRPCRaw,
+        UnaryOperator.identity(), handler);
+    return this;
+  }
+
+  @Override
+  public DatabrokerService executeAdapterQueryStream(JsonObject request, String streamAddress,
+      Handler<AsyncResult<JsonObject>> handler) {
+    // chunks are delivered to one caller's address, streams are never shared.
+    delegate.executeAdapterQueryStream(request, streamAddress, handler);
+    return this;
+  }
+
+  private <T> void singleFlight(Map<String, Future<T>> inFlight, JsonObject request,
+      BiConsumer<JsonObject, Handler<AsyncResult<T>>> call, UnaryOperator<T> copy,
+      Handler<AsyncResult<T>> handler) {
+    String publicKey = request.getString(HEADER_PUBLIC_KEY);
+    if (publicKey != null && !publicKey.isBlank()) {
+      call.accept(request, handler);
+      return;
+    }
+
+    String key = coalescingKey(request);
+    Future<T> shared = inFlight.get(key);
+    if (shared != null) {
+      coalesced.incrementAndGet();
+      LOGGER.debug("joining in-flight adapter query : {}", key);
+      shared.map(copy).onComplete(handler);
+      return;
+    }
+
+    Promise<T> promise = Promise.promise();
+    inFlight.put(key, promise.future());
+    promise.future().onComplete(result -> inFlight.remove(key));
+    promise.future().map(copy).onComplete(handler);
+    call.accept(request, promise);
+  }
+
+  @Override
+  public DatabrokerService publishMessage(JsonObject body, String toExchange, String routingKey,
+      Handler<AsyncResult<JsonObject>> handler) {
+    delegate.publishMessage(body, toExchange, routingKey, handler);
+    return this;
+  }
+
+  @Override
+  public DatabrokerService publishMessageBatch(JsonArray bodies, String toExchange,
+      String routingKey, Handler<AsyncResult<JsonObject>> handler) {
+    delegate.publishMessageBatch(bodies, toExchange, routingKey, handler);
+    return this;
+  }
+
+  /** number of queries answered by joining an in-flight query instead of calling the adapter. */
+  public long coalescedCount() {
+    return coalesced.get();
+  }
+
+  int inFlightCount() {
+    return inFlight.size() + inFlightRaw.size();
+  }
+
+  /** key identifying identical queries, per-user fields removed and keys sorted. */
+  public static String coalescingKey(JsonObject request) {
+    JsonObject query = request.copy();
+    query.remove(HEADER_PUBLIC_KEY);
+    query.remove(PPB_NUMBER);
+    return new JsonObject(sorted(query.getMap())).encode();
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Map<String, Object> sorted(Map<String, Object> map) {
+    Map<String, Object> sorted = new TreeMap<>();
+    map.forEach((key, value) -> {
+      if (value instanceof Map) {
+        sorted.put(key, sorted((Map<String, Object>) value));
+      } else if (value instanceof JsonObject) {
+        sorted.put(key, sorted(((JsonObject) value).getMap()));
+      } else {
+        sorted.put(key, value);
+      }
+    });
+    return sorted;
+  }
+}
@@ -7,6 +7,7 @@ import io.vertx.codegen.annotations.VertxGen;
 import io.vertx.core.AsyncResult;
 import io.vertx.core.Handler;
 import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
 
 @ProxyGen
@@ -27,9 +28,38 @@ public interface DatabrokerService {
   DatabrokerService executeAdapterQueryRPC(JsonObject request,
       Handler<AsyncResult<JsonObject>> handler);
 
+  /**
+   * same as {@link #executeAdapterQueryRPC(JsonObject, Handler)} but hands back the adapter reply
+   * as received, so callers can forward the payload without decoding it.
+   */
+  @Fluent
+  DatabrokerService executeAdapterQueryRPCRaw(JsonObject request,
+      Handler<AsyncResult<String>> handler);
+
+  /**
+   * query an adapter that may answer in several chunks. Every chunk is sent to
+   * <code>streamAddress</code> on the event bus as it arrives, the next chunk is only taken from the
+   * broker once the previous one was replied to. The handler completes as soon as the query is
+   * published, so a stream may run longer than the event bus send timeout. A failure after that is
+   * sent to <code>streamAddress</code> with the delivery header <code>error</code> set to
+   * <code>true</code> and the failure message as body.
+   */
+  @Fluent
+  DatabrokerService executeAdapterQueryStream(JsonObject request, String streamAddress,
+      Handler<AsyncResult<JsonObject>> handler);
+
   @Fluent
   DatabrokerService publishMessage(JsonObject body, String toExchange,
                                    String routingKey,
                                    Handler<AsyncResult<JsonObject>> handler);
 
+  /**
+   * publish all bodies in one go on a channel in publisher confirm mode, the handler succeeds only
+   * once the broker confirmed every message of the batch.
+   */
+  @Fluent
+  DatabrokerService publishMessageBatch(JsonArray bodies, String toExchange,
+                                        String routingKey,
+                                        Handler<AsyncResult<JsonObject>> handler);
+
 }
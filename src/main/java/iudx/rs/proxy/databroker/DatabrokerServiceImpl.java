@@ -1,6 +1,7 @@
 package iudx.rs.proxy.databroker;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
@@ -12,14 +13,21 @@ import com.rabbitmq.client.AMQP;
 import com.rabbitmq.client.AMQP.Queue.DeclareOk;
 import com.rabbitmq.client.BasicProperties;
 import io.vertx.core.AsyncResult;
+import io.vertx.core.CompositeFuture;
 import io.vertx.core.Future;
 import io.vertx.core.Handler;
+import io.vertx.core.Promise;
 import io.vertx.core.Vertx;
 import io.vertx.core.buffer.Buffer;
+import io.vertx.core.eventbus.DeliveryOptions;
+import io.vertx.core.eventbus.ReplyException;
+import io.vertx.core.json.DecodeException;
+import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
 import io.vertx.rabbitmq.QueueOptions;
 import io.vertx.rabbitmq.RabbitMQClient;
 import io.vertx.rabbitmq.RabbitMQConsumer;
+import io.vertx.rabbitmq.RabbitMQMessage;
 import iudx.rs.proxy.common.ResponseUrn;
 
 import static iudx.rs.proxy.apiserver.util.ApiServerConstants.FAILED;
@@ -31,9 +39,18 @@ public class DatabrokerServiceImpl implements DatabrokerService {
 
   private static final Logger LOGGER = LogManager.getLogger(DatabrokerServiceImpl.class);
 
+  static final long CONFIRM_TIMEOUT_MILLIS = 5000;
+
   private final String replyQueue;
   private final String publishEx;
   private final Vertx vertx;
+  private final RabbitMQClientPool clientPool;
+  private final List<RpcReplyDispatcher> replyDispatchers;
+  private final RabbitMQClient confirmClient;
+  private final AdapterGuard adapterGuard;
+  private final RpcDeadlines deadlines;
+  private final PayloadCodec payloadCodec;
+  private Future<Void> confirmSelected;
   RabbitMQClient client;
 
   private final QueueOptions queueOption =
@@ -42,15 +59,51 @@ public class DatabrokerServiceImpl implements DatabrokerService {
           .setAutoAck(false)
           .setKeepMostRecent(true);
 
+  private final QueueOptions streamQueueOption =
+      new QueueOptions()
+          .setAutoAck(false);
+
 
   public DatabrokerServiceImpl(Vertx vertx, RabbitMQClient rabbitMQClient, final String publishEx,
       final String replyQueue) {
+    this(vertx, RabbitMQClientPool.of(rabbitMQClient), rabbitMQClient, publishEx, replyQueue,
+        List.of(), null, new RpcDeadlines(new JsonObject()), new PayloadCodec(new JsonObject()));
+  }
+
+  /**
+   * @param clientPool pool of connections/channels, requests are striped over it by routing key.
+   * @param confirmClient client whose channel is put in publisher confirm mode for batch
+   *        publishes, kept apart from the pool so confirms never wait on RPC traffic.
+   * @param replyDispatchers one dispatcher per stripe of the pool, when empty every RPC call
+   *        declares its own reply queue.
+   * @param adapterGuard circuit breaker and concurrency limit per routing key, may be null.
+   * @param deadlines time to wait for adapter replies per API and resource group.
+   * @param payloadCodec reply encodings announced to the adapters.
+   */
+  public DatabrokerServiceImpl(Vertx vertx, RabbitMQClientPool clientPool,
+      RabbitMQClient confirmClient, final String publishEx, final String replyQueue,
+      final List<RpcReplyDispatcher> replyDispatchers, final AdapterGuard adapterGuard,
+      final RpcDeadlines deadlines, final PayloadCodec payloadCodec) {
     this.vertx = vertx;
-    this.client = rabbitMQClient;
+    this.clientPool = clientPool;
+    this.confirmClient = confirmClient;
+    this.adapterGuard = adapterGuard;
+    this.deadlines = deadlines;
+    this.payloadCodec = payloadCodec;
+    this.client = clientPool.client(0);
     this.replyQueue = replyQueue;
     this.publishEx = publishEx;
+    this.replyDispatchers = replyDispatchers;
+
+    clientPool.clients().forEach(rmqClient -> rmqClient.basicQos(1));
+  }
 
-    client.basicQos(1);
+  static String timeoutFailure() {
+    JsonObject json = new JsonObject();
+    json.put("type", ResponseUrn.YET_NOT_IMPLEMENTED_URN.getUrn());
+    json.put("title", "request timed out");
+    json.put("details", "request taking more than allocated time, please contact admin");
+    return json.toString();
   }
 
   /**
@@ -69,10 +122,13 @@ public class DatabrokerServiceImpl implements DatabrokerService {
 
 
     final String corelationId = UUID.randomUUID().toString();
+    final long timeoutMillis = deadlines.timeoutFor(request);
     LOGGER.debug("corelationid : {}", corelationId);
     AMQP.BasicProperties props = new AMQP.BasicProperties.Builder()
         .correlationId(corelationId)
         .replyTo(replyQueue)
+        .headers(deadlineHeaders(new HashMap<>(), timeoutMillis))
+        .expiration(String.valueOf(timeoutMillis))
         .build();
 
     String routingKey = request.getJsonArray("id").getString(0);
@@ -87,7 +143,7 @@ public class DatabrokerServiceImpl implements DatabrokerService {
             // LOGGER.info("message consumed : {}", rabbitMQConsumerResult.result());
             RabbitMQConsumer rmqConsumer = rabbitMQConsumerResult.result();
 
-            long timerId = vertx.setTimer(5000, timeout -> {
+            long timerId = vertx.setTimer(timeoutMillis, timeout -> {
               LOGGER.info("max wait time elapsed for consumer, cancelling consumer");
               rmqConsumer.cancel();
 
@@ -158,10 +214,91 @@ public class DatabrokerServiceImpl implements DatabrokerService {
   @Override
   public DatabrokerService executeAdapterQueryRPC(JsonObject request,
       Handler<AsyncResult<JsonObject>> handler) {
+    executeRpc(request)
+        .compose(body -> {
+          try {
+            return Future.succeededFuture(new JsonObject(body));
+          } catch (DecodeException ex) {
+            LOGGER.error("adapter reply is not a valid json");
+            return Future.failedFuture("Failed to get the response");
+          }
+        })
+        .onComplete(handler);
+    return this;
+  }
+
+  @Override
+  public DatabrokerService executeAdapterQueryRPCRaw(JsonObject request,
+      Handler<AsyncResult<String>> handler) {
+    executeRpc(request).map(Buffer::toString).onComplete(handler);
+    return this;
+  }
+
+  private Future<Buffer> executeRpc(JsonObject request) {
+    String routingKey = getRoutingKey(request);
+    AdapterGuard.Permit permit = acquirePermit(routingKey);
+    if (adapterGuard != null && permit == null) {
+      LOGGER.warn("request rejected for routing key : {}", routingKey);
+      return Future.failedFuture(adapterGuard.rejection(routingKey));
+    }
+    long timeoutMillis = deadlines.timeoutFor(request);
+    int stripe = clientPool.stripeFor(routingKey);
+    clientPool.acquire(stripe);
+    // the in-flight slot is released exactly once even if a late reply races the timeout.
+    Promise<Buffer> promise = Promise.promise();
+    Handler<AsyncResult<Buffer>> releasingHandler = result -> {
+      if (result.succeeded()) {
+        promise.tryComplete(result.result());
+      } else {
+        promise.tryFail(result.cause());
+      }
+    };
+    if (!replyDispatchers.isEmpty()) {
+      executeOnSharedReplyQueue(request, routingKey, stripe, timeoutMillis, releasingHandler);
+    } else {
+      executeOnPerRequestQueue(request, routingKey, clientPool.client(stripe), timeoutMillis,
+          releasingHandler);
+    }
+    return promise.future().onComplete(result -> {
+      clientPool.release(stripe);
+      releasePermit(permit, result.succeeded());
+    });
+  }
+
+  /* absolute deadline for the adapter, the broker drops the request once it expires. */
+  private Map<String, Object> deadlineHeaders(Map<String, Object> headers, long timeoutMillis) {
+    headers.put(RpcDeadlines.DEADLINE_HEADER, System.currentTimeMillis() + timeoutMillis);
+    return headers;
+  }
+
+  private Future<Buffer> decodeReply(Buffer body, BasicProperties properties) {
+    try {
+      return Future.succeededFuture(PayloadCodec.toJson(body, properties.getContentType(),
+          properties.getContentEncoding()));
+    } catch (DecodeException e) {
+      LOGGER.error("undecodable adapter reply : {}", e.getMessage());
+      return Future.failedFuture("Failed to get the response");
+    }
+  }
+
+  private AdapterGuard.Permit acquirePermit(String routingKey) {
+    return adapterGuard == null ? null : adapterGuard.tryAcquire(routingKey);
+  }
+
+  private void releasePermit(AdapterGuard.Permit permit, boolean success) {
+    if (permit != null) {
+      permit.release(success);
+    }
+  }
+
+  private void executeOnPerRequestQueue(JsonObject request, String routingKey,
+      RabbitMQClient client, long timeoutMillis, Handler<AsyncResult<Buffer>> handler) {
     final String corelationId = UUID.randomUUID().toString();
     final String replyQueueName = UUID.randomUUID().toString();
     Map<String, Object> map = new HashMap<>();
     map.put(HEADER_PUBLIC_KEY,request.getValue(HEADER_PUBLIC_KEY));
+    deadlineHeaders(map, timeoutMillis);
+    payloadCodec.acceptHeaders(map);
     Future<DeclareOk> replyQueueDeclareFuture =
         client.queueDeclare(replyQueueName, false, true, true);
 
@@ -170,71 +307,251 @@ public class DatabrokerServiceImpl implements DatabrokerService {
         .correlationId(corelationId)
         .replyTo(replyQueueName)
         .headers(map)
+        .contentType(PayloadCodec.JSON)
+        .expiration(String.valueOf(timeoutMillis))
         .build();
     LOGGER.debug("queue declared : {}", replyQueueName);
-    String routingKey = request.containsKey("routingKey") ? request.getString("routingKey") :
-            request.getJsonArray("id").getString(0);
     LOGGER.debug("routing key : {}", routingKey);
     Buffer buffer = Buffer.buffer(request.toString());
     Future<Void> publishFut =client.basicPublish(publishEx, routingKey, props, buffer);
-
-    client.basicConsumer(replyQueueName, queueOption, rabbitMQConsumerResult -> {
-      if (rabbitMQConsumerResult.succeeded()) {
-        RabbitMQConsumer rmqConsumer = rabbitMQConsumerResult.result();
-
-        long timerId = vertx.setTimer(10000, timeout -> {
-          LOGGER.info("max wait time elapsed for consumer, cancelling consumer");
-          rmqConsumer.cancel();
-          JsonObject json = new JsonObject();
-          json.put("type", ResponseUrn.YET_NOT_IMPLEMENTED_URN.getUrn());
-          json.put("title", "request timed out");
-          json.put("details", "request taking more than allocated time, please contact admin");
-
-          handler.handle(Future.failedFuture(json.toString()));
-          return;
+    Future<RabbitMQConsumer> consumerFut = client.basicConsumer(replyQueueName, queueOption);
+
+    // the three calls are pipelined on the channel, any failure ends the request right away.
+    CompositeFuture.all(replyQueueDeclareFuture, publishFut, consumerFut)
+        .onFailure(failure -> {
+          LOGGER.error("rpc for correlationId : {} failed, {}", corelationId,
+              failure.getMessage());
+          handler.handle(Future.failedFuture("Failed to get the response"));
         });
 
-        rmqConsumer.handler(msg -> {
-          LOGGER.debug("Got message: " + msg);
-          BasicProperties properties = msg.properties();
-          String reply_correlationId = properties.getCorrelationId();
-          String replyQueue = properties.getReplyTo();
-          Long deliveryTag = msg.envelope().getDeliveryTag();
-          LOGGER.info("message consumed corerelationId: {}, replyQ : {}, deliveryTag : {} ",
-              reply_correlationId,
-              replyQueue,
-              deliveryTag);
-
-          Buffer body = msg.body();
-          if (body != null) {
-            JsonObject json = new JsonObject(msg.body());
-            LOGGER.debug("Got message: " + json);
-            if (reply_correlationId.equals(corelationId)) {
-              client.basicAck(deliveryTag, false, asyncResult -> {
-                LOGGER.info("[ACK] Response received for correlationId : {}, cancelling consumer",
-                    corelationId);
-                vertx.cancelTimer(timerId);
-                rmqConsumer.cancel();
-                handler.handle(Future.succeededFuture(json));
-              });
-            } else {
-              client.basicNack(deliveryTag, true, true, resultHandler -> {
-                LOGGER.info("[Nack] corelationId : {}", reply_correlationId);
-              });
-              handler.handle(Future.failedFuture("Failed to get the response"));
-            }
+    consumerFut.onSuccess(rmqConsumer -> {
+      // cancelling the consumer deletes the auto-delete reply queue, a late reply is unroutable
+      // and dropped by the broker.
+      long timerId = vertx.setTimer(timeoutMillis, timeout -> {
+        LOGGER.info("max wait time elapsed for consumer, cancelling consumer");
+        rmqConsumer.cancel();
+        handler.handle(Future.failedFuture(timeoutFailure()));
+      });
+      CompositeFuture.all(replyQueueDeclareFuture, publishFut).onFailure(failure -> {
+        vertx.cancelTimer(timerId);
+        rmqConsumer.cancel();
+      });
+
+      rmqConsumer.handler(msg -> {
+        LOGGER.debug("Got message: " + msg);
+        BasicProperties properties = msg.properties();
+        String reply_correlationId = properties.getCorrelationId();
+        String replyQueue = properties.getReplyTo();
+        Long deliveryTag = msg.envelope().getDeliveryTag();
+        LOGGER.info("message consumed corerelationId: {}, replyQ : {}, deliveryTag : {} ",
+            reply_correlationId,
+            replyQueue,
+            deliveryTag);
+
+        Buffer body = msg.body();
+        if (body != null) {
+          if (reply_correlationId.equals(corelationId)) {
+            client.basicAck(deliveryTag, false, asyncResult -> {
+              LOGGER.info("[ACK] Response received for correlationId : {}, cancelling consumer",
+                  corelationId);
+              vertx.cancelTimer(timerId);
+              rmqConsumer.cancel();
+              handler.handle(decodeReply(body, properties));
+            });
           } else {
-            LOGGER.info("Empty message received by adapter");
-            handler.handle(Future.failedFuture("Empty message received by adapter"));
+            client.basicNack(deliveryTag, true, true, resultHandler -> {
+              LOGGER.info("[Nack] corelationId : {}", reply_correlationId);
+            });
+            handler.handle(Future.failedFuture("Failed to get the response"));
           }
+        } else {
+          LOGGER.info("Empty message received by adapter");
+          handler.handle(Future.failedFuture("Empty message received by adapter"));
+        }
+      });
+    });
+  }
+
+  /**
+   * Publish the request with the reply queue of this verticle as 'reply_to', the reply is
+   * delivered back through the {@link RpcReplyDispatcher} using the correlation id.
+   */
+  private void executeOnSharedReplyQueue(JsonObject request, String routingKey, int stripe,
+      long timeoutMillis, Handler<AsyncResult<Buffer>> handler) {
+    RpcReplyDispatcher replyDispatcher = replyDispatchers.get(stripe);
+    final String corelationId = UUID.randomUUID().toString();
+    Map<String, Object> map = new HashMap<>();
+    map.put(HEADER_PUBLIC_KEY, request.getValue(HEADER_PUBLIC_KEY));
+    deadlineHeaders(map, timeoutMillis);
+    payloadCodec.acceptHeaders(map);
+    AMQP.BasicProperties props = new AMQP.BasicProperties.Builder()
+        .correlationId(corelationId)
+        .replyTo(replyDispatcher.getReplyQueue())
+        .headers(map)
+        .contentType(PayloadCodec.JSON)
+        .expiration(String.valueOf(timeoutMillis))
+        .build();
+    LOGGER.debug("corelationid : {}, routing key : {}", corelationId, routingKey);
+
+    Future<Buffer> replyFuture = replyDispatcher.expectReply(corelationId, timeoutMillis);
+    clientPool.client(stripe)
+        .basicPublish(publishEx, routingKey, props, Buffer.buffer(request.toString()))
+        .onFailure(publishFailure -> {
+          LOGGER.error("failed to publish request with cid : {}", corelationId, publishFailure);
+          replyDispatcher.cancel(corelationId, publishFailure);
         });
-      } else {
-        rabbitMQConsumerResult.cause().printStackTrace();
+    replyFuture.onComplete(handler);
+  }
+
+  /**
+   * Chunked replies always use a per-request reply queue with manual acks. The channel prefetch of
+   * 1 means the broker hands out the next chunk only after the previous one is acked, and a chunk
+   * is acked only once the event bus receiver replied, so a slow HTTP client slows down the
+   * consumption of its reply queue instead of filling the proxy memory.
+   */
+  @Override
+  public DatabrokerService executeAdapterQueryStream(JsonObject request, String streamAddress,
+      Handler<AsyncResult<JsonObject>> handler) {
+    String routingKey = getRoutingKey(request);
+    int stripe = clientPool.stripeFor(routingKey);
+    RabbitMQClient client = clientPool.client(stripe);
+    final String corelationId = UUID.randomUUID().toString();
+    final String replyQueueName = UUID.randomUUID().toString();
+    final long timeoutMillis = deadlines.timeoutFor(request);
+    Map<String, Object> map = new HashMap<>();
+    map.put(HEADER_PUBLIC_KEY, request.getValue(HEADER_PUBLIC_KEY));
+    map.put(ChunkedReply.ACCEPT_CHUNKED_HEADER, true);
+    deadlineHeaders(map, timeoutMillis);
+    payloadCodec.acceptHeaders(map);
+    AMQP.BasicProperties props = new AMQP.BasicProperties.Builder()
+        .correlationId(corelationId)
+        .replyTo(replyQueueName)
+        .headers(map)
+        .contentType(PayloadCodec.JSON)
+        .expiration(String.valueOf(timeoutMillis))
+        .build();
+    LOGGER.debug("corelationid : {}, routing key : {}, stream to : {}", corelationId, routingKey,
+        streamAddress);
+
+    AdapterGuard.Permit permit = acquirePermit(routingKey);
+    if (adapterGuard != null && permit == null) {
+      LOGGER.warn("stream rejected for routing key : {}", routingKey);
+      handler.handle(Future.failedFuture(adapterGuard.rejection(routingKey)));
+      return this;
+    }
+    clientPool.acquire(stripe);
+    Promise<JsonObject> started = Promise.promise();
+    started.future().onComplete(handler);
+    Promise<JsonObject> promise = Promise.promise();
+    promise.future().onComplete(result -> {
+      clientPool.release(stripe);
+      // a stream stopped by the receiving side is not held against the adapter.
+      releasePermit(permit, result.succeeded() || result.cause() instanceof ReplyException);
+      if (result.failed() && !started.tryFail(result.cause())) {
+        // the caller already got the start ack, the receiver learns about the failure instead.
+        vertx.eventBus().send(streamAddress, result.cause().getMessage(),
+            new DeliveryOptions().addHeader("error", "true"));
       }
     });
+
+    client.queueDeclare(replyQueueName, false, true, true)
+        .compose(declareOk -> client.basicConsumer(replyQueueName, streamQueueOption))
+        .onFailure(promise::tryFail)
+        .onSuccess(rmqConsumer -> {
+          ChunkForwarder forwarder =
+              new ChunkForwarder(client, rmqConsumer, corelationId, streamAddress,
+                  timeoutMillis, promise);
+          rmqConsumer.handler(forwarder::forward);
+          client.basicPublish(publishEx, routingKey, props, Buffer.buffer(request.toString()))
+              .onSuccess(published -> started.tryComplete(
+                  new JsonObject().put("streamAddress", streamAddress)))
+              .onFailure(forwarder::stop);
+        });
     return this;
   }
 
+  /* forwards the chunks of one streamed reply in order, acking each only after it was taken. */
+  private final class ChunkForwarder {
+    private final RabbitMQClient client;
+    private final RabbitMQConsumer consumer;
+    private final String corelationId;
+    private final String streamAddress;
+    private final long timeoutMillis;
+    private final Promise<JsonObject> promise;
+    private int expectedSeq = 0;
+    private long timerId;
+
+    ChunkForwarder(RabbitMQClient client, RabbitMQConsumer consumer, String corelationId,
+        String streamAddress, long timeoutMillis, Promise<JsonObject> promise) {
+      this.client = client;
+      this.consumer = consumer;
+      this.corelationId = corelationId;
+      this.streamAddress = streamAddress;
+      this.timeoutMillis = timeoutMillis;
+      this.promise = promise;
+      this.timerId = startIdleTimer();
+    }
+
+    void forward(RabbitMQMessage msg) {
+      vertx.cancelTimer(timerId);
+      long deliveryTag = msg.envelope().getDeliveryTag();
+      if (!corelationId.equals(msg.properties().getCorrelationId())) {
+        client.basicNack(deliveryTag, false, false);
+        timerId = startIdleTimer();
+        return;
+      }
+      Map<String, Object> headers = msg.properties().getHeaders();
+      int seq = ChunkedReply.sequence(headers);
+      boolean last = ChunkedReply.isLast(headers);
+      if (seq != expectedSeq) {
+        stop(new IllegalStateException("chunk " + seq + " received, expected " + expectedSeq));
+        return;
+      }
+      expectedSeq++;
+
+      DeliveryOptions options = new DeliveryOptions()
+          .setSendTimeout(timeoutMillis)
+          .addHeader("seq", String.valueOf(seq))
+          .addHeader("last", String.valueOf(last));
+      Buffer body = msg.body() == null ? Buffer.buffer() : msg.body();
+      decodeReply(body, msg.properties())
+          .compose(json -> vertx.eventBus().request(streamAddress, json.toString(), options))
+          .compose(taken -> client.basicAck(deliveryTag, false))
+          .onSuccess(acked -> {
+            if (last) {
+              LOGGER.info("[ACK] {} chunks streamed for correlationId : {}", expectedSeq,
+                  corelationId);
+              consumer.cancel();
+              promise.tryComplete(new JsonObject().put("chunks", expectedSeq));
+            } else {
+              timerId = startIdleTimer();
+            }
+          })
+          .onFailure(this::stop);
+    }
+
+    void stop(Throwable cause) {
+      LOGGER.error("stream for correlationId : {} stopped, {}", corelationId, cause.getMessage());
+      vertx.cancelTimer(timerId);
+      // cancelling the consumer deletes the auto-delete reply queue with any pending chunks.
+      consumer.cancel();
+      promise.tryFail(cause);
+    }
+
+    private long startIdleTimer() {
+      return vertx.setTimer(timeoutMillis, timeout -> {
+        LOGGER.info("max wait time elapsed for next chunk, correlationId : {}", corelationId);
+        consumer.cancel();
+        promise.tryFail(timeoutFailure());
+      });
+    }
+  }
+
+  private String getRoutingKey(JsonObject request) {
+    return request.containsKey("routingKey") ? request.getString("routingKey")
+        : request.getJsonArray("id").getString(0);
+  }
+
   @Override
   public DatabrokerService publishMessage(
       JsonObject request,
@@ -243,14 +560,18 @@ public class DatabrokerServiceImpl implements DatabrokerService {
       Handler<AsyncResult<JsonObject>> handler) {
 
     Buffer buffer = Buffer.buffer(request.toString());
+    int stripe = clientPool.stripeFor(routingKey);
+    RabbitMQClient client = clientPool.client(stripe);
 
     if (!client.isConnected()) client.start();
 
+    clientPool.acquire(stripe);
     client.basicPublish(
         toExchange,
         routingKey,
         buffer,
         publishHandler -> {
+          clientPool.release(stripe);
           if (publishHandler.succeeded()) {
             JsonObject result = new JsonObject().put("type", SUCCESS);
             handler.handle(Future.succeededFuture(result));
@@ -265,4 +586,54 @@ public class DatabrokerServiceImpl implements DatabrokerService {
         });
     return this;
   }
+
+  @Override
+  public DatabrokerService publishMessageBatch(
+      JsonArray bodies,
+      String toExchange,
+      String routingKey,
+      Handler<AsyncResult<JsonObject>> handler) {
+
+    if (!confirmClient.isConnected()) {
+      Response respBuilder =
+          new Response.Builder()
+              .withTitle(FAILED)
+              .withDetail("rabbitmq connection not available")
+              .build();
+      handler.handle(Future.failedFuture(respBuilder.toString()));
+      return this;
+    }
+
+    if (confirmSelected == null || confirmSelected.failed()) {
+      confirmSelected = confirmClient.confirmSelect();
+    }
+
+    confirmSelected
+        .compose(selected -> {
+          Future<Void> published = Future.succeededFuture();
+          for (int i = 0; i < bodies.size(); i++) {
+            Buffer buffer = Buffer.buffer(bodies.getJsonObject(i).toString());
+            published = published
+                .compose(previous -> confirmClient.basicPublish(toExchange, routingKey, buffer));
+          }
+          return published;
+        })
+        .compose(published -> confirmClient.waitForConfirms(CONFIRM_TIMEOUT_MILLIS))
+        .onComplete(confirmHandler -> {
+          if (confirmHandler.succeeded()) {
+            LOGGER.debug("batch of {} messages confirmed", bodies.size());
+            JsonObject result = new JsonObject().put("type", SUCCESS).put("count", bodies.size());
+            handler.handle(Future.succeededFuture(result));
+          } else {
+            LOGGER.error("batch publish not confirmed : {}", confirmHandler.cause().getMessage());
+            Response respBuilder =
+                new Response.Builder()
+                    .withTitle(FAILED)
+                    .withDetail(confirmHandler.cause().getLocalizedMessage())
+                    .build();
+            handler.handle(Future.failedFuture(respBuilder.toString()));
+          }
+        });
+    return this;
+  }
 }
@@ -4,12 +4,18 @@ import static iudx.rs.proxy.common.Constants.DATABROKER_SERVICE_ADDRESS;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import io.vertx.core.AbstractVerticle;
+import io.vertx.core.CompositeFuture;
+import io.vertx.core.Future;
 import io.vertx.core.eventbus.MessageConsumer;
 import io.vertx.core.json.JsonObject;
 import io.vertx.ext.web.client.WebClientOptions;
+import io.vertx.micrometer.backends.BackendRegistries;
 import io.vertx.rabbitmq.RabbitMQClient;
 import io.vertx.rabbitmq.RabbitMQOptions;
 import io.vertx.serviceproxy.ServiceBinder;
+import iudx.rs.proxy.common.LocalServices;
+import java.util.ArrayList;
+import java.util.List;
 
 public class DatabrokerVerticle extends AbstractVerticle {
 
@@ -32,13 +38,17 @@ public class DatabrokerVerticle extends AbstractVerticle {
 
   private String publishExchange;
   private String replyQueue;
+  private RpcMode rpcMode;
+  private int poolSize;
 
 
-  private RabbitMQClient rmqClient;
+  private RabbitMQClientPool rmqClientPool;
+  private RabbitMQClient confirmClient;
 
   private MessageConsumer<JsonObject> consumer;
   private ServiceBinder binder;
   private DatabrokerService brokerService;
+  private final List<RpcReplyDispatcher> replyDispatchers = new ArrayList<>();
 
   @Override
   public void start() throws Exception {
@@ -60,6 +70,8 @@ public class DatabrokerVerticle extends AbstractVerticle {
 
     publishExchange = config().getString("adapterQueryPublishExchange");
     replyQueue = config().getString("adapterQueryReplyQueue");
+    rpcMode = RpcMode.fromConfig(config().getString("adapterQueryRpcMode"));
+    poolSize = config().getInteger("rmqPoolSize", 1);
     /* Configure the RabbitMQ Data Broker client with input from config files. */
 
     config = new RabbitMQOptions();
@@ -82,25 +94,66 @@ public class DatabrokerVerticle extends AbstractVerticle {
     webConfig.setDefaultPort(dataBrokerManagementPort);
     webConfig.setKeepAliveTimeout(86400000);
 
-    rmqClient = RabbitMQClient.create(vertx, config);
+    rmqClientPool = RabbitMQClientPool.create(vertx, config, poolSize);
+    confirmClient = RabbitMQClient.create(vertx, new RabbitMQOptions(config));
 
-    rmqClient
+    rmqClientPool
         .start()
-        .onSuccess(rmqClientStarthandler -> {
-          brokerService = new DatabrokerServiceImpl(vertx, rmqClient, publishExchange, replyQueue);
+        .compose(rmqClientStarthandler -> confirmClient.start())
+        .compose(confirmClientStartHandler -> startReplyDispatchers())
+        .onSuccess(dispatcherHandler -> {
+          String instanceId = deploymentID() + "-" + Integer.toHexString(hashCode());
+          AdapterGuard adapterGuard = null;
+          if (config().containsKey("adapterGuard")) {
+            adapterGuard = new AdapterGuard(config().getJsonObject("adapterGuard"))
+                .bindMetrics(BackendRegistries.getDefaultNow(), instanceId);
+          }
+          RpcDeadlines deadlines =
+              new RpcDeadlines(config().getJsonObject("adapterDeadlines", new JsonObject()));
+          brokerService = new DatabrokerServiceImpl(vertx, rmqClientPool, confirmClient,
+              publishExchange, replyQueue, replyDispatchers, adapterGuard, deadlines,
+              new PayloadCodec(config().getJsonObject("adapterPayloadCodec", new JsonObject())));
+          rmqClientPool.bindMetrics(BackendRegistries.getDefaultNow(), instanceId);
 
           binder = new ServiceBinder(vertx);
           consumer = binder.setAddress(DATABROKER_SERVICE_ADDRESS).register(DatabrokerService.class,
               brokerService);
+          LocalServices.register(vertx, DATABROKER_SERVICE_ADDRESS, brokerService);
 
-          LOGGER.info("Databroker Verticle deployed.");
+          LOGGER.info("Databroker Verticle deployed with rpc mode : {}, channels : {}", rpcMode,
+              rmqClientPool.size());
         }).onFailure(rmqClientStartHandler -> {
           LOGGER.error("RMQ client startup failure failed, {}", rmqClientStartHandler);
         });
   }
 
+  /* one reply dispatcher per channel, replies must arrive on the channel the request used. */
+  private Future<Void> startReplyDispatchers() {
+    if (rpcMode == RpcMode.PER_REQUEST_QUEUE) {
+      return Future.succeededFuture();
+    }
+    List<Future> startFutures = new ArrayList<>();
+    for (int i = 0; i < rmqClientPool.size(); i++) {
+      RpcReplyDispatcher replyDispatcher = new RpcReplyDispatcher(vertx, rmqClientPool.client(i),
+          rpcMode == RpcMode.DIRECT_REPLY_TO);
+      replyDispatchers.add(replyDispatcher);
+      startFutures.add(replyDispatcher.start());
+    }
+    return CompositeFuture.all(startFutures).mapEmpty();
+  }
+
   @Override
   public void stop() {
-    binder.unregister(consumer);
+    if (binder != null) {
+      LocalServices.unregister(DATABROKER_SERVICE_ADDRESS, brokerService);
+      binder.unregister(consumer);
+    }
+    replyDispatchers.forEach(RpcReplyDispatcher::stop);
+    if (rmqClientPool != null) {
+      rmqClientPool.stop();
+    }
+    if (confirmClient != null) {
+      confirmClient.stop();
+    }
   }
 }
@@ -0,0 +1,206 @@
+package iudx.rs.proxy.databroker;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.DecodeException;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Content negotiation for adapter replies.
+ *
+ * <p>Requests announce what the proxy can read in the <code>x-accept</code> (content types) and
+ * <code>x-accept-encoding</code> (compressions) headers. An adapter may then send its reply as
+ * CBOR and/or gzip compressed, stating what it used in the AMQP <code>content_type</code> and
+ * <code>content_encoding</code> properties. Replies without these properties, or with a content
+ * type other than CBOR, are read as UTF-8 JSON like before.
+ *
+ * <p>Replies are turned back into JSON text right where they are received, with a streaming
+ * copy from the CBOR parser to a JSON generator, so everything past the databroker keeps working
+ * on JSON. Decoding stops with a {@link DecodeException} once the inflated reply or the JSON
+ * text grows past {@value #MAX_DECODED_BYTES} bytes, so a small compressed reply can not exhaust
+ * the heap.
+ */
+public class PayloadCodec {
+
+  public static final String ACCEPT_HEADER = "x-accept";
+  public static final String ACCEPT_ENCODING_HEADER = "x-accept-encoding";
+
+  public static final String JSON = "application/json";
+  public static final String CBOR = "application/cbor";
+  public static final String GZIP = "gzip";
+  static final String IDENTITY = "identity";
+  static final int MAX_DECODED_BYTES = 64 * 1024 * 1024;
+
+  private static final JsonFactory JSON_FACTORY = new JsonFactory();
+  private static final CBORFactory CBOR_FACTORY = new CBORFactory();
+
+  private final String accept;
+  private final String acceptEncoding;
+
+  /**
+   * @param config e.g. <code>{"accept": ["application/cbor"], "acceptEncoding": ["gzip"]}</code>,
+   *     JSON is always accepted, nothing is announced for an empty config.
+   */
+  public PayloadCodec(JsonObject config) {
+    this.accept = join(config.getJsonArray("accept", new JsonArray()));
+    this.acceptEncoding = join(config.getJsonArray("acceptEncoding", new JsonArray()));
+  }
+
+  /** add the accept headers to the headers of an outgoing request. */
+  public Map<String, Object> acceptHeaders(Map<String, Object> headers) {
+    if (accept != null) {
+      headers.put(ACCEPT_HEADER, accept + "," + JSON);
+    }
+    if (acceptEncoding != null) {
+      headers.put(ACCEPT_ENCODING_HEADER, acceptEncoding);
+    }
+    return headers;
+  }
+
+  /**
+   * decode a reply to JSON text.
+   *
+   * @param body reply as received from the broker
+   * @param contentType AMQP content type of the reply, may be null
+   * @param contentEncoding AMQP content encoding of the reply, may be null
+   * @return the reply as UTF-8 JSON, the body itself for plain JSON replies
+   * @throws DecodeException if the reply can not be decoded
+   */
+  public static Buffer toJson(Buffer body, String contentType, String contentEncoding) {
+    return toJson(body, contentType, contentEncoding, MAX_DECODED_BYTES);
+  }
+
+  static Buffer toJson(Buffer body, String contentType, String contentEncoding, int maxBytes) {
+    boolean gzip = isGzip(contentEncoding);
+    boolean cbor = contentType != null && contentType.startsWith(CBOR);
+    if (!gzip && !cbor) {
+      return body;
+    }
+    try (InputStream in = new LimitedInputStream(gzip
+        ? new GZIPInputStream(new ByteArrayInputStream(body.getBytes()))
+        : new ByteArrayInputStream(body.getBytes()), maxBytes)) {
+      if (!cbor) {
+        return Buffer.buffer(in.readAllBytes());
+      }
+      LimitedOutputStream out = new LimitedOutputStream(body.length() * 2, maxBytes);
+      try (JsonParser parser = CBOR_FACTORY.createParser(in);
+          JsonGenerator generator = JSON_FACTORY.createGenerator(out)) {
+        if (parser.nextToken() == null) {
+          throw new DecodeException("empty cbor reply");
+        }
+        generator.copyCurrentStructure(parser);
+      }
+      return Buffer.buffer(out.toByteArray());
+    } catch (IOException e) {
+      throw new DecodeException("failed to decode " + contentType + " reply : " + e.getMessage());
+    }
+  }
+
+  private static boolean isGzip(String contentEncoding) {
+    if (contentEncoding == null || contentEncoding.isEmpty()
+        || IDENTITY.equalsIgnoreCase(contentEncoding)) {
+      return false;
+    }
+    if (GZIP.equalsIgnoreCase(contentEncoding)) {
+      return true;
+    }
+    throw new DecodeException("unsupported content encoding : " + contentEncoding);
+  }
+
+  private static String join(JsonArray values) {
+    if (values.isEmpty()) {
+      return null;
+    }
+    StringBuilder joined = new StringBuilder();
+    for (int i = 0; i < values.size(); i++) {
+      if (i > 0) {
+        joined.append(',');
+      }
+      joined.append(values.getString(i));
+    }
+    return joined.toString();
+  }
+
+  private static IOException tooLarge(int maxBytes) {
+    return new IOException("decoded reply larger than " + maxBytes + " bytes");
+  }
+
+  private static final class LimitedInputStream extends FilterInputStream {
+    private final int maxBytes;
+    private long read;
+
+    LimitedInputStream(InputStream in, int maxBytes) {
+      super(in);
+      this.maxBytes = maxBytes;
+    }
+
+    @Override
+    public int read() throws IOException {
+      int b = super.read();
+      if (b >= 0) {
+        count(1);
+      }
+      return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+      int n = super.read(b, off, len);
+      if (n > 0) {
+        count(n);
+      }
+      return n;
+    }
+
+    private void count(int n) throws IOException {
+      read += n;
+      if (read > maxBytes) {
+        throw tooLarge(maxBytes);
+      }
+    }
+  }
+
+  private static final class LimitedOutputStream extends OutputStream {
+    private final ByteArrayOutputStream bytes;
+    private final int maxBytes;
+
+    LimitedOutputStream(int size, int maxBytes) {
+      this.bytes = new ByteArrayOutputStream(Math.min(size, maxBytes));
+      this.maxBytes = maxBytes;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+      ensure(1);
+      bytes.write(b);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+      ensure(len);
+      bytes.write(b, off, len);
+    }
+
+    byte[] toByteArray() {
+      return bytes.toByteArray();
+    }
+
+    private void ensure(int len) throws IOException {
+      if (bytes.size() + len > maxBytes) {
+        throw tooLarge(maxBytes);
+      }
+    }
+  }
+}
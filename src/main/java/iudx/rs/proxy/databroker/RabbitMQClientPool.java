@@ -0,0 +1,149 @@
+package iudx.rs.proxy.databroker;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.vertx.core.CompositeFuture;
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.rabbitmq.RabbitMQClient;
+import io.vertx.rabbitmq.RabbitMQOptions;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Fixed pool of RabbitMQ clients, each owning its own connection and channel. Work is striped
+ * across the pool by routing key, so a slow adapter or a flow-controlled channel only stalls the
+ * routing keys mapped to that channel instead of the whole proxy.
+ */
+public class RabbitMQClientPool {
+
+  private static final Logger LOGGER = LogManager.getLogger(RabbitMQClientPool.class);
+
+  private final List<RabbitMQClient> clients;
+  private final List<AtomicInteger> inFlight;
+
+  RabbitMQClientPool(List<RabbitMQClient> clients) {
+    if (clients.isEmpty()) {
+      throw new IllegalArgumentException("rabbitmq client pool can not be empty");
+    }
+    this.clients = Collections.unmodifiableList(new ArrayList<>(clients));
+    this.inFlight = new ArrayList<>(clients.size());
+    clients.forEach(client -> inFlight.add(new AtomicInteger()));
+  }
+
+  /**
+   * create a pool of <code>size</code> clients sharing the same options.
+   *
+   * @param vertx vertx instance
+   * @param options rabbitmq connection options
+   * @param size number of connections/channels in the pool, values below 1 are treated as 1
+   * @return pool, not yet started
+   */
+  public static RabbitMQClientPool create(Vertx vertx, RabbitMQOptions options, int size) {
+    List<RabbitMQClient> clients = new ArrayList<>();
+    for (int i = 0; i < Math.max(1, size); i++) {
+      clients.add(RabbitMQClient.create(vertx, new RabbitMQOptions(options)));
+    }
+    return new RabbitMQClientPool(clients);
+  }
+
+  /** wrap a single already created client, used where no pool is configured. */
+  public static RabbitMQClientPool of(RabbitMQClient client) {
+    return new RabbitMQClientPool(List.of(client));
+  }
+
+  public Future<Void> start() {
+    List<Future> startFutures = new ArrayList<>();
+    for (RabbitMQClient client : clients) {
+      startFutures.add(client.start());
+    }
+    return CompositeFuture.all(startFutures).mapEmpty();
+  }
+
+  public Future<Void> stop() {
+    List<Future> stopFutures = new ArrayList<>();
+    for (RabbitMQClient client : clients) {
+      stopFutures.add(client.stop());
+    }
+    return CompositeFuture.join(stopFutures).mapEmpty();
+  }
+
+  public int size() {
+    return clients.size();
+  }
+
+  /**
+   * stripe index for a routing key, the same key is always served by the same channel.
+   *
+   * @param routingKey routing key of the message
+   * @return index in range [0, size)
+   */
+  public int stripeFor(String routingKey) {
+    if (routingKey == null || clients.size() == 1) {
+      return 0;
+    }
+    return Math.floorMod(routingKey.hashCode(), clients.size());
+  }
+
+  public RabbitMQClient client(int stripe) {
+    return clients.get(stripe);
+  }
+
+  public List<RabbitMQClient> clients() {
+    return clients;
+  }
+
+  /** mark a message as in flight on the given stripe. */
+  public void acquire(int stripe) {
+    inFlight.get(stripe).incrementAndGet();
+  }
+
+  /** mark an in flight message of the given stripe as completed. */
+  public void release(int stripe) {
+    inFlight.get(stripe).decrementAndGet();
+  }
+
+  public int inFlight(int stripe) {
+    return inFlight.get(stripe).get();
+  }
+
+  /**
+   * a channel is unavailable while its connection or channel is closed or being recovered. This is
+   * not broker flow control, the vertx client does not report <code>connection.blocked</code>.
+   */
+  public boolean isUnavailable(int stripe) {
+    RabbitMQClient client = clients.get(stripe);
+    return !client.isConnected() || !client.isOpenChannel();
+  }
+
+  /**
+   * export in-flight and unavailable gauges for every channel of the pool.
+   *
+   * @param registry meter registry, nothing is registered when null
+   * @param poolId id distinguishing pools of different verticle instances
+   */
+  public void bindMetrics(MeterRegistry registry, String poolId) {
+    if (registry == null) {
+      LOGGER.debug("no meter registry available, rabbitmq pool metrics disabled");
+      return;
+    }
+    for (int i = 0; i < clients.size(); i++) {
+      final int stripe = i;
+      Gauge.builder("rs_proxy_rmq_channel_inflight", inFlight.get(stripe), AtomicInteger::get)
+          .description("messages published on the channel and not yet completed")
+          .tag("pool", poolId)
+          .tag("channel", String.valueOf(stripe))
+          .register(registry);
+      Gauge.builder("rs_proxy_rmq_channel_unavailable", this,
+              pool -> pool.isUnavailable(stripe) ? 1 : 0)
+          .description("1 while the connection or channel is closed or being recovered")
+          .tag("pool", poolId)
+          .tag("channel", String.valueOf(stripe))
+          .register(registry);
+    }
+  }
+}
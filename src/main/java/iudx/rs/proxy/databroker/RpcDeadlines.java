@@ -0,0 +1,120 @@
+package iudx.rs.proxy.databroker;
+
+import static iudx.rs.proxy.apiserver.util.ApiServerConstants.API;
+import static iudx.rs.proxy.apiserver.util.ApiServerConstants.IUDXQUERY_OPTIONS;
+import static iudx.rs.proxy.apiserver.util.ApiServerConstants.JSON_COUNT;
+import static iudx.rs.proxy.apiserver.util.ApiServerConstants.RESOURCE_GROUP;
+
+import io.vertx.core.json.JsonObject;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Time the proxy waits for an adapter reply, configured per API and per resource group.
+ *
+ * <pre>
+ * "adapterDeadlines": {
+ *   "defaultMillis": 10000,
+ *   "apis": { "search": 10000, "count": 5000, "asyncSearch": 5000, "asyncCount": 5000 },
+ *   "groups": {
+ *     "&lt;resource group id&gt;": { "defaultMillis": 30000, "apis": { "count": 10000 } }
+ *   }
+ * }
+ * </pre>
+ *
+ * <p>A request belongs to the group named in its <code>resourceGroup</code> field, which the api
+ * server fills from the catalogue. Path style ids without that field fall back to the group whose
+ * id is the longest prefix of the routing key. The most specific setting wins: group and API,
+ * group default, API, default.
+ *
+ * <p>The absolute deadline (epoch millis) travels with the request in the
+ * <code>x-deadline</code> header so an adapter can skip work the proxy has already given up on,
+ * the relative timeout is also set as the message expiration so requests still queued at the
+ * broker when it passes are dropped there.
+ */
+public class RpcDeadlines {
+
+  public static final String DEADLINE_HEADER = "x-deadline";
+  static final long DEFAULT_TIMEOUT_MILLIS = 10000;
+
+  static final String SEARCH = "search";
+  static final String COUNT = "count";
+  static final String ASYNC_SEARCH = "asyncSearch";
+  static final String ASYNC_COUNT = "asyncCount";
+
+  private static final String ASYNC_PATH = "/async/";
+
+  private final Timeouts defaults;
+  // reverse order so the first prefix match is the longest one.
+  private final TreeMap<String, Timeouts> groups = new TreeMap<>((a, b) -> b.compareTo(a));
+
+  public RpcDeadlines(JsonObject config) {
+    this.defaults = new Timeouts(config, DEFAULT_TIMEOUT_MILLIS);
+    JsonObject groupConfig = config.getJsonObject("groups", new JsonObject());
+    for (String group : groupConfig.fieldNames()) {
+      groups.put(group, new Timeouts(groupConfig.getJsonObject(group), -1));
+    }
+  }
+
+  /**
+   * @param request adapter request as sent by the api server
+   * @return time in millis to wait for the reply of the adapter
+   */
+  public long timeoutFor(JsonObject request) {
+    String api = apiOf(request);
+    Timeouts group = groups.get(request.getString(RESOURCE_GROUP, ""));
+    if (group == null) {
+      group = groupOf(routingKeyOf(request));
+    }
+    if (group != null) {
+      long millis = group.forApi(api);
+      if (millis > 0) {
+        return millis;
+      }
+    }
+    return defaults.forApi(api);
+  }
+
+  static String apiOf(JsonObject request) {
+    String path = request.getString(API);
+    boolean async = path != null && path.contains(ASYNC_PATH);
+    boolean count = JSON_COUNT.equalsIgnoreCase(request.getString(IUDXQUERY_OPTIONS));
+    if (async) {
+      return count ? ASYNC_COUNT : ASYNC_SEARCH;
+    }
+    return count ? COUNT : SEARCH;
+  }
+
+  private Timeouts groupOf(String routingKey) {
+    if (routingKey == null || groups.isEmpty()) {
+      return null;
+    }
+    for (Map.Entry<String, Timeouts> group : groups.tailMap(routingKey, true).entrySet()) {
+      if (routingKey.startsWith(group.getKey())) {
+        return group.getValue();
+      }
+    }
+    return null;
+  }
+
+  private static String routingKeyOf(JsonObject request) {
+    if (request.containsKey("routingKey")) {
+      return request.getString("routingKey");
+    }
+    return request.containsKey("id") ? request.getJsonArray("id").getString(0) : null;
+  }
+
+  private static final class Timeouts {
+    final long defaultMillis;
+    final JsonObject apis;
+
+    Timeouts(JsonObject config, long fallbackMillis) {
+      this.defaultMillis = config.getLong("defaultMillis", fallbackMillis);
+      this.apis = config.getJsonObject("apis", new JsonObject());
+    }
+
+    long forApi(String api) {
+      return apis.getLong(api, defaultMillis);
+    }
+  }
+}
@@ -0,0 +1,21 @@
+package iudx.rs.proxy.databroker;
+
+/**
+ * Reply transport used for adapter RPC calls, selected per deployment through the
+ * <code>adapterQueryRpcMode</code> key of the DatabrokerVerticle config.
+ */
+public enum RpcMode {
+  /** a fresh exclusive reply queue and consumer is created for every request (default). */
+  PER_REQUEST_QUEUE,
+  /** one long-lived exclusive reply queue per verticle, replies routed by correlation id. */
+  SHARED_REPLY_QUEUE,
+  /** RabbitMQ direct reply-to pseudo queue, replies skip queue declaration and persistence. */
+  DIRECT_REPLY_TO;
+
+  public static RpcMode fromConfig(String value) {
+    if (value == null || value.isBlank()) {
+      return PER_REQUEST_QUEUE;
+    }
+    return RpcMode.valueOf(value.trim().toUpperCase());
+  }
+}
@@ -0,0 +1,178 @@
+package iudx.rs.proxy.databroker;
+
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.DecodeException;
+import io.vertx.rabbitmq.QueueOptions;
+import io.vertx.rabbitmq.RabbitMQClient;
+import io.vertx.rabbitmq.RabbitMQConsumer;
+import io.vertx.rabbitmq.RabbitMQMessage;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Consumes adapter replies from one long-lived reply queue and hands every reply to the request
+ * waiting for it, using the AMQP correlation id as key. A request therefore costs one publish and
+ * one delivery instead of a queue declare, a consumer registration and a cancel.
+ *
+ * <p>In direct reply-to mode the RabbitMQ pseudo queue <code>amq.rabbitmq.reply-to</code> is
+ * consumed instead of a declared queue. The broker then routes replies straight to this channel,
+ * which works because requests are published on the same channel the reply consumer is on.
+ */
+public class RpcReplyDispatcher {
+
+  private static final Logger LOGGER = LogManager.getLogger(RpcReplyDispatcher.class);
+  private static final String REPLY_QUEUE_PREFIX = "rs-proxy-rpc-replies.";
+  static final String DIRECT_REPLY_TO_QUEUE = "amq.rabbitmq.reply-to";
+
+  private final Vertx vertx;
+  private final RabbitMQClient client;
+  private final boolean directReplyTo;
+  private final Map<String, PendingReply> pendingReplies = new ConcurrentHashMap<>();
+
+  // direct reply-to only accepts consumers in no-ack mode. The declared queue is exclusive to
+  // this consumer, so a reply nobody waits for could only be redelivered here; it is dropped.
+  private final QueueOptions replyQueueOptions = new QueueOptions().setAutoAck(true);
+
+  private String replyQueue;
+  private RabbitMQConsumer replyConsumer;
+  private long droppedReplies = 0;
+
+  public RpcReplyDispatcher(Vertx vertx, RabbitMQClient client) {
+    this(vertx, client, false);
+  }
+
+  public RpcReplyDispatcher(Vertx vertx, RabbitMQClient client, boolean directReplyTo) {
+    this.vertx = vertx;
+    this.client = client;
+    this.directReplyTo = directReplyTo;
+  }
+
+  /**
+   * declare the exclusive reply queue of this verticle instance (not needed for direct reply-to)
+   * and start consuming from it.
+   *
+   * @return future completed once replies can be received
+   */
+  public Future<Void> start() {
+    Future<String> replyQueueFuture;
+    if (directReplyTo) {
+      replyQueueFuture = Future.succeededFuture(DIRECT_REPLY_TO_QUEUE);
+    } else {
+      replyQueueFuture = client
+          .queueDeclare(REPLY_QUEUE_PREFIX + UUID.randomUUID(), false, true, true)
+          .map(declareOk -> declareOk.getQueue());
+    }
+    return replyQueueFuture
+        .compose(queueName -> {
+          replyQueue = queueName;
+          return client.basicConsumer(replyQueue, replyQueueOptions);
+        })
+        .onSuccess(consumer -> {
+          replyConsumer = consumer;
+          replyConsumer.handler(this::handleReply);
+          LOGGER.info("listening for adapter replies on queue : {}", replyQueue);
+        })
+        .mapEmpty();
+  }
+
+  public String getReplyQueue() {
+    return replyQueue;
+  }
+
+  /**
+   * register interest in the reply for a correlation id, must be called before the request is
+   * published so a fast reply can not overtake the registration.
+   *
+   * @param correlationId correlation id of the outgoing request
+   * @param timeoutMillis time after which the request is failed and a late reply is dropped
+   * @return future completed with the raw adapter reply
+   */
+  public Future<Buffer> expectReply(String correlationId, long timeoutMillis) {
+    Promise<Buffer> promise = Promise.promise();
+    long timerId = vertx.setTimer(timeoutMillis, timeout -> {
+      PendingReply expired = pendingReplies.remove(correlationId);
+      if (expired != null) {
+        LOGGER.info("max wait time elapsed for correlationId : {}", correlationId);
+        expired.promise.fail(DatabrokerServiceImpl.timeoutFailure());
+      }
+    });
+    pendingReplies.put(correlationId, new PendingReply(promise, timerId));
+    return promise.future();
+  }
+
+  /**
+   * stop waiting for a reply, e.g. when the request could not be published.
+   *
+   * @param correlationId correlation id of the request
+   * @param cause reason passed to the waiting caller
+   */
+  public void cancel(String correlationId, Throwable cause) {
+    PendingReply pending = pendingReplies.remove(correlationId);
+    if (pending != null) {
+      vertx.cancelTimer(pending.timerId);
+      pending.promise.fail(cause);
+    }
+  }
+
+  public int pendingCount() {
+    return pendingReplies.size();
+  }
+
+  /** replies dropped because nobody was waiting for them any more. */
+  public long droppedCount() {
+    return droppedReplies;
+  }
+
+  /** fail every outstanding request and stop consuming replies. */
+  public Future<Void> stop() {
+    pendingReplies.keySet().forEach(
+        correlationId -> cancel(correlationId, new IllegalStateException("databroker stopped")));
+    if (replyConsumer == null) {
+      return Future.succeededFuture();
+    }
+    return replyConsumer.cancel();
+  }
+
+  private void handleReply(RabbitMQMessage msg) {
+    String correlationId = msg.properties().getCorrelationId();
+    PendingReply pending = correlationId == null ? null : pendingReplies.remove(correlationId);
+    if (pending == null) {
+      // late replies are expected once adapters run past their deadline, the body is never read.
+      droppedReplies++;
+      LOGGER.debug("[DROP] reply for unknown or expired correlationId : {}", correlationId);
+      return;
+    }
+    vertx.cancelTimer(pending.timerId);
+
+    Buffer body = msg.body();
+    if (body == null || body.length() == 0) {
+      LOGGER.info("Empty message received by adapter");
+      pending.promise.fail("Empty message received by adapter");
+      return;
+    }
+    LOGGER.info("[ACK] Response received for correlationId : {}", correlationId);
+    try {
+      pending.promise.complete(PayloadCodec.toJson(body, msg.properties().getContentType(),
+          msg.properties().getContentEncoding()));
+    } catch (DecodeException e) {
+      LOGGER.error("undecodable reply for correlationId : {}, {}", correlationId, e.getMessage());
+      pending.promise.fail("Failed to get the response");
+    }
+  }
+
+  private static final class PendingReply {
+    final Promise<Buffer> promise;
+    final long timerId;
+
+    PendingReply(Promise<Buffer> promise, long timerId) {
+      this.promise = promise;
+      this.timerId = timerId;
+    }
+  }
+}
@@ -44,6 +44,7 @@ import io.vertx.micrometer.MicrometerMetricsOptions;
 import io.vertx.micrometer.VertxPrometheusOptions;
 import io.vertx.micrometer.backends.BackendRegistries;
 import io.vertx.spi.cluster.hazelcast.HazelcastClusterManager;
+import iudx.rs.proxy.common.LocalServices;
 
 /**
  * Deploys clustered vert.x instance of the server. As a JAR, the application
@@ -205,6 +206,8 @@ public class Deployer {
       return;
     }
     JsonObject configuration = new JsonObject(config);
+    // services deployed in this JVM are called directly instead of through the event bus
+    LocalServices.setEnabled(configuration.getBoolean("localServiceCalls", false));
     List<String> zookeepers = configuration.getJsonArray("zookeepers").getList();
     String clusterId = configuration.getString("clusterId");
     mgr = getClusterManager(host, zookeepers, clusterId);
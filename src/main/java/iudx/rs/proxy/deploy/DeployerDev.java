@@ -14,6 +14,7 @@ import io.vertx.core.cli.CommandLine;
 import io.vertx.core.cli.Option;
 import io.vertx.core.eventbus.EventBusOptions;
 import io.vertx.core.json.JsonObject;
+import iudx.rs.proxy.common.LocalServices;
 
 public class DeployerDev {
   private static final Logger LOGGER = LogManager.getLogger(DeployerDev.class);
@@ -56,6 +57,8 @@ public class DeployerDev {
       return;
     }
     JsonObject configuration = new JsonObject(config);
+    // services deployed in this JVM are called directly instead of through the event bus
+    LocalServices.setEnabled(configuration.getBoolean("localServiceCalls", false));
     Vertx vertx = Vertx.vertx(options);
     recursiveDeploy(vertx, configuration, 0);
   }
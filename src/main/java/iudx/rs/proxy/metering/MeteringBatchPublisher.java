@@ -0,0 +1,272 @@
+package iudx.rs.proxy.metering;
+
+import static iudx.rs.proxy.metering.util.Constants.EXCHANGE_NAME;
+import static iudx.rs.proxy.metering.util.Constants.ROUTING_KEY;
+
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.file.AsyncFile;
+import io.vertx.core.file.CopyOptions;
+import io.vertx.core.file.FileSystem;
+import io.vertx.core.file.OpenOptions;
+import io.vertx.core.json.DecodeException;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import iudx.rs.proxy.databroker.DatabrokerService;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Buffers audit records in memory and publishes them to the auditing exchange in confirmed
+ * batches, either when a batch is full or when the flush interval elapses.
+ *
+ * <p>Records that can not be handed to the broker (queue full, broker down, batch not confirmed)
+ * are appended as json lines to a local spill file. Once a batch was confirmed again the spill file
+ * is rotated and published in confirmed batches straight from the file. The file is only shortened
+ * by the records of confirmed batches and deleted once all of them are confirmed, so records are
+ * delivered at least once instead of being dropped, a crash while replaying may send a batch twice.
+ * The spill file belongs to one publisher, it is rotated and deleted without coordination.
+ */
+public class MeteringBatchPublisher {
+
+  private static final Logger LOGGER = LogManager.getLogger(MeteringBatchPublisher.class);
+  private static final String REPLAY_SUFFIX = ".replay";
+
+  private final Vertx vertx;
+  private final DatabrokerService rmqService;
+  private final int batchSize;
+  private final int capacity;
+  private final long flushIntervalMillis;
+  private final long replayIntervalMillis;
+  private final String spillFile;
+
+  private final Queue<JsonObject> queue = new ConcurrentLinkedQueue<>();
+  private final AtomicInteger queued = new AtomicInteger();
+  private final AtomicBoolean flushing = new AtomicBoolean();
+  private final AtomicBoolean replaying = new AtomicBoolean();
+
+  private volatile boolean brokerHealthy = true;
+  private AsyncFile spill;
+  private long flushTimerId = -1;
+  private long replayTimerId = -1;
+
+  public MeteringBatchPublisher(Vertx vertx, DatabrokerService rmqService, int batchSize,
+      int capacity, long flushIntervalMillis, long replayIntervalMillis, String spillFile) {
+    this.vertx = vertx;
+    this.rmqService = rmqService;
+    this.batchSize = Math.max(1, batchSize);
+    this.capacity = Math.max(this.batchSize, capacity);
+    this.flushIntervalMillis = flushIntervalMillis;
+    this.replayIntervalMillis = replayIntervalMillis;
+    this.spillFile = spillFile;
+  }
+
+  /**
+   * open the spill file and start the flush and replay timers.
+   *
+   * @return future completed once records can be accepted
+   */
+  public Future<Void> start() {
+    return openSpill()
+        .onSuccess(opened -> {
+          flushTimerId = vertx.setPeriodic(flushIntervalMillis, timer -> flush());
+          replayTimerId = vertx.setPeriodic(replayIntervalMillis, timer -> replay());
+          LOGGER.info("metering batch publisher started, batch size : {}, spill file : {}",
+              batchSize, spillFile);
+        });
+  }
+
+  /**
+   * accept a record for publishing, never blocks the caller.
+   *
+   * @param record audit record in the format expected by the auditing exchange
+   */
+  public void offer(JsonObject record) {
+    if (queued.incrementAndGet() > capacity) {
+      queued.decrementAndGet();
+      LOGGER.warn("metering queue full, spilling record to {}", spillFile);
+      spill(List.of(record));
+      return;
+    }
+    queue.offer(record);
+    if (queued.get() >= batchSize) {
+      vertx.runOnContext(full -> flush());
+    }
+  }
+
+  public int queued() {
+    return queued.get();
+  }
+
+  void flush() {
+    if (queued.get() == 0 || !flushing.compareAndSet(false, true)) {
+      return;
+    }
+    List<JsonObject> batch = drain(batchSize);
+    if (batch.isEmpty()) {
+      flushing.set(false);
+      return;
+    }
+    publish(batch).onComplete(published -> {
+      if (published.succeeded()) {
+        LOGGER.debug("published {} metering records", batch.size());
+        brokerHealthy = true;
+      } else {
+        LOGGER.error("failed to publish {} metering records, spilling to {} : {}",
+            batch.size(), spillFile, published.cause().getMessage());
+        brokerHealthy = false;
+        spill(batch);
+      }
+      flushing.set(false);
+      // keep draining while full batches are waiting instead of waiting for the next tick.
+      if (brokerHealthy && queued.get() >= batchSize) {
+        flush();
+      }
+    });
+  }
+
+  /*
+   * rotate the spill file and publish its records in confirmed batches, the replay file is kept
+   * until every batch of it is confirmed.
+   */
+  Future<Void> replay() {
+    if (!brokerHealthy || spill == null || !replaying.compareAndSet(false, true)) {
+      return Future.succeededFuture();
+    }
+    FileSystem fs = vertx.fileSystem();
+    String replayFile = spillFile + REPLAY_SUFFIX;
+    return fs.exists(replayFile)
+        .compose(pending -> pending ? Future.succeededFuture() : rotateSpill(replayFile))
+        .compose(rotated -> fs.exists(replayFile))
+        .compose(exists -> exists ? fs.readFile(replayFile) : Future.succeededFuture(null))
+        .compose(content -> {
+          if (content == null) {
+            return Future.succeededFuture();
+          }
+          List<JsonObject> records = new ArrayList<>();
+          for (String line : content.toString().split("\n")) {
+            if (line.isBlank()) {
+              continue;
+            }
+            try {
+              records.add(new JsonObject(line));
+            } catch (DecodeException e) {
+              LOGGER.error("skipping corrupt metering record in {} : {}", replayFile, line);
+            }
+          }
+          return replay(records, 0, replayFile)
+              .compose(replayed -> {
+                if (!records.isEmpty()) {
+                  LOGGER.info("replayed {} spilled metering records", records.size());
+                }
+                return fs.delete(replayFile);
+              });
+        })
+        .onFailure(failure -> LOGGER.error("metering replay failed : {}", failure.getMessage()))
+        .onComplete(done -> replaying.set(false))
+        .mapEmpty();
+  }
+
+  private Future<Void> replay(List<JsonObject> records, int from, String replayFile) {
+    if (from >= records.size()) {
+      return Future.succeededFuture();
+    }
+    List<JsonObject> batch = records.subList(from, Math.min(records.size(), from + batchSize));
+    return publish(batch)
+        .recover(failure -> {
+          brokerHealthy = false;
+          // drop the confirmed part so the next replay does not send it again
+          return from == 0
+              ? Future.failedFuture(failure)
+              : rewrite(replayFile, records.subList(from, records.size()))
+                  .compose(rewritten -> Future.failedFuture(failure));
+        })
+        .compose(published -> replay(records, from + batch.size(), replayFile));
+  }
+
+  /* replace the replay file through a move, a crash leaves either the old or the new content. */
+  private Future<Void> rewrite(String replayFile, List<JsonObject> records) {
+    String tempFile = replayFile + ".tmp";
+    return vertx.fileSystem().writeFile(tempFile, lines(records))
+        .compose(written -> vertx.fileSystem().move(tempFile, replayFile,
+            new CopyOptions().setReplaceExisting(true).setAtomicMove(true)));
+  }
+
+  private Future<Void> publish(List<JsonObject> batch) {
+    Promise<JsonObject> promise = Promise.promise();
+    rmqService.publishMessageBatch(new JsonArray(new ArrayList<>(batch)), EXCHANGE_NAME,
+        ROUTING_KEY, promise);
+    return promise.future().mapEmpty();
+  }
+
+  /** push everything still queued to the spill file and stop the timers. */
+  public Future<Void> stop() {
+    vertx.cancelTimer(flushTimerId);
+    vertx.cancelTimer(replayTimerId);
+    List<JsonObject> remaining = drain(Integer.MAX_VALUE);
+    if (spill == null) {
+      return Future.succeededFuture();
+    }
+    Promise<Void> promise = Promise.promise();
+    spill(remaining);
+    spill.flush().compose(flushed -> spill.close()).onComplete(promise);
+    return promise.future();
+  }
+
+  private List<JsonObject> drain(int max) {
+    List<JsonObject> batch = new ArrayList<>();
+    JsonObject record;
+    while (batch.size() < max && (record = queue.poll()) != null) {
+      queued.decrementAndGet();
+      batch.add(record);
+    }
+    return batch;
+  }
+
+  private void spill(List<JsonObject> records) {
+    if (spill == null || records.isEmpty()) {
+      if (!records.isEmpty()) {
+        LOGGER.error("[DROP] spill file not open, {} metering records lost", records.size());
+      }
+      return;
+    }
+    spill.write(lines(records));
+  }
+
+  private static Buffer lines(List<JsonObject> records) {
+    Buffer buffer = Buffer.buffer();
+    records.forEach(record -> buffer.appendString(record.encode()).appendString("\n"));
+    return buffer;
+  }
+
+  private Future<Void> openSpill() {
+    return vertx.fileSystem()
+        .open(spillFile, new OpenOptions().setAppend(true).setCreate(true))
+        .onSuccess(file -> spill = file)
+        .mapEmpty();
+  }
+
+  private Future<Void> rotateSpill(String replayFile) {
+    AsyncFile current = spill;
+    return vertx.fileSystem()
+        .props(spillFile)
+        .compose(props -> {
+          if (props.size() == 0) {
+            return Future.succeededFuture();
+          }
+          // new records go to a fresh file while the old one is replayed.
+          return current.flush()
+              .compose(flushed -> vertx.fileSystem().move(spillFile, replayFile))
+              .compose(moved -> openSpill())
+              .compose(opened -> current.close());
+        });
+  }
+}
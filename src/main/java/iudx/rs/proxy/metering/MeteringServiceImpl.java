@@ -10,6 +10,7 @@ import io.vertx.sqlclient.PoolOptions;
 import io.vertx.sqlclient.Row;
 import io.vertx.sqlclient.RowSet;
 import iudx.rs.proxy.common.Api;
+import iudx.rs.proxy.common.LocalServices;
 import iudx.rs.proxy.common.Response;
 import iudx.rs.proxy.database.DatabaseService;
 import iudx.rs.proxy.databroker.DatabrokerService;
@@ -55,8 +56,19 @@ public class MeteringServiceImpl implements MeteringService {
   private String databaseTableName;
   public static DatabaseService postgresService;
   private ResponseBuilder responseBuilder;
+  private final MeteringBatchPublisher batchPublisher;
 
   public MeteringServiceImpl(JsonObject propObj, Vertx vertxInstance, Api api) {
+    this(propObj, vertxInstance, api, null);
+  }
+
+  /**
+   * @param batchPublisher when set audit records are queued and published in confirmed batches,
+   *        otherwise every record is published on its own.
+   */
+  public MeteringServiceImpl(JsonObject propObj, Vertx vertxInstance, Api api,
+      MeteringBatchPublisher batchPublisher) {
+    this.batchPublisher = batchPublisher;
 
     if (propObj != null && !propObj.isEmpty()) {
       databaseIP = propObj.getString(DATABASE_IP);
@@ -82,9 +94,11 @@ public class MeteringServiceImpl implements MeteringService {
     this.poolOptions = new PoolOptions().setMaxSize(databasePoolSize);
     this.pool = PgPool.pool(vertxInstance, connectOptions, poolOptions);
     this.vertx = vertxInstance;
-    this.rmqService = DatabrokerService.createProxy(vertxInstance, DATABROKER_SERVICE_ADDRESS);
+    this.rmqService = LocalServices.createProxy(vertxInstance, DATABROKER_SERVICE_ADDRESS,
+        DatabrokerService.class, DatabrokerService::createProxy);
     if (postgresService==null)
-    postgresService = DatabaseService.createProxy(vertxInstance, DB_SERVICE_ADDRESS);
+    postgresService = LocalServices.createProxy(vertxInstance, DB_SERVICE_ADDRESS,
+        DatabaseService.class, DatabaseService::createProxy);
 
     _COUNT_COLUMN =
         COUNT_COLUMN.insert(0, "(" + databaseName + "." + databaseTableName + ".").toString();
@@ -220,6 +234,12 @@ public class MeteringServiceImpl implements MeteringService {
 
     JsonObject writeMessage = queryBuilder.buildMessageForRMQ(request);
 
+    if (batchPublisher != null) {
+      batchPublisher.offer(writeMessage);
+      handler.handle(Future.succeededFuture());
+      return this;
+    }
+
     rmqService.publishMessage(
         writeMessage,
         EXCHANGE_NAME,
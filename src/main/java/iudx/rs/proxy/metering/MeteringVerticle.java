@@ -1,25 +1,43 @@
 package iudx.rs.proxy.metering;
 
 import static iudx.rs.proxy.common.Constants.METERING_SERVICE_ADDRESS;
+import static iudx.rs.proxy.common.Constants.DATABROKER_SERVICE_ADDRESS;
+import static iudx.rs.proxy.metering.util.Constants.BATCH_ENABLED;
+import static iudx.rs.proxy.metering.util.Constants.BATCH_SIZE;
 import static iudx.rs.proxy.metering.util.Constants.DATABASE_IP;
 import static iudx.rs.proxy.metering.util.Constants.DATABASE_NAME;
 import static iudx.rs.proxy.metering.util.Constants.DATABASE_PASSWORD;
 import static iudx.rs.proxy.metering.util.Constants.DATABASE_PORT;
 import static iudx.rs.proxy.metering.util.Constants.DATABASE_TABLE_NAME;
 import static iudx.rs.proxy.metering.util.Constants.DATABASE_USERNAME;
+import static iudx.rs.proxy.metering.util.Constants.FLUSH_INTERVAL;
 import static iudx.rs.proxy.metering.util.Constants.POOL_SIZE;
+import static iudx.rs.proxy.metering.util.Constants.QUEUE_CAPACITY;
+import static iudx.rs.proxy.metering.util.Constants.REPLAY_INTERVAL;
+import static iudx.rs.proxy.metering.util.Constants.SPILL_DIRECTORY;
 
 import io.vertx.core.AbstractVerticle;
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
 import io.vertx.core.eventbus.MessageConsumer;
 import io.vertx.core.json.JsonObject;
 import io.vertx.serviceproxy.ServiceBinder;
 import iudx.rs.proxy.common.Api;
+import iudx.rs.proxy.common.LocalServices;
+import iudx.rs.proxy.databroker.DatabrokerService;
+import java.nio.file.Paths;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 public class MeteringVerticle extends AbstractVerticle {
 
   private static final Logger LOGGER = LogManager.getLogger(MeteringVerticle.class);
+  private static final String DEFAULT_SPILL_DIRECTORY =
+      Paths.get(System.getProperty("java.io.tmpdir"), "iudx-rs-proxy-metering").toString();
+  // spill file slots held by running instances, every instance spills to and replays its own file.
+  private static final Set<Integer> SPILL_SLOTS = ConcurrentHashMap.newKeySet();
   private String databaseIP;
   private int databasePort;
   private String databaseName;
@@ -31,9 +49,11 @@ public class MeteringVerticle extends AbstractVerticle {
   private MessageConsumer<JsonObject> consumer;
   private MeteringService metering;
   private Api api;
+  private MeteringBatchPublisher batchPublisher;
+  private int spillSlot = -1;
 
   @Override
-  public void start() throws Exception {
+  public void start(Promise<Void> startPromise) throws Exception {
 
     databaseIP = config().getString(DATABASE_IP);
     databasePort = config().getInteger(DATABASE_PORT);
@@ -52,15 +72,66 @@ public class MeteringVerticle extends AbstractVerticle {
     propObj.put(POOL_SIZE, poolSize);
     api = Api.getInstance(config().getString("dxApiBasePath"));
 
-    binder = new ServiceBinder(vertx);
-    metering = new MeteringServiceImpl(propObj, vertx, api);
-    consumer =
-        binder.setAddress(METERING_SERVICE_ADDRESS).register(MeteringService.class, metering);
-    LOGGER.info("Metering Verticle Started");
+    Future<Void> started = Future.succeededFuture();
+    if (config().getBoolean(BATCH_ENABLED, true)) {
+      String spillDirectory = Paths.get(config().getString(SPILL_DIRECTORY,
+          DEFAULT_SPILL_DIRECTORY)).toAbsolutePath().toString();
+      spillSlot = claimSpillSlot();
+      batchPublisher =
+          new MeteringBatchPublisher(
+              vertx,
+              LocalServices.createProxy(vertx, DATABROKER_SERVICE_ADDRESS,
+                  DatabrokerService.class, DatabrokerService::createProxy),
+              config().getInteger(BATCH_SIZE, 100),
+              config().getInteger(QUEUE_CAPACITY, 10000),
+              config().getLong(FLUSH_INTERVAL, 1000L),
+              config().getLong(REPLAY_INTERVAL, 30000L),
+              Paths.get(spillDirectory, "metering-spill-" + spillSlot + ".log").toString());
+      started = vertx.fileSystem().mkdirs(spillDirectory)
+          .compose(created -> batchPublisher.start());
+    }
+
+    started
+        .onSuccess(ready -> {
+          binder = new ServiceBinder(vertx);
+          metering = new MeteringServiceImpl(propObj, vertx, api, batchPublisher);
+          consumer = binder.setAddress(METERING_SERVICE_ADDRESS)
+              .register(MeteringService.class, metering);
+          LocalServices.register(vertx, METERING_SERVICE_ADDRESS, metering);
+          LOGGER.info("Metering Verticle Started");
+          startPromise.complete();
+        })
+        .onFailure(failure -> {
+          LOGGER.error("metering batch publisher failed to start : {}", failure.getMessage());
+          SPILL_SLOTS.remove(spillSlot);
+          startPromise.fail(failure);
+        });
   }
 
   @Override
-  public void stop() {
-    binder.unregister(consumer);
+  public void stop(Promise<Void> stopPromise) {
+    if (binder != null) {
+      LocalServices.unregister(METERING_SERVICE_ADDRESS, metering);
+      binder.unregister(consumer);
+    }
+    if (batchPublisher == null) {
+      stopPromise.complete();
+      return;
+    }
+    batchPublisher.stop()
+        .onComplete(stopped -> SPILL_SLOTS.remove(spillSlot))
+        .onComplete(stopPromise);
+  }
+
+  /*
+   * lowest slot no running instance holds, so a restart with the same number of instances picks up
+   * the spill files the previous run left behind.
+   */
+  private static int claimSpillSlot() {
+    int slot = 0;
+    while (!SPILL_SLOTS.add(slot)) {
+      slot++;
+    }
+    return slot;
   }
 }
@@ -29,6 +29,12 @@ public class Constants {
   public static final String DATABASE_PASSWORD = "meteringDatabasePassword";
   public static final String DATABASE_TABLE_NAME = "meteringDatabaseTableName";
   public static final String POOL_SIZE = "meteringPoolSize";
+  public static final String BATCH_SIZE = "meteringBatchSize";
+  public static final String QUEUE_CAPACITY = "meteringQueueCapacity";
+  public static final String FLUSH_INTERVAL = "meteringFlushIntervalMillis";
+  public static final String REPLAY_INTERVAL = "meteringReplayIntervalMillis";
+  public static final String BATCH_ENABLED = "meteringBatchEnabled";
+  public static final String SPILL_DIRECTORY = "meteringSpillDirectory";
 
 
   /* Errors */
@@ -4,6 +4,7 @@ import io.vertx.core.AbstractVerticle;
 import io.vertx.core.eventbus.MessageConsumer;
 import io.vertx.core.json.JsonObject;
 import io.vertx.serviceproxy.ServiceBinder;
+import iudx.rs.proxy.common.LocalServices;
 import iudx.rs.proxy.metering.MeteringService;
 import iudx.rs.proxy.optional.consentlogs.dss.PayloadSigningManager;
 import org.apache.logging.log4j.LogManager;
@@ -28,17 +29,20 @@ public class ConsentLoggingVerticle extends AbstractVerticle {
         password = config().getString("password");
         binder = new ServiceBinder(vertx);
 
-        meteringService = MeteringService.createProxy(vertx, METERING_SERVICE_ADDRESS);
+        meteringService = LocalServices.createProxy(vertx, METERING_SERVICE_ADDRESS,
+                MeteringService.class, MeteringService::createProxy);
         payloadSigningManager = PayloadSigningManager.init(config());
         consentLoggingService = new ConsentLoggingServiceImpl(vertx, payloadSigningManager, meteringService, config());
         consumer =
                 binder.setAddress(CONSEENTLOG_SERVICE_ADDRESS).register(ConsentLoggingService.class, consentLoggingService);
+        LocalServices.register(vertx, CONSEENTLOG_SERVICE_ADDRESS, consentLoggingService);
 
         LOGGER.info("ConsentLogging Vertical deployed.");
     }
 
     @Override
     public void stop() {
+        LocalServices.unregister(CONSEENTLOG_SERVICE_ADDRESS, consentLoggingService);
         binder.unregister(consumer);
     }
 
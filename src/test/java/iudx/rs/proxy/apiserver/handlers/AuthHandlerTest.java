@@ -6,6 +6,7 @@ import io.vertx.core.http.HttpServerRequest;
 import io.vertx.core.http.HttpServerResponse;
 import io.vertx.core.json.JsonObject;
 import io.vertx.ext.web.RequestBody;
+import io.vertx.ext.web.Route;
 import io.vertx.ext.web.RoutingContext;
 import io.vertx.junit5.VertxExtension;
 import io.vertx.junit5.VertxTestContext;
@@ -17,6 +18,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.invocation.InvocationOnMock;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -55,6 +57,8 @@ class AuthHandlerTest {
     JsonObject jsonObject;
     @Mock
     RequestBody requestBody;
+    @Mock
+    Route route;
 
     @BeforeEach
     public void setUp(VertxTestContext vertxTestContext) {
@@ -66,6 +70,12 @@ class AuthHandlerTest {
         jsonObject.put("EXPIRY", "Dummy EXPIRY");
         lenient().when(httpServerRequest.method()).thenReturn(httpMethod);
         lenient().when(httpMethod.toString()).thenReturn("GET");
+        lenient().when(httpMethod.name()).thenReturn("GET");
+        lenient().when(routingContext.currentRoute()).thenReturn(route);
+        lenient().when(route.getMetadata(AuthHandler.ROUTE_ENDPOINT))
+            .thenReturn("/ngsi-ld/v1/entities");
+        lenient().when(route.getMetadata(AuthHandler.ROUTE_ID_SOURCE))
+            .thenReturn(AuthHandler.IdSource.QUERY);
         lenient().when(routingContext.request()).thenReturn(httpServerRequest);
 
         vertxTestContext.completeNow();
@@ -93,7 +103,6 @@ class AuthHandlerTest {
         when(asyncResult.succeeded()).thenReturn(true);
         when(asyncResult.result()).thenReturn(jsonObject);
 
-        when(AuthHandler.api.getEntitiesEndpoint()).thenReturn("/ngsi-ld/v1/entities");
 
 
         doAnswer(new Answer<AsyncResult<JsonObject>>() {
@@ -109,7 +118,10 @@ class AuthHandlerTest {
         assertEquals("/ngsi-ld/v1/entities", routingContext.request().path());
         assertEquals("Dummy Token", routingContext.request().headers().get(ApiServerConstants.HEADER_TOKEN));
         assertEquals("GET", routingContext.request().method().toString());
-        verify(AuthHandler.authenticator, times(1)).tokenIntrospect(any(), any(), any(), any());
+        ArgumentCaptor<JsonObject> authInfo = ArgumentCaptor.forClass(JsonObject.class);
+        verify(AuthHandler.authenticator, times(1)).tokenIntrospect(any(), authInfo.capture(), any(), any());
+        assertEquals("/ngsi-ld/v1/entities", authInfo.getValue().getString(ApiServerConstants.API_ENDPOINT));
+        assertEquals("GET", authInfo.getValue().getString(ApiServerConstants.API_METHOD));
         verify(routingContext, times(2)).body();
 
         vertxTestContext.completeNow();
@@ -140,7 +152,6 @@ class AuthHandlerTest {
         when(httpServerResponse.end(anyString())).thenReturn(voidFuture);
         when(asyncResult.succeeded()).thenReturn(false);
 
-        when(AuthHandler.api.getEntitiesEndpoint()).thenReturn("/ngsi-ld/v1/entities");
 
         doAnswer((Answer<AsyncResult<JsonObject>>) arg0 -> {
             ((Handler<AsyncResult<JsonObject>>) arg0.getArgument(3)).handle(asyncResult);
@@ -190,7 +201,6 @@ class AuthHandlerTest {
         when(httpServerResponse.setStatusCode(anyInt())).thenReturn(httpServerResponse);
         when(httpServerResponse.end(anyString())).thenReturn(voidFuture);
         when(asyncResult.succeeded()).thenReturn(false);
-        when(AuthHandler.api.getEntitiesEndpoint()).thenReturn("/ngsi-ld/v1/entities");
 
         doAnswer(new Answer<AsyncResult<JwtData>>() {
             @Override
@@ -0,0 +1,57 @@
+package iudx.rs.proxy.apiserver.query;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.vertx.core.MultiMap;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class ParsedQueryTest {
+
+  private static final String ID = "b58da193-23d9-43eb-b98a-a103d4b6103c";
+
+  @Test
+  @DisplayName("plus sign in a value is kept")
+  public void testPlusKept() {
+    ParsedQuery query = ParsedQuery.parse(
+        "/ngsi-ld/v1/temporal/entities?id=" + ID + "&timerel=after&time=2020-10-10T14:20:00+05:30");
+    assertEquals("2020-10-10T14:20:00+05:30", query.get("time"));
+    assertEquals(ID, query.get("ID"));
+    assertTrue(query.hasOnlyKnownParams());
+  }
+
+  @Test
+  @DisplayName("unknown parameter is flagged")
+  public void testUnknownParam() {
+    ParsedQuery query = ParsedQuery.parse("/ngsi-ld/v1/entities?id=" + ID + "&foo=bar");
+    assertFalse(query.hasOnlyKnownParams());
+    assertTrue(query.contains("foo"));
+  }
+
+  @Test
+  @DisplayName("malformed encoding fails parsing")
+  public void testMalformedEncoding() {
+    assertThrows(IllegalArgumentException.class,
+        () -> ParsedQuery.parse("/ngsi-ld/v1/entities?id=%zz"));
+  }
+
+  @Test
+  @DisplayName("copies do not change the parsed query")
+  public void testCopyParams() {
+    ParsedQuery query = ParsedQuery.parse("/ngsi-ld/v1/entities?id=" + ID);
+    MultiMap copy = query.copyParams();
+    copy.set("id", "other");
+    assertEquals(ID, query.get("id"));
+  }
+
+  @Test
+  @DisplayName("typed query built once")
+  public void testNgsildQueryParams() {
+    ParsedQuery query = ParsedQuery.parse(
+        "/ngsi-ld/v1/entities?id=" + ID + "&attrs=a,b&georel=near;maxDistance=10");
+    NGSILDQueryParams params = query.ngsildQueryParams();
+    assertSame(params, query.ngsildQueryParams());
+    assertEquals(2, params.getAttrs().size());
+    assertEquals(10.0, params.getGeoRel().getMaxDistance());
+  }
+}
@@ -0,0 +1,56 @@
+package iudx.rs.proxy.apiserver.response;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import io.vertx.core.json.DecodeException;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import iudx.rs.proxy.common.ResponseUrn;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class RawAdapterResponseTest {
+
+  @Test
+  @DisplayName("pass-through response equals the response built from the decoded reply")
+  void testSameAsDecoded() {
+    JsonObject adapterReply = new JsonObject()
+        .put("statusCode", 200)
+        .put("results", new JsonArray()
+            .add(new JsonObject().put("id", "a/b/c").put("value", 1.5).put("tags", new JsonArray().add("x")))
+            .add(new JsonObject().put("id", "a/b/d").put("name", "with \"quotes\" and , [brackets]")))
+        .put("totalHits", 2)
+        .put("limit", "5000")
+        .put("offset", 0);
+
+    RawAdapterResponse response = RawAdapterResponse.parse(adapterReply.encode());
+
+    JsonObject expected = new JsonObject()
+        .put("type", ResponseUrn.SUCCESS_URN.getUrn())
+        .put("title", ResponseUrn.SUCCESS_URN.getMessage())
+        .put("results", adapterReply.getValue("results"))
+        .put("totalHits", 2)
+        .put("limit", "5000")
+        .put("offset", 0);
+    assertEquals(200, response.getStatusCode());
+    assertEquals(expected, new JsonObject(response.toUserResponse()));
+  }
+
+  @Test
+  @DisplayName("failure details are read from the envelope")
+  void testFailureEnvelope() {
+    RawAdapterResponse response = RawAdapterResponse.parse(
+        "{\"statusCode\":404,\"type\":\"urn:dx:rs:resourceNotFound\",\"details\":\"not found\"}");
+
+    assertEquals(404, response.getStatusCode());
+    assertEquals("not found", response.getDetails());
+  }
+
+  @Test
+  @DisplayName("reply that is not a json object is rejected")
+  void testInvalidReply() {
+    assertThrows(DecodeException.class, () -> RawAdapterResponse.parse("[1,2]"));
+    assertThrows(DecodeException.class, () -> RawAdapterResponse.parse("{\"results\": [1,"));
+  }
+}
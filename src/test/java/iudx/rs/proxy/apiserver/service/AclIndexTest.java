@@ -0,0 +1,46 @@
+package iudx.rs.proxy.apiserver.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class AclIndexTest {
+
+  private static final String GROUP = "datakaveri.org/04a15c9960ffda227e9546f3f46e629e1fe4132b/"
+      + "rs.iudx.io/pune-env-flood";
+
+  private static JsonArray snapshot() {
+    return new JsonArray()
+        .add(new JsonObject().put("id", GROUP).put("type", "ResourceGroup")
+            .put("accessPolicy", "SECURE"))
+        .add(new JsonObject().put("id", GROUP + "/FWR053").put("type", "Resource")
+            .put("resourceGroup", GROUP))
+        .add(new JsonObject().put("id", GROUP + "/FWR054").put("type", "Resource")
+            .put("resourceGroup", GROUP).put("accessPolicy", "OPEN"))
+        .add(new JsonObject().put("id", "provider").put("type", "Provider"));
+  }
+
+  @Test
+  @DisplayName("resource without a policy takes its group's")
+  public void testGroupPolicyInherited() {
+    AclIndex index = AclIndex.of(snapshot());
+    assertEquals("SECURE", index.policyOf(GROUP + "/FWR053"));
+    assertEquals("OPEN", index.policyOf(GROUP + "/FWR054"));
+    assertEquals("SECURE", index.policyOf(GROUP));
+    assertEquals("SECURE", index.groupPolicyOf(GROUP));
+  }
+
+  @Test
+  @DisplayName("items without a policy or unknown ids are not indexed")
+  public void testUnknown() {
+    AclIndex index = AclIndex.of(snapshot());
+    assertNull(index.policyOf("provider"));
+    assertNull(index.policyOf("unknown"));
+    assertNull(index.policyOf(null));
+    assertNull(index.groupPolicyOf(GROUP + "/FWR053"));
+    assertEquals(3, index.size());
+  }
+}
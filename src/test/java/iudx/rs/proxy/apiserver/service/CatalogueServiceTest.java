@@ -25,8 +25,15 @@ import java.util.ArrayList;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
 //@Disabled
@@ -41,6 +48,8 @@ public class CatalogueServiceTest {
     CatalogueService catalogueServiceSpy;
 
 
+    @Mock
+    WebClient webClient;
     @Mock
     HttpRequest<Buffer> httpRequest;
     @Mock
@@ -74,14 +83,12 @@ public class CatalogueServiceTest {
         jsonObject1.put("authControlGroup","authControlGroup");
         jsonArray.add(jsonObject1);
         jsonObject.put("results", jsonArray);
-        CatalogueService.catWebClient = mock(WebClient.class);
-
-        when(CatalogueService.catWebClient.get(anyInt(),anyString(),anyString())).thenReturn(httpRequest);
+        when(webClient.get(anyInt(),anyString(),anyString())).thenReturn(httpRequest);
         when(httpRequest.addQueryParam(anyString(),anyString())).thenReturn(httpRequest);
         when(httpRequest.expect(any())).thenReturn(httpRequest);
         when(asyncResult.succeeded()).thenReturn(true);
         when(asyncResult.result()).thenReturn(httpResponse);
-        when(httpResponse.bodyAsJsonObject()).thenReturn(jsonObject);
+        when(httpResponse.bodyAsJsonObject()).thenAnswer(invocation -> jsonObject.copy());
         doAnswer(new Answer<AsyncResult<HttpResponse<Buffer>>>() {
             @Override
             public AsyncResult<HttpResponse<Buffer>> answer(InvocationOnMock arg0) throws Throwable {
@@ -90,7 +97,7 @@ public class CatalogueServiceTest {
                 return null;
             }
         }).when(httpRequest).send(any());
-        catalogueService = new CatalogueService(vertxObj,config);
+        catalogueService = new CatalogueService(vertxObj,config,webClient);
         catalogueServiceSpy= Mockito.spy(catalogueService);
 
         vertxTestContext.completeNow();
@@ -112,10 +119,43 @@ public class CatalogueServiceTest {
                 vertxTestContext.failNow(handler.cause());
             }
         });
-        verify(CatalogueService.catWebClient,times(1)).get(anyInt(),anyString(),anyString());
+        verify(webClient,times(1)).get(anyInt(),anyString(),anyString());
         verify(httpRequest,times(3)).addQueryParam(anyString(),anyString());
         verify(httpRequest,times(1)).send(any());
     }
+    @Test
+    @DisplayName("Test getInstance shares one service and one snapshot")
+    public void testGetInstanceShared(VertxTestContext vertxTestContext)
+    {
+        CatalogueService shared = CatalogueService.getInstance(vertxObj, config, () -> webClient);
+
+        assertSame(shared, CatalogueService.getInstance(vertxObj, config, () -> mock(WebClient.class)));
+        assertNotNull(CatalogueService.getCatalogueItemJson("abcd/abcd/abcd/abcd"));
+        assertNull(CatalogueService.getCatalogueItemJson(null));
+        vertxTestContext.completeNow();
+    }
+
+    @Test
+    @DisplayName("Test getInstance for a new vertx starts with its own client and caches")
+    public void testGetInstanceReplaced(VertxTestContext vertxTestContext)
+    {
+        CatalogueService old = CatalogueService.getInstance(vertxObj, config, () -> webClient);
+        CatalogueService.markAbsent("efgh/efgh/efgh/efgh");
+        assertTrue(CatalogueService.isUnknownId("efgh/efgh/efgh/efgh"));
+
+        Vertx otherVertx = mock(Vertx.class);
+        WebClient otherClient = mock(WebClient.class);
+        when(otherClient.get(anyInt(),anyString(),anyString())).thenReturn(httpRequest);
+        CatalogueService replaced = CatalogueService.getInstance(otherVertx, config, () -> otherClient);
+
+        assertNotSame(old, replaced);
+        verify(vertxObj).cancelTimer(anyLong());
+        verify(webClient).close();
+        verify(otherClient).get(anyInt(),anyString(),anyString());
+        assertFalse(CatalogueService.isUnknownId("efgh/efgh/efgh/efgh"));
+        assertNotNull(CatalogueService.getCatalogueItemJson("abcd/abcd/abcd/abcd"));
+        vertxTestContext.completeNow();
+    }
 //@Disabled
     @Test
     @DisplayName("Testing Success for isItemExist method with List of String IDs")
@@ -141,7 +181,7 @@ public class CatalogueServiceTest {
                 vertxTestContext.failNow(handler.cause());
             }
         });
-        verify(CatalogueService.catWebClient,times(4)).get(anyInt(),anyString(),anyString());
+        verify(webClient,times(4)).get(anyInt(),anyString(),anyString());
         verify(httpRequest,times(6)).addQueryParam(anyString(),anyString());
         verify(httpRequest,times(4)).send(any());
 
@@ -163,7 +203,7 @@ public class CatalogueServiceTest {
                 vertxTestContext.completeNow();
             }
         });
-        verify(CatalogueService.catWebClient, times(4)).get(anyInt(), anyString(), anyString());
+        verify(webClient, times(4)).get(anyInt(), anyString(), anyString());
         verify(httpRequest, times(6)).addQueryParam(anyString(), anyString());
         verify(httpRequest, times(4)).send(any());
 
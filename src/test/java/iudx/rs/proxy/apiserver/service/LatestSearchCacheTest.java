@@ -0,0 +1,51 @@
+package iudx.rs.proxy.apiserver.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class LatestSearchCacheTest {
+
+  private static final String GROUP = "iisc.ac.in/89a36273d77dac4cf38114fca1bbe64392547f86/rs.iudx.io/pune-env-flood";
+
+  private JsonObject latestQuery() {
+    return new JsonObject()
+        .put("id", new JsonArray().add(GROUP + "/FWR055"))
+        .put("searchType", "latestSearch");
+  }
+
+  @Test
+  @DisplayName("only latest search without public key is cacheable")
+  void testKeyFor() {
+    LatestSearchCache cache = new LatestSearchCache(new JsonObject());
+
+    assertNotNull(cache.keyFor(latestQuery()));
+    assertNotNull(cache.keyFor(latestQuery().put("searchType", "latestSearch_attributeSearch")));
+    assertNull(cache.keyFor(latestQuery().put("publicKey", "key")));
+    assertNull(cache.keyFor(latestQuery().put("searchType", "temporalSearch")));
+  }
+
+  @Test
+  @DisplayName("cached body is returned until its group TTL expires")
+  void testGroupTtl() {
+    LatestSearchCache cache = new LatestSearchCache(new JsonObject()
+        .put("defaultTtlSeconds", 60)
+        .put("groupTtlSeconds", new JsonObject().put(GROUP, 0)));
+    String key = cache.keyFor(latestQuery());
+    Buffer body = Buffer.buffer("{\"results\":[]}");
+
+    cache.put(key, "other-group", body);
+    assertEquals(body, cache.get(key));
+
+    LatestSearchCache disabled = new LatestSearchCache(new JsonObject()
+        .put("groupTtlSeconds", new JsonObject().put(GROUP, 0)));
+    disabled.put(key, GROUP, body);
+    assertNull(disabled.get(key));
+  }
+}
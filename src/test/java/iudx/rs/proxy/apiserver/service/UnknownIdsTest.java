@@ -0,0 +1,49 @@
+package iudx.rs.proxy.apiserver.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class UnknownIdsTest {
+
+  private static final String KNOWN = "datakaveri.org/04a15c9960ffda227e9546f3f46e629e1fe4132b/"
+      + "rs.iudx.io/pune-env-flood/FWR053";
+
+  @Test
+  @DisplayName("absent ids remembered until the next snapshot has them")
+  public void testAbsent() {
+    UnknownIds unknownIds = new UnknownIds(10, 60000);
+    assertFalse(unknownIds.isUnknown(KNOWN));
+    unknownIds.markAbsent(KNOWN);
+    assertTrue(unknownIds.isUnknown(KNOWN));
+
+    unknownIds.snapshot(List.of(KNOWN));
+    assertFalse(unknownIds.isUnknown(KNOWN));
+  }
+
+  @Test
+  @DisplayName("bloom filter rejects ids outside the snapshot")
+  public void testBloomFilter() {
+    UnknownIds unknownIds = new UnknownIds(10, 60000);
+    unknownIds.setBloomEnabled(true);
+    assertFalse(unknownIds.isUnknown("not-yet-loaded"));
+
+    unknownIds.snapshot(List.of(KNOWN));
+    assertFalse(unknownIds.isUnknown(KNOWN));
+    assertTrue(unknownIds.isUnknown(KNOWN + "-unknown"));
+
+    unknownIds.setBloomEnabled(false);
+    assertFalse(unknownIds.isUnknown(KNOWN + "-unknown"));
+  }
+
+  @Test
+  @DisplayName("absent ids expire")
+  public void testTtl() throws InterruptedException {
+    UnknownIds unknownIds = new UnknownIds(10, 1);
+    unknownIds.markAbsent(KNOWN);
+    Thread.sleep(5);
+    assertFalse(unknownIds.isUnknown(KNOWN));
+  }
+}
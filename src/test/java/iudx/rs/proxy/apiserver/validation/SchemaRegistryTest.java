@@ -0,0 +1,76 @@
+package iudx.rs.proxy.apiserver.validation;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.vertx.core.MultiMap;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.junit5.VertxExtension;
+import io.vertx.junit5.VertxTestContext;
+import iudx.rs.proxy.apiserver.exceptions.DxRuntimeException;
+import iudx.rs.proxy.apiserver.util.RequestType;
+import iudx.rs.proxy.apiserver.validation.types.JsonSchemaTypeValidator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+@ExtendWith(VertxExtension.class)
+class SchemaRegistryTest {
+
+  SchemaRegistry schemaRegistry;
+
+  @BeforeEach
+  public void setUp(Vertx vertx) {
+    schemaRegistry = SchemaRegistry.create(vertx);
+  }
+
+  private JsonObject postEntitiesBody(String type) {
+    return new JsonObject()
+        .put("type", type)
+        .put("entities", new JsonArray()
+            .add(new JsonObject().put("id", "b58da193-23d9-43eb-b98a-a103d4b6103c")));
+  }
+
+  @Test
+  @DisplayName("schemas compiled for POST request types only")
+  public void testSchemasCompiled(VertxTestContext testContext) {
+    assertNotNull(schemaRegistry.get(RequestType.POST_ENTITIES));
+    assertNotNull(schemaRegistry.get(RequestType.POST_TEMPORAL));
+    assertNull(schemaRegistry.get(RequestType.ENTITY));
+    assertSame(schemaRegistry.get(RequestType.POST_ENTITIES),
+        schemaRegistry.get(RequestType.POST_ENTITIES));
+    testContext.completeNow();
+  }
+
+  @Test
+  @DisplayName("valid body passes compiled schema")
+  public void testValidBody(VertxTestContext testContext) {
+    JsonSchemaTypeValidator validator = new JsonSchemaTypeValidator(postEntitiesBody("Query"),
+        schemaRegistry.get(RequestType.POST_ENTITIES));
+    assertTrue(validator.isValid());
+    testContext.completeNow();
+  }
+
+  @Test
+  @DisplayName("invalid body fails compiled schema")
+  public void testInvalidBody(VertxTestContext testContext) {
+    JsonSchemaTypeValidator validator = new JsonSchemaTypeValidator(postEntitiesBody("Entity"),
+        schemaRegistry.get(RequestType.POST_ENTITIES));
+    assertThrows(DxRuntimeException.class, validator::isValid);
+    testContext.completeNow();
+  }
+
+  @Test
+  @DisplayName("factory reuses the registry it is given")
+  public void testFactoryUsesRegistry(Vertx vertx, VertxTestContext testContext) {
+    ValidatorsHandlersFactory factory = new ValidatorsHandlersFactory(schemaRegistry);
+    var validators = factory.build(vertx, RequestType.POST_ENTITIES,
+        MultiMap.caseInsensitiveMultiMap(),
+        MultiMap.caseInsensitiveMultiMap(), postEntitiesBody("Entity"));
+    assertEquals(3, validators.size());
+    assertThrows(DxRuntimeException.class, () -> validators.get(2).isValid());
+    testContext.completeNow();
+  }
+}
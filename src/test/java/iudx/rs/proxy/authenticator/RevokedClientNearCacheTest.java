@@ -0,0 +1,86 @@
+package iudx.rs.proxy.authenticator;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.junit5.VertxExtension;
+import iudx.rs.proxy.database.DatabaseService;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+@ExtendWith(VertxExtension.class)
+class RevokedClientNearCacheTest {
+
+  private DatabaseService pgService;
+  private final List<String> queries = new ArrayList<>();
+  private JsonArray rows;
+  private RevokedClientNearCache nearCache;
+
+  @BeforeEach
+  @SuppressWarnings("unchecked")
+  public void setUp(Vertx vertx) {
+    pgService = mock(DatabaseService.class);
+    doAnswer(invocation -> {
+      queries.add(((JsonObject) invocation.getArgument(0)).getString("query"));
+      ((Handler<AsyncResult<JsonObject>>) invocation.getArgument(1))
+          .handle(Future.succeededFuture(new JsonObject().put("result", rows)));
+      return pgService;
+    }).when(pgService).executeQuery(any(), any());
+    nearCache = new RevokedClientNearCache(vertx, pgService, new JsonObject());
+  }
+
+  private static JsonObject row(String id, String expiry, String modifiedAt) {
+    return new JsonObject().put("_id", id).put("expiry", expiry).put("modified_at", modifiedAt);
+  }
+
+  @Test
+  @DisplayName("not ready before the first load")
+  public void testNotReady() {
+    assertFalse(nearCache.isReady());
+    assertNull(nearCache.revokedAt("client-1"));
+  }
+
+  @Test
+  @DisplayName("delta rows merged from the last seen modification")
+  public void testDeltaSync() {
+    rows = new JsonArray()
+        .add(row("client-1", "2023-01-01T10:00:00Z", "2023-01-01T10:00:00"));
+    nearCache.reload();
+    assertTrue(nearCache.isReady());
+    assertEquals(LocalDateTime.parse("2023-01-01T10:00:00"), nearCache.revokedAt("client-1"));
+
+    rows = new JsonArray()
+        .add(row("client-2", "2023-01-02T10:00:00Z", "2023-01-02T10:00:00"));
+    nearCache.sync();
+
+    assertTrue(queries.get(1).endsWith("modified_at >= '2023-01-01T09:59'"));
+    assertNotNull(nearCache.revokedAt("client-1"));
+    assertEquals(LocalDateTime.parse("2023-01-02T10:00:00"), nearCache.revokedAt("client-2"));
+  }
+
+  @Test
+  @DisplayName("full reload drops deleted rows")
+  public void testFullReload() {
+    rows = new JsonArray()
+        .add(row("client-1", "2023-01-01T10:00:00Z", "2023-01-01T10:00:00"));
+    nearCache.reload();
+    rows = new JsonArray()
+        .add(row("client-2", "2023-01-02T10:00:00Z", "2023-01-02T10:00:00"));
+    nearCache.reload();
+
+    assertNull(nearCache.revokedAt("client-1"));
+    assertNotNull(nearCache.revokedAt("client-2"));
+  }
+}
@@ -0,0 +1,136 @@
+package iudx.rs.proxy.authenticator;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.same;
+import static org.mockito.Mockito.*;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.auth.jwt.JWTAuth;
+import io.vertx.junit5.VertxExtension;
+import io.vertx.junit5.VertxTestContext;
+import io.vertx.serviceproxy.ServiceBinder;
+import iudx.rs.proxy.authenticator.model.JwtData;
+import iudx.rs.proxy.cache.CacheService;
+import iudx.rs.proxy.common.Api;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+@ExtendWith(VertxExtension.class)
+class TokenIntrospectStagesTest {
+
+  private static final String ID =
+      "datakaveri.org/04a15c9960ffda227e9546f3f46e629e1fe4132b/rs.iudx.io/pune-env-flood/FWR053";
+
+  private SimpleMeterRegistry registry;
+  private JwtAuthenticationServiceImpl service;
+  private JwtData jwtData;
+  private JsonObject authInfo;
+
+  @BeforeEach
+  public void setUp(Vertx vertx) {
+    JsonObject config = new JsonObject()
+        .put("catServerHost", "rs.iudx.io")
+        .put("catServerPort", 8080)
+        .put("dxCatalogueBasePath", "/iudx/cat/v1")
+        .put("audience", "rs.iudx.io");
+    Api api = Api.getInstance("/ngsi-ld/v1");
+    registry = new SimpleMeterRegistry();
+    service = spy(new JwtAuthenticationServiceImpl(vertx, mock(JWTAuth.class), config,
+        mock(CacheService.class), api).bindMetrics(registry, "test"));
+
+    jwtData = new JwtData();
+    jwtData.setIss("auth.test.com");
+    jwtData.setSub("32a4b979-4f4a-4c44-b0c3-2fe109952b5f");
+    jwtData.setAud("rs.iudx.io");
+    jwtData.setExp(1627408865);
+    jwtData.setIat(1627408865);
+    jwtData.setIid("ri:" + ID);
+    jwtData.setRole("consumer");
+    authInfo = new JsonObject()
+        .put("id", ID)
+        .put("apiEndpoint", api.getEntitiesEndpoint())
+        .put("method", "GET");
+  }
+
+  @Test
+  @DisplayName("revocation and resource lookups run together")
+  public void testConcurrentLookups(VertxTestContext testContext) {
+    Promise<Boolean> revocation = Promise.promise();
+    doReturn(revocation.future()).when(service).isRevokedClientToken(any());
+    doReturn(Future.succeededFuture("SECURE")).when(service).isOpenResource(ID);
+
+    service.tokenIntrospect(new JsonObject(), authInfo, jwtData, testContext.failing(ex -> {
+      testContext.verify(() -> {
+        assertTrue(ex.getMessage().contains("revoked"));
+        assertEquals(1, registry.get("rs_proxy_auth_stage_seconds").tag("stage", "revocation")
+            .timer().count());
+        assertEquals(1, registry.get("rs_proxy_auth_stage_seconds").tag("stage", "introspect")
+            .timer().count());
+      });
+      testContext.completeNow();
+    }));
+
+    verify(service).isOpenResource(ID);
+    revocation.fail("revoked token passes");
+  }
+
+  @Test
+  @DisplayName("revocation failure reported before a missing resource")
+  public void testRevocationPrecedence(VertxTestContext testContext) {
+    Promise<Boolean> revocation = Promise.promise();
+    doReturn(revocation.future()).when(service).isRevokedClientToken(any());
+    doReturn(Future.failedFuture("Not Found")).when(service).isOpenResource(ID);
+
+    service.tokenIntrospect(new JsonObject(), authInfo, jwtData, testContext.failing(ex -> {
+      testContext.verify(() -> assertTrue(ex.getMessage().contains("revoked")));
+      testContext.completeNow();
+    }));
+
+    revocation.fail("revoked token passes");
+  }
+
+  @Test
+  @DisplayName("missing resource reported when the token is not revoked")
+  public void testResourceNotFound(VertxTestContext testContext) {
+    doReturn(Future.succeededFuture(true)).when(service).isRevokedClientToken(any());
+    doReturn(Future.failedFuture("Not Found")).when(service).isOpenResource(ID);
+
+    service.tokenIntrospect(new JsonObject(), authInfo, jwtData, testContext.failing(ex -> {
+      testContext.verify(() -> assertEquals("Not Found", ex.getMessage()));
+      testContext.completeNow();
+    }));
+  }
+
+  @Test
+  @DisplayName("introspection through the event bus leaves the caller's message unchanged")
+  public void testMessageNotMutated(Vertx vertx, VertxTestContext testContext) {
+    doReturn(Future.succeededFuture(true)).when(service).isRevokedClientToken(any());
+    doReturn(Future.succeededFuture("OPEN")).when(service).isOpenResource(ID);
+    new ServiceBinder(vertx).setAddress("auth.introspect.test")
+        .register(AuthenticationService.class, service);
+    // the auth context codec hands these very objects to the service on local delivery
+    JsonObject request = new JsonObject().put("ids", new JsonArray().add(ID));
+    JsonObject requestBefore = request.copy();
+    JsonObject authInfoBefore = authInfo.copy();
+    JsonObject jwtDataBefore = jwtData.toJson();
+
+    AuthenticationService.createProxy(vertx, "auth.introspect.test")
+        .tokenIntrospect(request, authInfo, jwtData, testContext.succeeding(result -> {
+          testContext.verify(() -> {
+            verify(service).tokenIntrospect(same(request), same(authInfo), any(), any());
+            assertEquals(requestBefore, request);
+            assertEquals(authInfoBefore, authInfo);
+            assertEquals(jwtDataBefore, jwtData.toJson());
+          });
+          testContext.completeNow();
+        }));
+  }
+}
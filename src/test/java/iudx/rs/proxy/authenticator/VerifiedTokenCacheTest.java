@@ -0,0 +1,66 @@
+package iudx.rs.proxy.authenticator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import iudx.rs.proxy.authenticator.model.JwtData;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class VerifiedTokenCacheTest {
+
+  private final AtomicLong now = new AtomicLong(1000);
+
+  private static JwtData jwtData(Integer exp) {
+    JwtData jwtData = new JwtData();
+    jwtData.setSub("844e251b-574b-46e6-9247-f76f1f70a637");
+    jwtData.setRole("consumer");
+    jwtData.setExp(exp);
+    return jwtData;
+  }
+
+  @Test
+  @DisplayName("verified token served until exp")
+  public void testServedUntilExp() {
+    VerifiedTokenCache cache = new VerifiedTokenCache(10, now::get);
+    cache.put("token", jwtData(1100));
+
+    assertEquals("consumer", cache.get("token").getRole());
+    assertNull(cache.get("other"));
+    now.set(1100);
+    assertNull(cache.get("token"));
+    assertEquals(0, cache.size());
+  }
+
+  @Test
+  @DisplayName("tokens without exp or already expired are not cached")
+  public void testNotCached() {
+    VerifiedTokenCache cache = new VerifiedTokenCache(10, now::get);
+    cache.put("no-exp", jwtData(null));
+    cache.put("expired", jwtData(900));
+
+    assertNull(cache.get("no-exp"));
+    assertNull(cache.get("expired"));
+  }
+
+  @Test
+  @DisplayName("callers get copies of the cached token")
+  public void testCopies() {
+    VerifiedTokenCache cache = new VerifiedTokenCache(10, now::get);
+    cache.put("token", jwtData(1100));
+    cache.get("token").setRole("provider");
+
+    assertEquals("consumer", cache.get("token").getRole());
+  }
+
+  @Test
+  @DisplayName("number of entries is capped")
+  public void testMaxSize() {
+    VerifiedTokenCache cache = new VerifiedTokenCache(10, now::get);
+    for (int i = 0; i < 100; i++) {
+      cache.put("token-" + i, jwtData(1100));
+    }
+
+    assertTrue(cache.size() <= 10);
+  }
+}
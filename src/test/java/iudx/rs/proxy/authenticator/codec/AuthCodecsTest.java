@@ -0,0 +1,67 @@
+package iudx.rs.proxy.authenticator.codec;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.eventbus.DeliveryOptions;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.junit5.VertxExtension;
+import io.vertx.junit5.VertxTestContext;
+import iudx.rs.proxy.authenticator.model.JwtData;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+@ExtendWith(VertxExtension.class)
+public class AuthCodecsTest {
+
+  private static JwtData jwtData() {
+    JwtData jwtData = new JwtData();
+    jwtData.setAccess_token("token");
+    jwtData.setSub("844e251b-574b-46e6-9247-f76f1f70a637");
+    jwtData.setIss("authvertx.iudx.io");
+    jwtData.setAud("rs.iudx.io");
+    jwtData.setExp(1627408865);
+    jwtData.setIid("ri:b58da193-23d9-43eb-b98a-a103d4b6103c");
+    jwtData.setRole("consumer");
+    jwtData.setCons(new JsonObject().put("access", new JsonArray().add("api").add("sub")));
+    return jwtData;
+  }
+
+  @Test
+  @DisplayName("service message survives clustered encoding")
+  public void testAuthContextWire() {
+    AuthContextCodec codec = new AuthContextCodec();
+    JsonObject message = new JsonObject()
+        .put("request", new JsonObject().put("ids", new JsonArray().add("id-1").add("id-2")))
+        .put("authenticationInfo", new JsonObject()
+            .put("apiEndpoint", "/ngsi-ld/v1/entities")
+            .put("method", "GET")
+            .put("id", null))
+        .put("jwtData", jwtData().toJson())
+        .put("limit", 5000L)
+        .put("ratio", 0.5)
+        .put("open", false);
+    Buffer buffer = Buffer.buffer();
+    codec.encodeToWire(buffer, message);
+
+    assertEquals(message, codec.decodeFromWire(0, buffer));
+  }
+
+  @Test
+  @DisplayName("local delivery passes the message itself")
+  public void testLocalDelivery(Vertx vertx, VertxTestContext testContext) {
+    DeliveryOptions options = AuthCodecs.deliveryOptions(vertx);
+    AuthCodecs.register(vertx);
+    JsonObject message = new JsonObject().put("jwtToken", "token");
+    vertx.eventBus().<JsonObject>consumer("auth.codec.test", msg -> {
+      testContext.verify(() -> assertSame(message, msg.body()));
+      msg.reply(null);
+    });
+
+    vertx.eventBus().request("auth.codec.test", message, options,
+        testContext.succeedingThenComplete());
+  }
+}
@@ -0,0 +1,92 @@
+package iudx.rs.proxy.common;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonObject;
+import io.vertx.junit5.VertxExtension;
+import io.vertx.junit5.VertxTestContext;
+import iudx.rs.proxy.cache.CacheService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+@ExtendWith(VertxExtension.class)
+public class LocalServicesTest {
+
+  private static final String ADDRESS = "iudx.rs.proxy.test.local";
+
+  private CacheService local;
+  private CacheService remote;
+
+  @BeforeEach
+  public void setUp() {
+    LocalServices.setEnabled(true);
+    local = mock(CacheService.class);
+    remote = mock(CacheService.class);
+  }
+
+  @AfterEach
+  public void tearDown() {
+    LocalServices.unregister(ADDRESS, local);
+    LocalServices.setEnabled(false);
+  }
+
+  @SuppressWarnings("unchecked")
+  private static void reply(CacheService service, JsonObject result) {
+    doAnswer(invocation -> {
+      ((Handler<AsyncResult<JsonObject>>) invocation.getArgument(1))
+          .handle(Future.succeededFuture(result));
+      return service;
+    }).when(service).get(any(), any());
+  }
+
+  @Test
+  @DisplayName("registered implementation is called directly with copies")
+  public void testLocalCall(Vertx vertx, VertxTestContext testContext) {
+    JsonObject result = new JsonObject().put("value", "local");
+    reply(local, result);
+    LocalServices.register(vertx, ADDRESS, local);
+    CacheService client =
+        LocalServices.createProxy(vertx, ADDRESS, CacheService.class, (v, a) -> remote);
+
+    JsonObject request = new JsonObject().put("key", "k");
+    vertx.runOnContext(v -> client.get(request, testContext.succeeding(json -> {
+      testContext.verify(() -> {
+        assertEquals("local", json.getString("value"));
+        assertNotSame(result, json);
+        verify(local).get(argThat(arg -> arg != request && arg.equals(request)), any());
+        verifyNoInteractions(remote);
+      });
+      testContext.completeNow();
+    })));
+  }
+
+  @Test
+  @DisplayName("event bus proxy used when nothing is registered")
+  public void testRemoteFallback(Vertx vertx, VertxTestContext testContext) {
+    reply(remote, new JsonObject().put("value", "remote"));
+    CacheService client =
+        LocalServices.createProxy(vertx, ADDRESS, CacheService.class, (v, a) -> remote);
+
+    client.get(new JsonObject(), testContext.succeeding(json -> {
+      testContext.verify(() -> assertEquals("remote", json.getString("value")));
+      testContext.completeNow();
+    }));
+  }
+
+  @Test
+  @DisplayName("disabled direct calls return the event bus proxy")
+  public void testDisabled(Vertx vertx) {
+    LocalServices.setEnabled(false);
+    assertSame(remote,
+        LocalServices.createProxy(vertx, ADDRESS, CacheService.class, (v, a) -> remote));
+  }
+}
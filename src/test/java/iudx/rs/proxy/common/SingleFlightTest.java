@@ -0,0 +1,61 @@
+package iudx.rs.proxy.common;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class SingleFlightTest {
+
+  @Test
+  @DisplayName("concurrent misses for one key share one call")
+  public void testShared() {
+    SingleFlight<String> lookups = new SingleFlight<>();
+    AtomicInteger calls = new AtomicInteger();
+    Promise<String> pending = Promise.promise();
+
+    Future<String> first = lookups.run("id", () -> {
+      calls.incrementAndGet();
+      return pending.future();
+    });
+    Future<String> second = lookups.run("id", () -> {
+      calls.incrementAndGet();
+      return Future.succeededFuture("other");
+    });
+    Future<String> otherKey = lookups.run("other-id", () -> {
+      calls.incrementAndGet();
+      return Future.succeededFuture("other");
+    });
+
+    assertEquals(2, calls.get());
+    assertEquals(1, lookups.joinedCount());
+    pending.complete("policy");
+    assertEquals("policy", first.result());
+    assertEquals("policy", second.result());
+    assertEquals("other", otherKey.result());
+    assertEquals(0, lookups.inFlightCount());
+  }
+
+  @Test
+  @DisplayName("key released after completion, failures included")
+  public void testReleased() {
+    SingleFlight<String> lookups = new SingleFlight<>();
+    AtomicInteger calls = new AtomicInteger();
+
+    Future<String> failed = lookups.run("id", () -> {
+      calls.incrementAndGet();
+      throw new IllegalStateException("catalogue down");
+    });
+    Future<String> retried = lookups.run("id", () -> {
+      calls.incrementAndGet();
+      return Future.succeededFuture("policy");
+    });
+
+    assertTrue(failed.failed());
+    assertEquals("policy", retried.result());
+    assertEquals(2, calls.get());
+  }
+}
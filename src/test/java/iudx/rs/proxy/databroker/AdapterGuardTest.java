@@ -0,0 +1,66 @@
+package iudx.rs.proxy.databroker;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import io.vertx.core.json.JsonObject;
+import iudx.rs.proxy.common.ResponseUrn;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class AdapterGuardTest {
+
+  private static final String KEY = "iisc.ac.in/89a36273d77dac4cf38114fca1bbe64392547f86/rs.iudx.io/pune-env-flood";
+
+  @Test
+  @DisplayName("breaker opens after consecutive failures and fails fast")
+  void testBreakerOpens() {
+    AdapterGuard guard = new AdapterGuard(new JsonObject()
+        .put("failureThreshold", 2)
+        .put("openStateMillis", 60000));
+
+    guard.tryAcquire(KEY).release(false);
+    assertEquals(AdapterGuard.State.CLOSED, guard.state(KEY));
+    guard.tryAcquire(KEY).release(false);
+    assertEquals(AdapterGuard.State.OPEN, guard.state(KEY));
+
+    assertNull(guard.tryAcquire(KEY));
+    JsonObject rejection = new JsonObject(guard.rejection(KEY));
+    assertEquals(ResponseUrn.ADAPTER_UNAVAILABLE_URN.getUrn(), rejection.getString("type"));
+    assertEquals(503, rejection.getInteger("statusCode"));
+  }
+
+  @Test
+  @DisplayName("single trial call after open state closes the breaker on success")
+  void testHalfOpenTrial() {
+    AdapterGuard guard = new AdapterGuard(new JsonObject()
+        .put("failureThreshold", 1)
+        .put("openStateMillis", 0));
+
+    guard.tryAcquire(KEY).release(false);
+    AdapterGuard.Permit trial = guard.tryAcquire(KEY);
+    assertNotNull(trial);
+    assertEquals(AdapterGuard.State.HALF_OPEN, guard.state(KEY));
+    assertNull(guard.tryAcquire(KEY));
+
+    trial.release(true);
+    assertEquals(AdapterGuard.State.CLOSED, guard.state(KEY));
+  }
+
+  @Test
+  @DisplayName("limit is halved on failure and calls beyond it are rejected")
+  void testAimdLimit() {
+    AdapterGuard guard = new AdapterGuard(new JsonObject()
+        .put("failureThreshold", 100)
+        .put("initialLimit", 4));
+
+    guard.tryAcquire(KEY).release(false);
+    assertEquals(2d, guard.limit(KEY));
+
+    assertNotNull(guard.tryAcquire(KEY));
+    assertNotNull(guard.tryAcquire(KEY));
+    assertNull(guard.tryAcquire(KEY));
+    assertEquals(429, new JsonObject(guard.rejection(KEY)).getInteger("statusCode"));
+  }
+}
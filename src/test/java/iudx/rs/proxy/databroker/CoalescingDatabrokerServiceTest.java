@@ -0,0 +1,91 @@
+package iudx.rs.proxy.databroker;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class CoalescingDatabrokerServiceTest {
+
+  private JsonObject query(String publicKey, String ppbNumber) {
+    JsonObject json = new JsonObject()
+        .put("id", new JsonArray().add("iisc.ac.in/89a36273d77dac4cf38114fca1bbe64392547f86/rs.iudx.io/pune-env-flood/FWR055"))
+        .put("searchType", "latestSearch")
+        .put("api", "/ngsi-ld/v1/entities");
+    if (publicKey != null) {
+      json.put("publicKey", publicKey);
+    }
+    if (ppbNumber != null) {
+      json.put("ppbNumber", ppbNumber);
+    }
+    return json;
+  }
+
+  @Test
+  @DisplayName("key ignores per-user fields and key order")
+  void testCoalescingKey() {
+    JsonObject reordered = new JsonObject()
+        .put("api", "/ngsi-ld/v1/entities")
+        .put("searchType", "latestSearch")
+        .put("id", query(null, null).getJsonArray("id"));
+
+    assertEquals(CoalescingDatabrokerService.coalescingKey(query(null, "ppb-1")),
+        CoalescingDatabrokerService.coalescingKey(reordered));
+    assertNotEquals(CoalescingDatabrokerService.coalescingKey(query(null, null)),
+        CoalescingDatabrokerService.coalescingKey(query(null, null).put("attrs", "id")));
+  }
+
+  @Test
+  @DisplayName("concurrent identical queries share one adapter call, each gets its own reply")
+  void testIdenticalQueriesShareCall() {
+    DatabrokerService delegate = mock(DatabrokerService.class);
+    List<Handler<AsyncResult<JsonObject>>> pending = new ArrayList<>();
+    doAnswer(invocation -> {
+      pending.add(invocation.getArgument(1));
+      return null;
+    }).when(delegate).executeAdapterQueryRPC(any(), any());
+
+    CoalescingDatabrokerService service = new CoalescingDatabrokerService(delegate);
+    List<JsonObject> replies = new ArrayList<>();
+    service.executeAdapterQueryRPC(query(null, "ppb-1"),
+        reply -> replies.add(reply.result().put("totalHits", 1)));
+    service.executeAdapterQueryRPC(query(null, "ppb-2"), reply -> replies.add(reply.result()));
+
+    verify(delegate, times(1)).executeAdapterQueryRPC(any(), any());
+    pending.get(0).handle(Future.succeededFuture(new JsonObject().put("statusCode", 200)));
+
+    assertEquals(2, replies.size());
+    assertNotSame(replies.get(0), replies.get(1));
+    assertFalse(replies.get(1).containsKey("totalHits"));
+    assertEquals(1, service.coalescedCount());
+    assertEquals(0, service.inFlightCount());
+  }
+
+  @Test
+  @DisplayName("queries with a public key are never shared")
+  void testEncryptedQueriesNotShared() {
+    DatabrokerService delegate = mock(DatabrokerService.class);
+    CoalescingDatabrokerService service = new CoalescingDatabrokerService(delegate);
+
+    service.executeAdapterQueryRPC(query("key-1", null), reply -> {});
+    service.executeAdapterQueryRPC(query("key-1", null), reply -> {});
+
+    verify(delegate, times(2)).executeAdapterQueryRPC(any(), any());
+    assertEquals(0, service.coalescedCount());
+  }
+}
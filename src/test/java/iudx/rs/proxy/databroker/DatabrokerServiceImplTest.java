@@ -0,0 +1,118 @@
+package iudx.rs.proxy.databroker;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.rabbitmq.client.BasicProperties;
+
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.eventbus.Message;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.junit5.VertxExtension;
+import io.vertx.junit5.VertxTestContext;
+import io.vertx.rabbitmq.QueueOptions;
+import io.vertx.rabbitmq.RabbitMQClient;
+import iudx.rs.proxy.loadtest.FakeAdapter;
+import iudx.rs.proxy.loadtest.FakeBroker;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+@ExtendWith(VertxExtension.class)
+class DatabrokerServiceImplTest {
+
+  private static final String ID =
+      "iisc.ac.in/89a36273d77dac4cf38114fca1bbe64392547f86/rs.iudx.io/pune-env-flood/FWR055";
+  private static final String STREAM_ADDRESS = "iudx.rs.proxy.adapter.stream.test";
+
+  private static JsonObject temporalQuery() {
+    return new JsonObject()
+        .put("id", new JsonArray().add(ID))
+        .put("api", "/ngsi-ld/v1/temporal/entities");
+  }
+
+  /* service on the in-JVM broker, with an adapter replying in chunks of two records. */
+  private static Future<DatabrokerServiceImpl> chunkingAdapter(Vertx vertx, long timeoutMillis) {
+    FakeAdapter adapter = new FakeAdapter(new JsonObject()
+        .put("resultCount", 6)
+        .put("chunkSize", 2));
+    FakeBroker broker = new FakeBroker(vertx, adapter);
+    return vertx.deployVerticle(adapter).map(deployed -> new DatabrokerServiceImpl(vertx,
+        RabbitMQClientPool.of(broker.client()), broker.client(), "rpc-adapter-requests",
+        "rpc_responses", List.of(), null,
+        new RpcDeadlines(new JsonObject().put("defaultMillis", timeoutMillis)),
+        new PayloadCodec(new JsonObject())));
+  }
+
+  @Test
+  @DisplayName("stream is acknowledged once published, not after the last chunk")
+  void testStreamAckedOnStart(Vertx vertx, VertxTestContext testContext) {
+    List<Message<String>> chunks = new ArrayList<>();
+    // the receiver never takes the first chunk, so the stream can not finish
+    vertx.eventBus().<String>consumer(STREAM_ADDRESS, chunks::add);
+
+    chunkingAdapter(vertx, 60000).onComplete(testContext.succeeding(service ->
+        service.executeAdapterQueryStream(temporalQuery(), STREAM_ADDRESS,
+            testContext.succeeding(started -> testContext.verify(() -> {
+              assertEquals(STREAM_ADDRESS, started.getString("streamAddress"));
+              testContext.completeNow();
+            })))));
+  }
+
+  @Test
+  @DisplayName("failure after the start ack is sent to the stream receiver")
+  void testStreamFailureAfterStart(Vertx vertx, VertxTestContext testContext) {
+    vertx.eventBus().<String>consumer(STREAM_ADDRESS, message -> {
+      if (Boolean.parseBoolean(message.headers().get("error"))) {
+        testContext.verify(() -> assertFalse(message.body().isEmpty()));
+        testContext.completeNow();
+      }
+      // chunks are left unanswered until the databroker gives up
+    });
+
+    chunkingAdapter(vertx, 200).onComplete(testContext.succeeding(service ->
+        service.executeAdapterQueryStream(temporalQuery(), STREAM_ADDRESS,
+            testContext.succeeding(started -> {}))));
+  }
+
+  @Test
+  @DisplayName("failed reply consumer fails the request and gives the permit back")
+  void testConsumerFailureReleasesPermit(Vertx vertx, VertxTestContext testContext) {
+    RabbitMQClient client = mock(RabbitMQClient.class);
+    when(client.queueDeclare(anyString(), anyBoolean(), anyBoolean(), anyBoolean()))
+        .thenReturn(Future.succeededFuture());
+    when(client.basicPublish(anyString(), anyString(), any(BasicProperties.class),
+        any(Buffer.class))).thenReturn(Future.succeededFuture());
+    when(client.basicConsumer(anyString(), any(QueueOptions.class)))
+        .thenReturn(Future.failedFuture("channel closed"));
+    AdapterGuard adapterGuard = new AdapterGuard(new JsonObject()
+        .put("failureThreshold", 1)
+        .put("openStateMillis", 0));
+    RabbitMQClientPool clientPool = RabbitMQClientPool.of(client);
+    DatabrokerServiceImpl service = new DatabrokerServiceImpl(vertx, clientPool, client,
+        "rpc-adapter-requests", "rpc_responses", List.of(), adapterGuard,
+        new RpcDeadlines(new JsonObject().put("defaultMillis", 60000)),
+        new PayloadCodec(new JsonObject()));
+
+    // the first failure opens the breaker, the second one is the half-open trial.
+    service.executeAdapterQueryRPC(temporalQuery(), testContext.failing(first ->
+        service.executeAdapterQueryRPC(temporalQuery(), testContext.failing(trial ->
+            testContext.verify(() -> {
+              assertEquals("Failed to get the response", trial.getMessage());
+              assertEquals(0, clientPool.inFlight(0));
+              assertNotNull(adapterGuard.tryAcquire(ID));
+              testContext.completeNow();
+            })))));
+  }
+}
@@ -0,0 +1,97 @@
+package iudx.rs.proxy.databroker;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.DecodeException;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class PayloadCodecTest {
+
+  private static JsonObject temporalReply(int observations) {
+    JsonArray results = new JsonArray();
+    for (int i = 0; i < observations; i++) {
+      results.add(new JsonObject()
+          .put("id", "iisc.ac.in/89a36273d77dac4cf38114fca1bbe64392547f86/rs.iudx.io/pune-env-flood/FWR055")
+          .put("observationDateTime", "2020-10-10T14:" + (10 + i % 50) + ":00+05:30")
+          .put("currentLevel", 0.5 + i)
+          .put("measuredDistance", i));
+    }
+    return new JsonObject().put("statusCode", 200).put("results", results).put("totalHits", observations);
+  }
+
+  @Test
+  @DisplayName("cbor and gzip replies decode to the same json document")
+  void testRoundTrip() {
+    JsonObject reply = temporalReply(500);
+    Buffer json = reply.toBuffer();
+
+    Buffer cbor = PayloadEncoder.encode(reply, PayloadCodec.CBOR, null);
+    Buffer cborGzip = PayloadEncoder.encode(reply, PayloadCodec.CBOR, PayloadCodec.GZIP);
+    Buffer jsonGzip = PayloadEncoder.encode(reply, PayloadCodec.JSON, PayloadCodec.GZIP);
+
+    assertEquals(reply, new JsonObject(PayloadCodec.toJson(cbor, PayloadCodec.CBOR, null)));
+    assertEquals(reply,
+        new JsonObject(PayloadCodec.toJson(cborGzip, PayloadCodec.CBOR, PayloadCodec.GZIP)));
+    assertEquals(reply,
+        new JsonObject(PayloadCodec.toJson(jsonGzip, PayloadCodec.JSON, PayloadCodec.GZIP)));
+    assertTrue(cbor.length() < json.length());
+    assertTrue(jsonGzip.length() < json.length());
+  }
+
+  @Test
+  @DisplayName("replies without content properties are passed on as json")
+  void testJsonFallback() {
+    Buffer json = temporalReply(2).toBuffer();
+    assertSame(json, PayloadCodec.toJson(json, null, null));
+    assertSame(json, PayloadCodec.toJson(json, "text/plain", ""));
+  }
+
+  @Test
+  @DisplayName("unsupported or broken replies are rejected")
+  void testUndecodable() {
+    Buffer json = temporalReply(2).toBuffer();
+    assertThrows(DecodeException.class, () -> PayloadCodec.toJson(json, PayloadCodec.JSON, "zstd"));
+    assertThrows(DecodeException.class,
+        () -> PayloadCodec.toJson(json, PayloadCodec.CBOR, PayloadCodec.GZIP));
+  }
+
+  @Test
+  @DisplayName("replies inflating past the limit are rejected")
+  void testDecodedSizeLimit() {
+    Buffer json = temporalReply(50).toBuffer();
+    Buffer jsonGzip = PayloadEncoder.encode(temporalReply(50), PayloadCodec.JSON, PayloadCodec.GZIP);
+    Buffer cborGzip = PayloadEncoder.encode(temporalReply(50), PayloadCodec.CBOR, PayloadCodec.GZIP);
+    int limit = json.length() - 1;
+
+    assertTrue(jsonGzip.length() < limit);
+    assertThrows(DecodeException.class,
+        () -> PayloadCodec.toJson(jsonGzip, PayloadCodec.JSON, PayloadCodec.GZIP, limit));
+    assertThrows(DecodeException.class,
+        () -> PayloadCodec.toJson(cborGzip, PayloadCodec.CBOR, PayloadCodec.GZIP, limit));
+    assertEquals(json,
+        PayloadCodec.toJson(jsonGzip, PayloadCodec.JSON, PayloadCodec.GZIP, json.length()));
+  }
+
+  @Test
+  @DisplayName("accept headers are only sent when configured")
+  void testAcceptHeaders() {
+    Map<String, Object> headers = new PayloadCodec(new JsonObject()).acceptHeaders(new HashMap<>());
+    assertTrue(headers.isEmpty());
+
+    headers = new PayloadCodec(new JsonObject()
+        .put("accept", new JsonArray().add(PayloadCodec.CBOR))
+        .put("acceptEncoding", new JsonArray().add(PayloadCodec.GZIP)))
+        .acceptHeaders(new HashMap<>());
+    assertEquals("application/cbor,application/json", headers.get(PayloadCodec.ACCEPT_HEADER));
+    assertEquals("gzip", headers.get(PayloadCodec.ACCEPT_ENCODING_HEADER));
+  }
+}
@@ -0,0 +1,45 @@
+package iudx.rs.proxy.databroker;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.JsonObject;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/** Encodes replies the way an adapter does, the counterpart of {@link PayloadCodec}. */
+public final class PayloadEncoder {
+
+  private static final JsonFactory JSON_FACTORY = new JsonFactory();
+  private static final CBORFactory CBOR_FACTORY = new CBORFactory();
+
+  private PayloadEncoder() {}
+
+  /**
+   * @param json document to encode
+   * @param contentType {@value PayloadCodec#JSON} or {@value PayloadCodec#CBOR}
+   * @param contentEncoding {@value PayloadCodec#GZIP} or null
+   */
+  public static Buffer encode(JsonObject json, String contentType, String contentEncoding) {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (OutputStream out =
+        PayloadCodec.GZIP.equals(contentEncoding) ? new GZIPOutputStream(bytes) : bytes) {
+      if (contentType != null && contentType.startsWith(PayloadCodec.CBOR)) {
+        try (JsonParser parser = JSON_FACTORY.createParser(json.toBuffer().getBytes());
+            JsonGenerator generator = CBOR_FACTORY.createGenerator(out)) {
+          parser.nextToken();
+          generator.copyCurrentStructure(parser);
+        }
+      } else {
+        out.write(json.toBuffer().getBytes());
+      }
+    } catch (IOException e) {
+      throw new IllegalStateException("failed to encode " + contentType, e);
+    }
+    return Buffer.buffer(bytes.toByteArray());
+  }
+}
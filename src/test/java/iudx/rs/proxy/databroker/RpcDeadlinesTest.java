@@ -0,0 +1,73 @@
+package iudx.rs.proxy.databroker;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class RpcDeadlinesTest {
+
+  private static final String GROUP =
+      "iisc.ac.in/89a36273d77dac4cf38114fca1bbe64392547f86/rs.iudx.io/pune-env-flood";
+
+  private final RpcDeadlines deadlines = new RpcDeadlines(new JsonObject()
+      .put("defaultMillis", 8000)
+      .put("apis", new JsonObject().put("count", 3000).put("asyncSearch", 2000))
+      .put("groups", new JsonObject()
+          .put(GROUP, new JsonObject().put("defaultMillis", 30000)
+              .put("apis", new JsonObject().put("count", 12000)))
+          .put(GROUP + "/FWR055", new JsonObject().put("defaultMillis", 60000))));
+
+  private static JsonObject request(String id, String api, String options) {
+    JsonObject request = new JsonObject()
+        .put("id", new JsonArray().add(id))
+        .put("api", api);
+    if (options != null) {
+      request.put("options", options);
+    }
+    return request;
+  }
+
+  @Test
+  @DisplayName("api setting applies outside configured groups")
+  void testApiTimeouts() {
+    String id = "other.org/abc/rs.iudx.io/surat-itms/bus";
+    assertEquals(8000, deadlines.timeoutFor(request(id, "/ngsi-ld/v1/temporal/entities", null)));
+    assertEquals(3000, deadlines.timeoutFor(request(id, "/ngsi-ld/v1/entities", "count")));
+    assertEquals(2000, deadlines.timeoutFor(request(id, "/ngsi-ld/v1/async/search", null)));
+    assertEquals(8000, deadlines.timeoutFor(request(id, "/ngsi-ld/v1/async/search", "count")));
+  }
+
+  @Test
+  @DisplayName("longest matching group wins over api setting")
+  void testGroupTimeouts() {
+    String api = "/ngsi-ld/v1/entities";
+    assertEquals(30000, deadlines.timeoutFor(request(GROUP + "/FWR012", api, null)));
+    assertEquals(12000, deadlines.timeoutFor(request(GROUP + "/FWR012", api, "count")));
+    assertEquals(60000, deadlines.timeoutFor(request(GROUP + "/FWR055", api, "count")));
+  }
+
+  @Test
+  @DisplayName("catalogue resource group selects the group of uuid ids")
+  void testResourceGroupField() {
+    JsonObject request = request("b58da193-23d9-43eb-b98a-a103d4b6103c", "/ngsi-ld/v1/entities",
+        "count");
+    assertEquals(3000, deadlines.timeoutFor(request));
+    request.put("resourceGroup", GROUP);
+    assertEquals(12000, deadlines.timeoutFor(request));
+  }
+
+  @Test
+  @DisplayName("async status request is matched on its routing key")
+  void testRoutingKey() {
+    JsonObject status = new JsonObject()
+        .put("searchId", "5c7d2b2f")
+        .put("routingKey", GROUP + "/FWR012")
+        .put("api", "/ngsi-ld/v1/async/status");
+    assertEquals(30000, deadlines.timeoutFor(status));
+    assertEquals(RpcDeadlines.DEFAULT_TIMEOUT_MILLIS,
+        new RpcDeadlines(new JsonObject()).timeoutFor(status));
+  }
+}
@@ -0,0 +1,105 @@
+package iudx.rs.proxy.databroker;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.rabbitmq.client.AMQP;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.JsonObject;
+import io.vertx.junit5.VertxExtension;
+import io.vertx.junit5.VertxTestContext;
+import io.vertx.rabbitmq.QueueOptions;
+import io.vertx.rabbitmq.RabbitMQClient;
+import io.vertx.rabbitmq.RabbitMQConsumer;
+import io.vertx.rabbitmq.RabbitMQMessage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+
+@ExtendWith(VertxExtension.class)
+class RpcReplyDispatcherTest {
+
+  private RpcReplyDispatcher dispatcher;
+  private Handler<RabbitMQMessage> replies;
+
+  @BeforeEach
+  @SuppressWarnings("unchecked")
+  void setUp(Vertx vertx, VertxTestContext testContext) {
+    RabbitMQClient client = mock(RabbitMQClient.class);
+    RabbitMQConsumer consumer = mock(RabbitMQConsumer.class);
+    when(client.basicConsumer(eq(RpcReplyDispatcher.DIRECT_REPLY_TO_QUEUE), any(QueueOptions.class)))
+        .thenReturn(Future.succeededFuture(consumer));
+    dispatcher = new RpcReplyDispatcher(vertx, client, true);
+    dispatcher.start().onComplete(testContext.succeeding(started -> {
+      ArgumentCaptor<Handler<RabbitMQMessage>> handler = ArgumentCaptor.forClass(Handler.class);
+      verify(consumer).handler(handler.capture());
+      replies = handler.getValue();
+      testContext.completeNow();
+    }));
+  }
+
+  private static RabbitMQMessage reply(String correlationId, JsonObject body) {
+    RabbitMQMessage msg = mock(RabbitMQMessage.class);
+    when(msg.properties())
+        .thenReturn(new AMQP.BasicProperties.Builder().correlationId(correlationId).build());
+    when(msg.body()).thenReturn(body.toBuffer());
+    return msg;
+  }
+
+  @Test
+  @DisplayName("replies reach the request with their correlation id")
+  void testRoutesByCorrelationId() {
+    Future<Buffer> first = dispatcher.expectReply("cid-1", 60000);
+    Future<Buffer> second = dispatcher.expectReply("cid-2", 60000);
+
+    replies.handle(reply("cid-2", new JsonObject().put("reply", 2)));
+
+    assertFalse(first.isComplete());
+    assertEquals(2, new JsonObject(second.result()).getInteger("reply"));
+    assertEquals(1, dispatcher.pendingCount());
+
+    replies.handle(reply("cid-1", new JsonObject().put("reply", 1)));
+    assertEquals(1, new JsonObject(first.result()).getInteger("reply"));
+    assertEquals(0, dispatcher.pendingCount());
+  }
+
+  @Test
+  @DisplayName("replies for unknown or answered ids are dropped")
+  void testUnknownReplyDropped() {
+    Future<Buffer> pending = dispatcher.expectReply("cid-1", 60000);
+
+    replies.handle(reply("cid-unknown", new JsonObject()));
+    replies.handle(reply(null, new JsonObject()));
+    assertFalse(pending.isComplete());
+
+    replies.handle(reply("cid-1", new JsonObject()));
+    replies.handle(reply("cid-1", new JsonObject()));
+    assertTrue(pending.succeeded());
+    assertEquals(3, dispatcher.droppedCount());
+  }
+
+  @Test
+  @DisplayName("timed out requests leave the pending map and their late reply is dropped")
+  void testTimeoutCleanup(Vertx vertx, VertxTestContext testContext) {
+    dispatcher.expectReply("cid-1", 10).onComplete(testContext.failing(cause -> {
+      testContext.verify(() -> {
+        assertEquals("request timed out", new JsonObject(cause.getMessage()).getString("title"));
+        assertEquals(0, dispatcher.pendingCount());
+        replies.handle(reply("cid-1", new JsonObject()));
+        assertEquals(1, dispatcher.droppedCount());
+      });
+      testContext.completeNow();
+    }));
+  }
+}
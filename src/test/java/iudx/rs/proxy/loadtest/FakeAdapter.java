@@ -0,0 +1,268 @@
+package iudx.rs.proxy.loadtest;
+
+import com.rabbitmq.client.AMQP;
+import com.rabbitmq.client.BasicProperties;
+import io.vertx.core.AbstractVerticle;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import iudx.rs.proxy.databroker.ChunkedReply;
+import iudx.rs.proxy.databroker.PayloadCodec;
+import iudx.rs.proxy.databroker.PayloadEncoder;
+import iudx.rs.proxy.databroker.RpcDeadlines;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Adapter replying to every request published through the {@link FakeBroker}, the in-JVM
+ * counterpart of <code>rpc_adapter_pune.py</code>.
+ *
+ * <pre>
+ * {
+ *   "latency": { "distribution": "lognormal", "medianMillis": 20, "p99Millis": 200 },
+ *   "resultCount": 100,
+ *   "recordBytes": 256,
+ *   "errorRate": 0.01,
+ *   "dropRate": 0.0,
+ *   "chunkSize": 0,
+ *   "chunkIntervalMillis": 0,
+ *   "cbor": false,
+ *   "gzip": false,
+ *   "seed": 42
+ * }
+ * </pre>
+ *
+ * <p>Latency distributions are <code>fixed</code> (<code>millis</code>), <code>uniform</code>
+ * (<code>minMillis</code>, <code>maxMillis</code>) and <code>lognormal</code>
+ * (<code>medianMillis</code>, <code>p99Millis</code>). Errors are replied with status 500, dropped
+ * requests get no reply at all. Requests whose <code>x-deadline</code> passed are skipped like a
+ * well behaved adapter does. Chunked, CBOR and gzip replies are only sent when announced by the
+ * proxy and enabled here. <code>chunkIntervalMillis</code> spaces search results pages of
+ * <code>chunkSize</code> records like an adapter paging through its database, a reply which is
+ * not chunked is then sent after the last page.
+ */
+public class FakeAdapter extends AbstractVerticle {
+
+  private static final double Z_99 = 2.326;
+
+  private final JsonObject config;
+  private final Random random;
+  private final Map<String, Buffer> replyCache = new HashMap<>();
+  private final AtomicLong received = new AtomicLong();
+  private final AtomicLong replied = new AtomicLong();
+  private final AtomicLong failed = new AtomicLong();
+  private final AtomicLong dropped = new AtomicLong();
+  private final AtomicLong expired = new AtomicLong();
+  private FakeBroker broker;
+
+  public FakeAdapter(JsonObject config) {
+    this.config = config;
+    this.random = new Random(config.getLong("seed", 42L));
+  }
+
+  void connect(FakeBroker broker) {
+    this.broker = broker;
+  }
+
+  /** called by the broker for every published request. */
+  void accept(String routingKey, BasicProperties properties, Buffer body) {
+    received.incrementAndGet();
+    context.runOnContext(v -> handle(properties, body));
+  }
+
+  public JsonObject stats() {
+    return new JsonObject()
+        .put("received", received.get())
+        .put("replied", replied.get())
+        .put("failed", failed.get())
+        .put("dropped", dropped.get())
+        .put("expired", expired.get());
+  }
+
+  private void handle(BasicProperties properties, Buffer body) {
+    if (isExpired(properties)) {
+      expired.incrementAndGet();
+      return;
+    }
+    if (random.nextDouble() < config.getDouble("dropRate", 0d)) {
+      dropped.incrementAndGet();
+      return;
+    }
+    boolean fail = random.nextDouble() < config.getDouble("errorRate", 0d);
+    long delay = nextLatencyMillis();
+    if (delay < 1) {
+      reply(properties, new JsonObject(body), fail);
+    } else {
+      vertx.setTimer(delay, timer -> reply(properties, new JsonObject(body), fail));
+    }
+  }
+
+  private void reply(BasicProperties properties, JsonObject request, boolean fail) {
+    if (isExpired(properties)) {
+      expired.incrementAndGet();
+      return;
+    }
+    String kind = fail ? "error" : kindOf(request);
+    String contentType = accepts(properties, PayloadCodec.ACCEPT_HEADER, PayloadCodec.CBOR, "cbor")
+        ? PayloadCodec.CBOR : PayloadCodec.JSON;
+    String contentEncoding =
+        accepts(properties, PayloadCodec.ACCEPT_ENCODING_HEADER, PayloadCodec.GZIP, "gzip")
+            ? PayloadCodec.GZIP : null;
+    int chunkSize = config.getInteger("chunkSize", 0);
+    int pages = "search".equals(kind) && chunkSize > 0
+        ? Math.max(1, (resultCount() + chunkSize - 1) / chunkSize)
+        : 0;
+    int chunks = isChunkedAccepted(properties) ? pages : 0;
+    long interval = config.getLong("chunkIntervalMillis", 0L);
+
+    if (chunks == 0 && pages > 1 && interval > 0) {
+      // a single reply can only be sent once every page was read.
+      Buffer reply = body(kind, -1, contentType, contentEncoding);
+      vertx.setTimer((pages - 1) * interval,
+          timer -> publish(properties, contentType, contentEncoding, null, reply));
+    } else if (chunks == 0) {
+      publish(properties, contentType, contentEncoding, null,
+          body(kind, -1, contentType, contentEncoding));
+    } else {
+      for (int seq = 0; seq < chunks; seq++) {
+        Map<String, Object> headers = new HashMap<>();
+        headers.put(ChunkedReply.SEQ_HEADER, seq);
+        headers.put(ChunkedReply.LAST_HEADER, seq == chunks - 1);
+        Buffer chunk = body(kind, seq, contentType, contentEncoding);
+        if (seq == 0 || interval == 0) {
+          publish(properties, contentType, contentEncoding, headers, chunk);
+        } else {
+          vertx.setTimer(seq * interval,
+              timer -> publish(properties, contentType, contentEncoding, headers, chunk));
+        }
+      }
+    }
+    if (fail) {
+      failed.incrementAndGet();
+    } else {
+      replied.incrementAndGet();
+    }
+  }
+
+  private void publish(BasicProperties request, String contentType, String contentEncoding,
+      Map<String, Object> headers, Buffer body) {
+    AMQP.BasicProperties properties = new AMQP.BasicProperties.Builder()
+        .correlationId(request.getCorrelationId())
+        .contentType(contentType)
+        .contentEncoding(contentEncoding)
+        .headers(headers)
+        .build();
+    broker.deliver(request.getReplyTo(), properties, body);
+  }
+
+  /* reply bodies only depend on kind, chunk and encoding, so they are built once. */
+  private Buffer body(String kind, int seq, String contentType, String contentEncoding) {
+    String key = kind + "|" + seq + "|" + contentType + "|" + contentEncoding;
+    return replyCache.computeIfAbsent(key,
+        k -> PayloadEncoder.encode(replyJson(kind, seq), contentType, contentEncoding));
+  }
+
+  private JsonObject replyJson(String kind, int seq) {
+    switch (kind) {
+      case "error":
+        return new JsonObject().put("statusCode", 500).put("details", "fake adapter failure");
+      case "count":
+        return new JsonObject().put("statusCode", 200).put("totalHits", resultCount());
+      case "asyncSearch":
+        return new JsonObject().put("statusCode", 201)
+            .put("searchId", UUID.nameUUIDFromBytes(kind.getBytes()).toString());
+      case "asyncStatus":
+        return new JsonObject().put("statusCode", 200)
+            .put("results", new JsonArray().add(new JsonObject()
+                .put("status", "COMPLETE")
+                .put("progress", 100)
+                .put("file-download-url", "https://example.org/fake-adapter/result.json")));
+      default:
+        int from = 0;
+        int to = resultCount();
+        JsonObject reply = new JsonObject().put("statusCode", 200);
+        if (seq >= 0) {
+          int chunkSize = config.getInteger("chunkSize");
+          from = seq * chunkSize;
+          to = Math.min(to, from + chunkSize);
+          if (to == resultCount()) {
+            reply.put("totalHits", resultCount()).put("limit", resultCount()).put("offset", 0);
+          }
+        } else {
+          reply.put("totalHits", resultCount()).put("limit", resultCount()).put("offset", 0);
+        }
+        JsonArray results = new JsonArray();
+        for (int i = from; i < to; i++) {
+          results.add(record(i));
+        }
+        return reply.put("results", results);
+    }
+  }
+
+  private JsonObject record(int i) {
+    int recordBytes = config.getInteger("recordBytes", 128);
+    StringBuilder padding = new StringBuilder(recordBytes);
+    while (padding.length() < recordBytes) {
+      padding.append((char) ('a' + (padding.length() + i) % 26));
+    }
+    return new JsonObject()
+        .put("id", "b58da193-23d9-43eb-b98a-a103d4b6103c")
+        .put("observationDateTime", "2020-10-10T14:20:" + String.format("%02d", i % 60) + "+05:30")
+        .put("currentLevel", i * 0.01)
+        .put("measuredDistance", 1.2 + i)
+        .put("payload", padding.toString());
+  }
+
+  private int resultCount() {
+    return config.getInteger("resultCount", 10);
+  }
+
+  private long nextLatencyMillis() {
+    JsonObject latency = config.getJsonObject("latency", new JsonObject());
+    switch (latency.getString("distribution", "fixed")) {
+      case "uniform":
+        long min = latency.getLong("minMillis", 0L);
+        long max = latency.getLong("maxMillis", min);
+        return min + (long) (random.nextDouble() * (max - min));
+      case "lognormal":
+        double median = latency.getDouble("medianMillis", 10d);
+        double p99 = latency.getDouble("p99Millis", median);
+        double sigma = Math.log(p99 / median) / Z_99;
+        return Math.round(median * Math.exp(sigma * random.nextGaussian()));
+      default:
+        return latency.getLong("millis", 0L);
+    }
+  }
+
+  private static String kindOf(JsonObject request) {
+    if (request.containsKey("searchId")) {
+      return "asyncStatus";
+    }
+    if ("count".equalsIgnoreCase(request.getString("options"))) {
+      return "count";
+    }
+    String api = request.getString("api", "");
+    return api.contains("/async/") ? "asyncSearch" : "search";
+  }
+
+  private boolean accepts(BasicProperties properties, String header, String value, String key) {
+    Map<String, Object> headers = properties.getHeaders();
+    return config.getBoolean(key, false) && headers != null && headers.get(header) != null
+        && headers.get(header).toString().contains(value);
+  }
+
+  private static boolean isChunkedAccepted(BasicProperties properties) {
+    Map<String, Object> headers = properties.getHeaders();
+    return headers != null
+        && Boolean.parseBoolean(String.valueOf(headers.get(ChunkedReply.ACCEPT_CHUNKED_HEADER)));
+  }
+
+  private static boolean isExpired(BasicProperties properties) {
+    Map<String, Object> headers = properties.getHeaders();
+    Object deadline = headers == null ? null : headers.get(RpcDeadlines.DEADLINE_HEADER);
+    return deadline != null && System.currentTimeMillis() > Long.parseLong(deadline.toString());
+  }
+}
@@ -0,0 +1,284 @@
+package iudx.rs.proxy.loadtest;
+
+import com.rabbitmq.client.AMQP;
+import com.rabbitmq.client.BasicProperties;
+import com.rabbitmq.client.Envelope;
+import com.rabbitmq.client.impl.AMQImpl;
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.rabbitmq.QueueOptions;
+import io.vertx.rabbitmq.RabbitMQClient;
+import io.vertx.rabbitmq.RabbitMQConsumer;
+import io.vertx.rabbitmq.RabbitMQMessage;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-JVM stand-in for the RabbitMQ broker, good enough to drive the real
+ * {@link iudx.rs.proxy.databroker.DatabrokerServiceImpl} in every rpc mode without a live broker.
+ *
+ * <p>Requests published to any exchange other than the default one are handed to the
+ * {@link FakeAdapter}, replies published to the default exchange are routed to the queue named by
+ * the routing key. Queues buffer messages until a consumer attaches, are deleted when their
+ * consumer is cancelled (auto-delete) and drop messages published to them afterwards. Consumers
+ * without auto-ack get one unacked message at a time, like the prefetch of 1 set by the proxy.
+ */
+public class FakeBroker {
+
+  private static final String DIRECT_REPLY_TO = "amq.rabbitmq.reply-to";
+
+  private final Vertx vertx;
+  private final FakeAdapter adapter;
+  private final Map<String, FakeQueue> queues = new ConcurrentHashMap<>();
+  private final Map<Long, FakeQueue> unacked = new ConcurrentHashMap<>();
+  private final AtomicLong deliveryTags = new AtomicLong();
+  private final AtomicInteger clientIds = new AtomicInteger();
+  private final AtomicLong dropped = new AtomicLong();
+
+  public FakeBroker(Vertx vertx, FakeAdapter adapter) {
+    this.vertx = vertx;
+    this.adapter = adapter;
+    adapter.connect(this);
+  }
+
+  /** a new client, i.e. a connection with a single channel to this broker. */
+  public RabbitMQClient client() {
+    String channelId = String.valueOf(clientIds.incrementAndGet());
+    return stub(RabbitMQClient.class, (proxy, method, args) -> {
+      Object[] arguments = args == null ? new Object[0] : args;
+      Handler<AsyncResult<Object>> callback = callbackOf(arguments);
+      Future<?> result;
+      switch (method.getName()) {
+        case "isConnected":
+        case "isOpenChannel":
+          return true;
+        case "queueDeclare":
+          result = Future.succeededFuture(declare((String) arguments[0]));
+          break;
+        case "basicConsumer":
+          result = Future.succeededFuture(
+              consume(channelId, (String) arguments[0], (QueueOptions) arguments[1]));
+          break;
+        case "basicPublish":
+          publish(channelId, arguments);
+          result = Future.succeededFuture();
+          break;
+        case "basicAck":
+        case "basicNack":
+          ack((Long) arguments[0]);
+          result = Future.succeededFuture();
+          break;
+        case "start":
+        case "stop":
+        case "basicQos":
+        case "confirmSelect":
+        case "waitForConfirms":
+          result = Future.succeededFuture();
+          break;
+        case "toString":
+          return "FakeBroker client " + channelId;
+        case "hashCode":
+          return System.identityHashCode(proxy);
+        case "equals":
+          return proxy == arguments[0];
+        default:
+          throw new UnsupportedOperationException(method.getName() + " not supported by fake");
+      }
+      if (callback != null) {
+        callback.handle((AsyncResult<Object>) result);
+        return null;
+      }
+      return method.getReturnType() == void.class ? null : result;
+    });
+  }
+
+  /** messages published to a queue that no longer exists, i.e. late replies. */
+  public long droppedCount() {
+    return dropped.get();
+  }
+
+  /** deliver a message to a queue the way a publish on the default exchange does. */
+  void deliver(String queueName, BasicProperties properties, Buffer body) {
+    FakeQueue queue = queues.get(queueName);
+    if (queue == null) {
+      dropped.incrementAndGet();
+      return;
+    }
+    queue.enqueue(properties, body);
+  }
+
+  private AMQP.Queue.DeclareOk declare(String queueName) {
+    queues.computeIfAbsent(queueName, FakeQueue::new);
+    return new AMQImpl.Queue.DeclareOk(queueName, 0, 0);
+  }
+
+  private RabbitMQConsumer consume(String channelId, String queueName, QueueOptions options) {
+    // direct reply-to is scoped to the channel consuming it.
+    String name = DIRECT_REPLY_TO.equals(queueName) ? DIRECT_REPLY_TO + "." + channelId : queueName;
+    FakeQueue queue = queues.computeIfAbsent(name, FakeQueue::new);
+    Context context = vertx.getOrCreateContext();
+    return queue.attach(context, options.isAutoAck());
+  }
+
+  private void publish(String channelId, Object[] args) {
+    String exchange = (String) args[0];
+    String routingKey = (String) args[1];
+    BasicProperties properties = args[2] instanceof BasicProperties
+        ? (BasicProperties) args[2]
+        : new AMQP.BasicProperties();
+    Buffer body = (Buffer) (args[2] instanceof BasicProperties ? args[3] : args[2]);
+    if (exchange == null || exchange.isEmpty()) {
+      deliver(routingKey, properties, body);
+      return;
+    }
+    if (DIRECT_REPLY_TO.equals(properties.getReplyTo())) {
+      properties = ((AMQP.BasicProperties) properties).builder()
+          .replyTo(DIRECT_REPLY_TO + "." + channelId)
+          .build();
+    }
+    adapter.accept(routingKey, properties, body);
+  }
+
+  private void ack(long deliveryTag) {
+    FakeQueue queue = unacked.remove(deliveryTag);
+    if (queue != null) {
+      queue.acked();
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Handler<AsyncResult<Object>> callbackOf(Object[] args) {
+    if (args.length > 0 && args[args.length - 1] instanceof Handler) {
+      return (Handler<AsyncResult<Object>>) args[args.length - 1];
+    }
+    return null;
+  }
+
+  @SuppressWarnings("unchecked")
+  static <T> T stub(Class<T> type, InvocationHandler handler) {
+    return (T) Proxy.newProxyInstance(FakeBroker.class.getClassLoader(), new Class<?>[] {type},
+        handler);
+  }
+
+  private final class FakeQueue {
+    private final String name;
+    private final Deque<RabbitMQMessage> messages = new ArrayDeque<>();
+    private Context context;
+    private Handler<RabbitMQMessage> handler;
+    private boolean autoAck;
+    private boolean inFlight;
+    private boolean cancelled;
+
+    FakeQueue(String name) {
+      this.name = name;
+    }
+
+    synchronized void enqueue(BasicProperties properties, Buffer body) {
+      long deliveryTag = deliveryTags.incrementAndGet();
+      Envelope envelope = new Envelope(deliveryTag, false, "", name);
+      messages.add(message(envelope, properties, body));
+      drain();
+    }
+
+    synchronized RabbitMQConsumer attach(Context consumerContext, boolean consumerAutoAck) {
+      this.context = consumerContext;
+      this.autoAck = consumerAutoAck;
+      String consumerTag = UUID.randomUUID().toString();
+      return stub(RabbitMQConsumer.class, (proxy, method, args) -> {
+        switch (method.getName()) {
+          case "handler":
+            setHandler((Handler<RabbitMQMessage>) args[0]);
+            return proxy;
+          case "cancel":
+            cancel();
+            if (args != null && args.length == 1) {
+              ((Handler<AsyncResult<Void>>) args[0]).handle(Future.succeededFuture());
+              return null;
+            }
+            return Future.succeededFuture();
+          case "isCancelled":
+            return cancelled;
+          case "isPaused":
+            return false;
+          case "queueName":
+            return name;
+          case "consumerTag":
+            return consumerTag;
+          case "hashCode":
+            return System.identityHashCode(proxy);
+          case "equals":
+            return proxy == args[0];
+          case "toString":
+            return "FakeConsumer " + name;
+          default:
+            // exceptionHandler, endHandler, pause, resume, fetch, setQueueName
+            return method.getReturnType().isInstance(proxy) ? proxy : null;
+        }
+      });
+    }
+
+    synchronized void acked() {
+      inFlight = false;
+      drain();
+    }
+
+    private synchronized void setHandler(Handler<RabbitMQMessage> messageHandler) {
+      this.handler = messageHandler;
+      drain();
+    }
+
+    private synchronized void cancel() {
+      cancelled = true;
+      queues.remove(name, this);
+      dropped.addAndGet(messages.size());
+      messages.clear();
+    }
+
+    private void drain() {
+      while (handler != null && !cancelled && !messages.isEmpty() && (autoAck || !inFlight)) {
+        RabbitMQMessage message = messages.poll();
+        if (!autoAck) {
+          inFlight = true;
+          unacked.put(message.envelope().getDeliveryTag(), this);
+        }
+        Handler<RabbitMQMessage> target = handler;
+        context.runOnContext(v -> target.handle(message));
+      }
+    }
+  }
+
+  private static RabbitMQMessage message(Envelope envelope, BasicProperties properties,
+      Buffer body) {
+    return stub(RabbitMQMessage.class, (proxy, method, args) -> {
+      switch (method.getName()) {
+        case "body":
+          return body;
+        case "envelope":
+          return envelope;
+        case "properties":
+          return properties;
+        case "consumerTag":
+          return envelope.getRoutingKey();
+        case "messageCount":
+          return 0;
+        case "hashCode":
+          return System.identityHashCode(proxy);
+        case "equals":
+          return proxy == args[0];
+        default:
+          return "FakeMessage " + envelope.getDeliveryTag();
+      }
+    });
+  }
+}
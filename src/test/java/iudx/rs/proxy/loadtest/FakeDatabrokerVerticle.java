@@ -0,0 +1,61 @@
+package iudx.rs.proxy.loadtest;
+
+import static iudx.rs.proxy.common.Constants.DATABROKER_SERVICE_ADDRESS;
+
+import io.vertx.core.AbstractVerticle;
+import io.vertx.core.CompositeFuture;
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.json.JsonObject;
+import io.vertx.rabbitmq.RabbitMQClient;
+import io.vertx.serviceproxy.ServiceBinder;
+import iudx.rs.proxy.databroker.AdapterGuard;
+import iudx.rs.proxy.databroker.DatabrokerService;
+import iudx.rs.proxy.databroker.DatabrokerServiceImpl;
+import iudx.rs.proxy.databroker.PayloadCodec;
+import iudx.rs.proxy.databroker.RabbitMQClientPool;
+import iudx.rs.proxy.databroker.RpcDeadlines;
+import iudx.rs.proxy.databroker.RpcMode;
+import iudx.rs.proxy.databroker.RpcReplyDispatcher;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Same wiring as the DatabrokerVerticle, the RabbitMQ client being one of the {@link FakeBroker},
+ * so every request goes through the real {@link DatabrokerServiceImpl} RPC code.
+ */
+public class FakeDatabrokerVerticle extends AbstractVerticle {
+
+  private final FakeBroker broker;
+
+  public FakeDatabrokerVerticle(FakeBroker broker) {
+    this.broker = broker;
+  }
+
+  @Override
+  public void start(Promise<Void> startPromise) {
+    RpcMode rpcMode = RpcMode.fromConfig(config().getString("adapterQueryRpcMode"));
+    RabbitMQClient client = broker.client();
+    List<RpcReplyDispatcher> replyDispatchers = new ArrayList<>();
+    List<Future> startFutures = new ArrayList<>();
+    if (rpcMode != RpcMode.PER_REQUEST_QUEUE) {
+      RpcReplyDispatcher replyDispatcher =
+          new RpcReplyDispatcher(vertx, client, rpcMode == RpcMode.DIRECT_REPLY_TO);
+      replyDispatchers.add(replyDispatcher);
+      startFutures.add(replyDispatcher.start());
+    }
+    CompositeFuture.all(startFutures).onSuccess(started -> {
+      AdapterGuard adapterGuard = config().containsKey("adapterGuard")
+          ? new AdapterGuard(config().getJsonObject("adapterGuard"))
+          : null;
+      DatabrokerService service = new DatabrokerServiceImpl(vertx,
+          RabbitMQClientPool.of(client), broker.client(), "rpc-adapter-requests",
+          "rpc_responses", replyDispatchers, adapterGuard,
+          new RpcDeadlines(config().getJsonObject("adapterDeadlines", new JsonObject())),
+          new PayloadCodec(config().getJsonObject("adapterPayloadCodec", new JsonObject())));
+      new ServiceBinder(vertx).setAddress(DATABROKER_SERVICE_ADDRESS)
+          .register(DatabrokerService.class, service);
+      startPromise.complete();
+    }).onFailure(startPromise::fail);
+  }
+}
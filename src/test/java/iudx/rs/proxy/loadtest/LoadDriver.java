@@ -0,0 +1,226 @@
+package iudx.rs.proxy.loadtest;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.core.json.JsonObject;
+import io.vertx.core.streams.WriteStream;
+import io.vertx.ext.web.client.HttpRequest;
+import io.vertx.ext.web.client.HttpResponse;
+import io.vertx.ext.web.client.WebClient;
+import io.vertx.ext.web.client.WebClientOptions;
+import io.vertx.ext.web.codec.BodyCodec;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Closed loop load generator, a fixed number of workers each sending the next request as soon as
+ * the previous one completed, for a fixed duration.
+ *
+ * <p>Response bodies are counted and discarded, not buffered, so the driver adds little to the
+ * allocation and heap figures of the report. Those are taken for the whole JVM, fake broker and
+ * adapter included, and are only meaningful when comparing two runs of the same scenario.
+ */
+public class LoadDriver {
+
+  private final Vertx vertx;
+  private final WebClient client;
+
+  public LoadDriver(Vertx vertx, int port, int concurrency) {
+    this.vertx = vertx;
+    this.client = WebClient.create(vertx, new WebClientOptions()
+        .setDefaultHost("localhost")
+        .setDefaultPort(port)
+        .setMaxPoolSize(concurrency)
+        .setKeepAlive(true));
+  }
+
+  /**
+   * run one scenario.
+   *
+   * @param name scenario name used in the report
+   * @param request creates the request to send, called once per request
+   * @param body request body, null for GET requests
+   * @param expectedStatus status counted as success
+   * @param concurrency number of requests in flight
+   * @param durationMillis time to keep sending requests
+   * @return latency and time to first byte percentiles, throughput, error count, mean response
+   *     size, allocation per request and peak heap of the scenario
+   */
+  public Future<JsonObject> run(String name, Supplier<HttpRequest<Buffer>> request, Buffer body,
+      int expectedStatus, int concurrency, long durationMillis) {
+    Recorder recorder = new Recorder();
+    System.gc();
+    heapPools().forEach(MemoryPoolMXBean::resetPeakUsage);
+    long allocatedBefore = allocatedBytes();
+    long startNanos = System.nanoTime();
+    long endNanos = startNanos + TimeUnit.MILLISECONDS.toNanos(durationMillis);
+    Promise<JsonObject> promise = Promise.promise();
+    AtomicInteger running = new AtomicInteger(concurrency);
+    for (int i = 0; i < concurrency; i++) {
+      next(request, body, expectedStatus, endNanos, recorder, () -> {
+        if (running.decrementAndGet() == 0) {
+          JsonObject report = recorder.report(name, concurrency, System.nanoTime() - startNanos);
+          int requests = report.getInteger("requests");
+          promise.complete(report
+              .put("allocatedKbPerRequest", requests == 0 ? 0
+                  : (allocatedBytes() - allocatedBefore) / requests / 1024)
+              .put("peakHeapMb", heapPools().stream()
+                  .mapToLong(pool -> pool.getPeakUsage().getUsed()).sum() >> 20));
+        }
+      });
+    }
+    return promise.future();
+  }
+
+  public void close() {
+    client.close();
+  }
+
+  private void next(Supplier<HttpRequest<Buffer>> request, Buffer body, int expectedStatus,
+      long endNanos, Recorder recorder, Runnable done) {
+    if (System.nanoTime() >= endNanos) {
+      done.run();
+      return;
+    }
+    long sentNanos = System.nanoTime();
+    CountingStream counter = new CountingStream();
+    HttpRequest<Void> httpRequest = request.get().as(BodyCodec.pipe(counter));
+    Future<HttpResponse<Void>> response =
+        body == null ? httpRequest.send() : httpRequest.sendBuffer(body);
+    response.onComplete(result -> {
+      boolean ok = result.succeeded() && result.result().statusCode() == expectedStatus;
+      long ttfbNanos = counter.firstByteNanos == 0 ? 0 : counter.firstByteNanos - sentNanos;
+      recorder.record(System.nanoTime() - sentNanos, ttfbNanos, counter.bytes, ok);
+      vertx.runOnContext(v -> next(request, body, expectedStatus, endNanos, recorder, done));
+    });
+  }
+
+  HttpRequest<Buffer> request(HttpMethod method, String uri) {
+    return client.request(method, uri);
+  }
+
+  private static long allocatedBytes() {
+    com.sun.management.ThreadMXBean threads =
+        (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    return Arrays.stream(threads.getThreadAllocatedBytes(threads.getAllThreadIds()))
+        .filter(bytes -> bytes > 0)
+        .sum();
+  }
+
+  private static List<MemoryPoolMXBean> heapPools() {
+    return ManagementFactory.getMemoryPoolMXBeans().stream()
+        .filter(pool -> pool.getType() == MemoryType.HEAP)
+        .collect(Collectors.toList());
+  }
+
+  /* body sink of one response, notes when the first bytes arrived and how many there were. */
+  private static final class CountingStream implements WriteStream<Buffer> {
+    private long firstByteNanos;
+    private long bytes;
+
+    @Override
+    public WriteStream<Buffer> exceptionHandler(Handler<Throwable> handler) {
+      return this;
+    }
+
+    @Override
+    public Future<Void> write(Buffer data) {
+      if (firstByteNanos == 0) {
+        firstByteNanos = System.nanoTime();
+      }
+      bytes += data.length();
+      return Future.succeededFuture();
+    }
+
+    @Override
+    public void write(Buffer data, Handler<AsyncResult<Void>> handler) {
+      write(data).onComplete(handler);
+    }
+
+    @Override
+    public void end(Handler<AsyncResult<Void>> handler) {
+      handler.handle(Future.succeededFuture());
+    }
+
+    @Override
+    public WriteStream<Buffer> setWriteQueueMaxSize(int maxSize) {
+      return this;
+    }
+
+    @Override
+    public boolean writeQueueFull() {
+      return false;
+    }
+
+    @Override
+    public WriteStream<Buffer> drainHandler(Handler<Void> handler) {
+      return this;
+    }
+  }
+
+  /* latencies of one scenario, workers may complete on different event loops. */
+  private static final class Recorder {
+    private long[] latencies = new long[1 << 14];
+    private long[] firstBytes = new long[1 << 14];
+    private long bytes;
+    private int count;
+    private int errors;
+
+    synchronized void record(long nanos, long firstByteNanos, long responseBytes, boolean ok) {
+      if (count == latencies.length) {
+        latencies = Arrays.copyOf(latencies, count * 2);
+        firstBytes = Arrays.copyOf(firstBytes, count * 2);
+      }
+      firstBytes[count] = firstByteNanos;
+      latencies[count++] = nanos;
+      bytes += responseBytes;
+      if (!ok) {
+        errors++;
+      }
+    }
+
+    synchronized JsonObject report(String name, int concurrency, long elapsedNanos) {
+      long[] sorted = Arrays.copyOf(latencies, count);
+      Arrays.sort(sorted);
+      long[] sortedFirstBytes = Arrays.copyOf(firstBytes, count);
+      Arrays.sort(sortedFirstBytes);
+      double seconds = elapsedNanos / 1e9;
+      return new JsonObject()
+          .put("scenario", name)
+          .put("concurrency", concurrency)
+          .put("requests", count)
+          .put("errors", errors)
+          .put("rps", Math.round(count / seconds * 10) / 10d)
+          .put("p50Millis", millis(percentile(sorted, 0.50)))
+          .put("p99Millis", millis(percentile(sorted, 0.99)))
+          .put("maxMillis", millis(count == 0 ? 0 : sorted[count - 1]))
+          .put("ttfbP50Millis", millis(percentile(sortedFirstBytes, 0.50)))
+          .put("ttfbP99Millis", millis(percentile(sortedFirstBytes, 0.99)))
+          .put("responseBytes", count == 0 ? 0 : bytes / count);
+    }
+
+    private static long percentile(long[] sorted, double p) {
+      if (sorted.length == 0) {
+        return 0;
+      }
+      int index = (int) Math.ceil(p * sorted.length) - 1;
+      return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+
+    private static double millis(long nanos) {
+      return Math.round(nanos / 1e4) / 100d;
+    }
+  }
+}
@@ -0,0 +1,220 @@
+package iudx.rs.proxy.loadtest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.vertx.core.DeploymentOptions;
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.web.client.HttpRequest;
+import io.vertx.junit5.Timeout;
+import io.vertx.junit5.VertxExtension;
+import io.vertx.junit5.VertxTestContext;
+import iudx.rs.proxy.apiserver.ApiServerVerticle;
+import iudx.rs.proxy.apiserver.service.CatalogueService;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+/**
+ * End to end throughput of the api server against the in-JVM {@link FakeBroker} and
+ * {@link FakeAdapter}, with auth, metering, database and catalogue stubbed, so it runs offline.
+ *
+ * <p>Tuned with system properties: <code>loadtest.durationSeconds</code> (per scenario, default
+ * 2), <code>loadtest.concurrency</code> (default 16), <code>loadtest.rpcMode</code> (any
+ * <code>adapterQueryRpcMode</code>), <code>loadtest.adapter</code> (a {@link FakeAdapter}
+ * config as JSON) and <code>loadtest.apiServer</code> (JSON merged into the api server config,
+ * e.g. <code>{"adapterResponsePassThrough":true}</code>). Results are logged and written to <code>target/loadtest-report.json</code>.
+ *
+ * <p>Tagged <code>loadtest</code>, which the default build excludes; run it with
+ * <code>-Ploadtest</code>.
+ */
+@Tag("loadtest")
+@ExtendWith(VertxExtension.class)
+@Timeout(value = 30, timeUnit = TimeUnit.MINUTES)
+class ProxyLoadTest {
+
+  private static final Logger LOGGER = LogManager.getLogger(ProxyLoadTest.class);
+
+  private static final String ID = StubCatalogueServer.RESOURCE_ID;
+  private static final String BASE_PATH = "/ngsi-ld/v1";
+  private static final String TOKEN = "fake.consumer.token";
+  private static final String TEMPORAL_PARAMS =
+      "&timerel=during&time=2020-10-10T14:20:00Z&endtime=2020-10-11T14:20:00Z";
+
+  private static final long DURATION_MILLIS =
+      TimeUnit.SECONDS.toMillis(Long.getLong("loadtest.durationSeconds", 2));
+  private static final int CONCURRENCY = Integer.getInteger("loadtest.concurrency", 16);
+  private static final String RPC_MODE = System.getProperty("loadtest.rpcMode", "");
+  private static final JsonObject ADAPTER_CONFIG = new JsonObject(System.getProperty(
+      "loadtest.adapter",
+      "{\"latency\":{\"distribution\":\"lognormal\",\"medianMillis\":5,\"p99Millis\":50},"
+          + "\"resultCount\":50,\"recordBytes\":256}"));
+  private static final JsonObject API_SERVER_CONFIG =
+      new JsonObject(System.getProperty("loadtest.apiServer", "{}"));
+
+  private static final JsonArray REPORTS = new JsonArray();
+
+  private static FakeAdapter adapter;
+  private static FakeBroker broker;
+  private static LoadDriver driver;
+
+  @BeforeAll
+  static void startProxy(Vertx vertx, VertxTestContext testContext) {
+    adapter = new FakeAdapter(ADAPTER_CONFIG);
+    broker = new FakeBroker(vertx, adapter);
+    StubCatalogueServer catalogue = new StubCatalogueServer();
+    int port = freePort();
+
+    vertx.deployVerticle(catalogue)
+        .compose(deployed -> vertx.deployVerticle(new StubServices()))
+        .compose(deployed -> vertx.deployVerticle(adapter))
+        .compose(deployed -> vertx.deployVerticle(new FakeDatabrokerVerticle(broker),
+            new DeploymentOptions().setConfig(new JsonObject()
+                .put("adapterQueryRpcMode", RPC_MODE))))
+        .compose(deployed -> vertx.deployVerticle(new ApiServerVerticle(),
+            new DeploymentOptions().setConfig(apiServerConfig(port, catalogue.port()))))
+        .compose(deployed -> {
+          driver = new LoadDriver(vertx, port, CONCURRENCY);
+          return awaitReady(vertx);
+        })
+        .onComplete(testContext.succeedingThenComplete());
+  }
+
+  @AfterAll
+  static void writeReport() throws IOException {
+    if (driver != null) {
+      driver.close();
+    }
+    JsonObject report = new JsonObject()
+        .put("rpcMode", RPC_MODE.isEmpty() ? "PER_REQUEST_QUEUE" : RPC_MODE)
+        .put("adapter", ADAPTER_CONFIG)
+        .put("apiServer", API_SERVER_CONFIG)
+        .put("adapterStats", adapter.stats())
+        .put("lateReplies", broker.droppedCount())
+        .put("scenarios", REPORTS);
+    LOGGER.info("load test report : {}", report.encodePrettily());
+    Path target = Paths.get("target");
+    Files.createDirectories(target);
+    Files.writeString(target.resolve("loadtest-report.json"), report.encodePrettily());
+  }
+
+  @Test
+  @DisplayName("GET /entities")
+  void entities(VertxTestContext testContext) {
+    run("entities",
+        () -> get(BASE_PATH + "/entities?id=" + ID + "&q=currentLevel%3E0.5"),
+        null, 200, testContext);
+  }
+
+  @Test
+  @DisplayName("GET /temporal/entities")
+  void temporal(VertxTestContext testContext) {
+    run("temporal",
+        () -> get(BASE_PATH + "/temporal/entities?id=" + ID + TEMPORAL_PARAMS),
+        null, 200, testContext);
+  }
+
+  @Test
+  @DisplayName("POST /entityOperations/query")
+  void postQuery(VertxTestContext testContext) {
+    Buffer body = new JsonObject()
+        .put("type", "Query")
+        .put("entities", new JsonArray().add(new JsonObject().put("id", ID)))
+        .put("q", "currentLevel>0.5")
+        .toBuffer();
+    run("postQuery",
+        () -> driver.request(HttpMethod.POST, BASE_PATH + "/entityOperations/query")
+            .putHeader("token", TOKEN)
+            .putHeader("Content-Type", "application/json"),
+        body, 200, testContext);
+  }
+
+  @Test
+  @DisplayName("GET /async/search")
+  void asyncSearch(VertxTestContext testContext) {
+    run("asyncSearch",
+        () -> get(BASE_PATH + "/async/search?id=" + ID + TEMPORAL_PARAMS),
+        null, 201, testContext);
+  }
+
+  private void run(String name, Supplier<HttpRequest<Buffer>> request, Buffer body,
+      int expectedStatus, VertxTestContext testContext) {
+    driver.run(name, request, body, expectedStatus, CONCURRENCY, DURATION_MILLIS)
+        .onComplete(testContext.succeeding(report -> testContext.verify(() -> {
+          LOGGER.info("{}", report);
+          REPORTS.add(report);
+          assertTrue(report.getInteger("requests") > 0);
+          if (ADAPTER_CONFIG.getDouble("errorRate", 0d) == 0
+              && ADAPTER_CONFIG.getDouble("dropRate", 0d) == 0) {
+            assertEquals(0, report.getInteger("errors"));
+          }
+          testContext.completeNow();
+        })));
+  }
+
+  private static HttpRequest<Buffer> get(String uri) {
+    return driver.request(HttpMethod.GET, uri).putHeader("token", TOKEN);
+  }
+
+  /* the catalogue cache is filled asynchronously and the http server listens in the background. */
+  private static Future<Void> awaitReady(Vertx vertx) {
+    Promise<Void> ready = Promise.promise();
+    long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(30);
+    vertx.setPeriodic(100, timer -> {
+      if (System.currentTimeMillis() > deadline) {
+        vertx.cancelTimer(timer);
+        ready.tryFail("proxy not ready");
+        return;
+      }
+      if (CatalogueService.getCatalogueItemJson(ID) == null) {
+        return;
+      }
+      get(BASE_PATH + "/entities?id=" + ID).send().onSuccess(response -> {
+        if (response.statusCode() == 200 && ready.tryComplete()) {
+          vertx.cancelTimer(timer);
+        }
+      });
+    });
+    return ready.future();
+  }
+
+  private static JsonObject apiServerConfig(int port, int catPort) {
+    return new JsonObject()
+        .put("port", port)
+        .put("ssl", false)
+        .put("production", false)
+        .put("catServerHost", "localhost")
+        .put("catServerPort", catPort)
+        .put("dxApiBasePath", BASE_PATH)
+        .put("dxCatalogueBasePath", "/iudx/cat/v1")
+        .put("dxAuthBasePath", "/auth/v1")
+        .put("isAdexInstance", false)
+        .mergeIn(API_SERVER_CONFIG);
+  }
+
+  private static int freePort() {
+    try (ServerSocket socket = new ServerSocket(0)) {
+      return socket.getLocalPort();
+    } catch (IOException e) {
+      throw new IllegalStateException("no free port", e);
+    }
+  }
+}
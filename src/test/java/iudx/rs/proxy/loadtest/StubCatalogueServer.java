@@ -0,0 +1,71 @@
+package iudx.rs.proxy.loadtest;
+
+import io.vertx.core.AbstractVerticle;
+import io.vertx.core.Promise;
+import io.vertx.core.http.HttpServer;
+import io.vertx.core.http.HttpServerOptions;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.core.net.SelfSignedCertificate;
+import io.vertx.ext.web.Router;
+
+/**
+ * Catalogue server with one resource group and one resource in it, serving the search used to
+ * fill the catalogue cache and the item lookup. Served over TLS with a self-signed certificate, the
+ * catalogue client trusts any certificate.
+ */
+public class StubCatalogueServer extends AbstractVerticle {
+
+  static final String RESOURCE_ID = "b58da193-23d9-43eb-b98a-a103d4b6103c";
+  static final String GROUP_ID = "5b7556b5-0779-4c47-9cf2-3f209779aa22";
+  static final String PROVIDER_ID = "8b95ab80-2aaf-4636-a65e-7f2563d0d371";
+
+  private HttpServer server;
+
+  @Override
+  public void start(Promise<Void> startPromise) {
+    JsonArray apis = new JsonArray().add("TEMPORAL").add("ATTR").add("SPATIAL");
+    JsonObject resource = new JsonObject()
+        .put("id", RESOURCE_ID)
+        .put("type", new JsonArray().add("iudx:Resource"))
+        .put("name", "FWR055")
+        .put("provider", PROVIDER_ID)
+        .put("resourceGroup", GROUP_ID)
+        .put("accessPolicy", "SECURE")
+        .put("iudxResourceAPIs", apis);
+    JsonObject group = new JsonObject()
+        .put("id", GROUP_ID)
+        .put("type", new JsonArray().add("iudx:ResourceGroup"))
+        .put("name", "pune-env-flood")
+        .put("provider", PROVIDER_ID)
+        .put("iudxResourceAPIs", apis);
+    JsonObject search = new JsonObject()
+        .put("type", "urn:dx:cat:Success")
+        .put("totalHits", 2)
+        .put("results", new JsonArray().add(resource).add(group));
+
+    Router router = Router.router(vertx);
+    router.get("/iudx/cat/v1/search").handler(ctx -> ctx.json(search));
+    router.get("/iudx/cat/v1/item").handler(ctx -> {
+      String id = ctx.request().getParam("id");
+      JsonObject item = GROUP_ID.equals(id) ? group : resource;
+      ctx.json(new JsonObject().put("type", "urn:dx:cat:Success")
+          .put("results", new JsonArray().add(item)));
+    });
+    SelfSignedCertificate certificate = SelfSignedCertificate.create();
+    vertx.createHttpServer(new HttpServerOptions()
+            .setSsl(true)
+            .setKeyCertOptions(certificate.keyCertOptions()))
+        .requestHandler(router)
+        .listen(0)
+        .onSuccess(httpServer -> {
+          server = httpServer;
+          startPromise.complete();
+        })
+        .onFailure(startPromise::fail);
+  }
+
+  int port() {
+    return server.actualPort();
+  }
+}
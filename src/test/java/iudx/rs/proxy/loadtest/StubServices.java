@@ -0,0 +1,122 @@
+package iudx.rs.proxy.loadtest;
+
+import static iudx.rs.proxy.apiserver.util.ApiServerConstants.IID;
+import static iudx.rs.proxy.apiserver.util.ApiServerConstants.USER_ID;
+import static iudx.rs.proxy.authenticator.Constants.DID;
+import static iudx.rs.proxy.authenticator.Constants.DRL;
+import static iudx.rs.proxy.authenticator.Constants.JSON_APD;
+import static iudx.rs.proxy.authenticator.Constants.JSON_CONS;
+import static iudx.rs.proxy.authenticator.Constants.ROLE;
+import static iudx.rs.proxy.common.Constants.AUTH_SERVICE_ADDRESS;
+import static iudx.rs.proxy.common.Constants.DB_SERVICE_ADDRESS;
+import static iudx.rs.proxy.common.Constants.METERING_SERVICE_ADDRESS;
+
+import io.vertx.core.AbstractVerticle;
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.serviceproxy.ServiceBinder;
+import iudx.rs.proxy.authenticator.AuthenticationService;
+import iudx.rs.proxy.authenticator.model.JwtData;
+import iudx.rs.proxy.common.ResponseUrn;
+import iudx.rs.proxy.database.DatabaseService;
+import iudx.rs.proxy.metering.MeteringService;
+
+/**
+ * Auth, metering and database services answering on their usual event bus addresses without
+ * any backend, every token is a valid consumer token and every write succeeds.
+ */
+public class StubServices extends AbstractVerticle {
+
+  static final String USER = "fd47486b-3497-4248-ac1e-082e4d37a66c";
+
+  @Override
+  public void start() {
+    ServiceBinder binder = new ServiceBinder(vertx);
+    binder.setAddress(AUTH_SERVICE_ADDRESS)
+        .register(AuthenticationService.class, new StubAuthenticationService());
+    binder.setAddress(METERING_SERVICE_ADDRESS)
+        .register(MeteringService.class, new StubMeteringService());
+    binder.setAddress(DB_SERVICE_ADDRESS)
+        .register(DatabaseService.class, new StubDatabaseService());
+  }
+
+  private static final class StubAuthenticationService implements AuthenticationService {
+
+    @Override
+    public AuthenticationService tokenIntrospect(JsonObject request,
+        JsonObject authenticationInfo, JwtData jwtData,
+        Handler<AsyncResult<JsonObject>> handler) {
+      handler.handle(Future.succeededFuture(new JsonObject()
+          .put(IID, authenticationInfo.getString("id"))
+          .put(USER_ID, USER)
+          .put(ROLE, "consumer")
+          .put(JSON_APD, new JsonObject())
+          .put(JSON_CONS, new JsonObject())
+          .putNull(DID)
+          .putNull(DRL)));
+      return this;
+    }
+
+    @Override
+    public AuthenticationService decodeJwt(String jwtToken,
+        Handler<AsyncResult<JwtData>> handler) {
+      JwtData jwtData = new JwtData();
+      jwtData.setSub(USER);
+      jwtData.setRole("consumer");
+      jwtData.setIss("auth.test.com");
+      jwtData.setAud("rs.iudx.io");
+      handler.handle(Future.succeededFuture(jwtData));
+      return this;
+    }
+  }
+
+  private static final class StubMeteringService implements MeteringService {
+
+    @Override
+    public MeteringService executeReadQuery(JsonObject request,
+        Handler<AsyncResult<JsonObject>> handler) {
+      handler.handle(Future.succeededFuture(success()));
+      return this;
+    }
+
+    @Override
+    public MeteringService insertMeteringValuesInRMQ(JsonObject request,
+        Handler<AsyncResult<JsonObject>> handler) {
+      handler.handle(Future.succeededFuture(success()));
+      return this;
+    }
+  }
+
+  private static final class StubDatabaseService implements DatabaseService {
+
+    @Override
+    public DatabaseService searchQuery(JsonObject request,
+        Handler<AsyncResult<JsonObject>> handler) {
+      handler.handle(Future.succeededFuture(success()));
+      return this;
+    }
+
+    @Override
+    public DatabaseService countQuery(JsonObject request,
+        Handler<AsyncResult<JsonObject>> handler) {
+      handler.handle(Future.succeededFuture(success()));
+      return this;
+    }
+
+    @Override
+    public DatabaseService executeQuery(JsonObject jsonObject,
+        Handler<AsyncResult<JsonObject>> handler) {
+      handler.handle(Future.succeededFuture(success()));
+      return this;
+    }
+  }
+
+  private static JsonObject success() {
+    return new JsonObject()
+        .put("type", ResponseUrn.SUCCESS_URN.getUrn())
+        .put("result", new JsonArray());
+  }
+}
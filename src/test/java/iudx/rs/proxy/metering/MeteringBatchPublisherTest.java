@@ -0,0 +1,139 @@
+package iudx.rs.proxy.metering;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.junit5.VertxExtension;
+import io.vertx.junit5.VertxTestContext;
+import iudx.rs.proxy.databroker.DatabrokerService;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+
+@ExtendWith(VertxExtension.class)
+class MeteringBatchPublisherTest {
+
+  @TempDir
+  Path tempDir;
+
+  @Test
+  @DisplayName("full batch is published in one confirmed call")
+  void testFlushOnBatchSize(Vertx vertx, VertxTestContext testContext) {
+    DatabrokerService rmqService = mock(DatabrokerService.class);
+    doAnswer(invocation -> {
+      JsonArray batch = invocation.getArgument(0);
+      Handler<AsyncResult<JsonObject>> handler = invocation.getArgument(3);
+      handler.handle(Future.succeededFuture(new JsonObject().put("count", batch.size())));
+      return null;
+    }).when(rmqService).publishMessageBatch(any(), anyString(), anyString(), any());
+
+    MeteringBatchPublisher publisher = new MeteringBatchPublisher(vertx, rmqService, 2, 10,
+        60000, 60000, tempDir.resolve("spill.log").toString());
+
+    publisher.start().onComplete(testContext.succeeding(started -> {
+      publisher.offer(new JsonObject().put("id", 1));
+      publisher.offer(new JsonObject().put("id", 2));
+      vertx.setTimer(200, timer -> testContext.verify(() -> {
+        verify(rmqService, times(1)).publishMessageBatch(any(), anyString(), anyString(), any());
+        assertEquals(0, publisher.queued());
+        testContext.completeNow();
+      }));
+    }));
+  }
+
+  @Test
+  @DisplayName("records of a failed batch are spilled to the local file")
+  void testSpillOnFailure(Vertx vertx, VertxTestContext testContext) {
+    DatabrokerService rmqService = mock(DatabrokerService.class);
+    doAnswer(invocation -> {
+      Handler<AsyncResult<JsonObject>> handler = invocation.getArgument(3);
+      handler.handle(Future.failedFuture("broker down"));
+      return null;
+    }).when(rmqService).publishMessageBatch(any(), anyString(), anyString(), any());
+
+    Path spillFile = tempDir.resolve("spill.log");
+    MeteringBatchPublisher publisher =
+        new MeteringBatchPublisher(vertx, rmqService, 1, 10, 60000, 60000, spillFile.toString());
+
+    publisher.start().onComplete(testContext.succeeding(started -> {
+      publisher.offer(new JsonObject().put("id", "audit-1"));
+      vertx.setTimer(200, timer -> publisher.stop().onComplete(testContext.succeeding(
+          stopped -> testContext.verify(() -> {
+            String spilled = Files.readString(spillFile);
+            assertTrue(spilled.contains("audit-1"));
+            testContext.completeNow();
+          }))));
+    }));
+  }
+
+  @Test
+  @DisplayName("replay file is deleted once every batch of it is confirmed")
+  void testReplayConfirmed(Vertx vertx, VertxTestContext testContext) throws Exception {
+    DatabrokerService rmqService = brokerFailingFrom(Integer.MAX_VALUE);
+    Path spillFile = tempDir.resolve("spill.log");
+    Files.writeString(spillFile, "{\"id\":1}\n{\"id\":2}\n{\"id\":3}\n");
+    MeteringBatchPublisher publisher =
+        new MeteringBatchPublisher(vertx, rmqService, 2, 10, 60000, 60000, spillFile.toString());
+
+    publisher.start().onComplete(testContext.succeeding(started -> {
+      publisher.replay().onComplete(testContext.succeeding(replayed -> testContext.verify(() -> {
+        verify(rmqService, times(2)).publishMessageBatch(any(), anyString(), anyString(), any());
+        assertFalse(Files.exists(tempDir.resolve("spill.log.replay")));
+        testContext.completeNow();
+      })));
+    }));
+  }
+
+  @Test
+  @DisplayName("replay file keeps the records of unconfirmed batches")
+  void testReplayUnconfirmed(Vertx vertx, VertxTestContext testContext) throws Exception {
+    DatabrokerService rmqService = brokerFailingFrom(2);
+    Path spillFile = tempDir.resolve("spill.log");
+    Files.writeString(spillFile, "{\"id\":1}\n{\"id\":2}\n{\"id\":3}\n");
+    MeteringBatchPublisher publisher =
+        new MeteringBatchPublisher(vertx, rmqService, 2, 10, 60000, 60000, spillFile.toString());
+
+    publisher.start().onComplete(testContext.succeeding(started -> {
+      publisher.replay().onComplete(testContext.failing(failure -> testContext.verify(() -> {
+        String pending = Files.readString(tempDir.resolve("spill.log.replay"));
+        assertFalse(pending.contains("\"id\":1"));
+        assertFalse(pending.contains("\"id\":2"));
+        assertTrue(pending.contains("\"id\":3"));
+        testContext.completeNow();
+      })));
+    }));
+  }
+
+  /* broker confirming the first calls and failing from the given call on. */
+  private static DatabrokerService brokerFailingFrom(int failingCall) {
+    DatabrokerService rmqService = mock(DatabrokerService.class);
+    AtomicInteger calls = new AtomicInteger();
+    doAnswer(invocation -> {
+      Handler<AsyncResult<JsonObject>> handler = invocation.getArgument(3);
+      if (calls.incrementAndGet() >= failingCall) {
+        handler.handle(Future.failedFuture("broker down"));
+      } else {
+        handler.handle(Future.succeededFuture(new JsonObject()));
+      }
+      return null;
+    }).when(rmqService).publishMessageBatch(any(), anyString(), anyString(), any());
+    return rmqService;
+  }
+}